@@ -0,0 +1,81 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.RegularPriceCategory;
+import ch.fhnw.swc.mrs.model.User;
+
+/**
+ * Database hot paths against an in-memory HSQLDB: loading the catalogue and renting a movie.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataBenchmark {
+    @Param({"1000", "10000"})
+    public int movies;
+
+    private DbMRSServices backend;
+    private PooledDatabase db;
+    private User user;
+    private Movie movie;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        PriceCategory.init();
+        String url = "jdbc:hsqldb:mem:jmh" + movies;
+        backend = new DbMRSServices(url);
+        backend.init();
+        List<Movie> catalogue = new ArrayList<>(movies);
+        for (int i = 0; i < movies; i++) {
+            catalogue.add(new Movie("Movie " + i, LocalDate.of(2000, 1, 1), RegularPriceCategory.getInstance(), 0));
+        }
+        backend.createMovies(catalogue);
+        movie = catalogue.get(0);
+        user = backend.createUser(new User("Duck", "Donald", LocalDate.of(1970, 1, 1)));
+        db = new PooledDatabase(new HsqlDatabase(), 1, 1);
+        db.initDB(url);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.shutdown();
+    }
+
+    @Benchmark
+    public List<Movie> movieDaoGetAll() throws Exception {
+        try (Connection c = db.getConnection()) {
+            return new SQLMovieDAO(c).getAll();
+        }
+    }
+
+    /** Renting needs the movie to be available, so every operation returns it again. */
+    @Benchmark
+    public boolean createAndReturnRental() {
+        backend.createRental(user, movie);
+        return backend.returnRental(user.getRentals().get(0));
+    }
+}
@@ -0,0 +1,58 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Movie identity, as used whenever movies are kept in hash based collections.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MovieBenchmark {
+    private Movie movie;
+    private Movie copy;
+    private Movie other;
+
+    @Setup
+    public void setUp() {
+        movie = create(1, "Casablanca");
+        copy = create(1, "Casablanca");
+        other = create(2, "Casablanca");
+    }
+
+    private static Movie create(int id, String title) {
+        Movie m = new Movie(title, LocalDate.of(1942, 11, 26), RegularPriceCategory.getInstance(), 0);
+        m.setId(id);
+        return m;
+    }
+
+    @Benchmark
+    public int hashCodeOfMovie() {
+        return movie.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return movie.equals(copy);
+    }
+
+    @Benchmark
+    public boolean equalsOther() {
+        return movie.equals(other);
+    }
+}
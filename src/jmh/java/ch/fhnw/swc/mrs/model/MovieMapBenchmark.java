@@ -0,0 +1,71 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looking up movies in a <code>HashMap</code>, once with movie tracing compiled out and once with it switched on
+ * as every movie did before tracing could be disabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MovieMapBenchmark {
+    @Param({"1000"})
+    public int size;
+
+    private Map<Movie, Integer> map;
+    private Movie[] keys;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        map = new HashMap<>();
+        keys = new Movie[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = create(i + 1);
+            map.put(create(i + 1), i);
+        }
+    }
+
+    private static Movie create(int id) {
+        Movie m = new Movie("Movie " + id, LocalDate.of(2000, 1, 1), RegularPriceCategory.getInstance(), 0);
+        m.setId(id);
+        return m;
+    }
+
+    /** @return an equal copy of the next movie in the map, so that equals compares all attributes. */
+    private Movie nextKey() {
+        Movie m = keys[next];
+        next = next + 1 == size ? 0 : next + 1;
+        return m;
+    }
+
+    @Benchmark
+    public Integer lookup() {
+        return map.get(nextKey());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dmrs.trace.movie=true")
+    public Integer lookupTraced() {
+        return map.get(nextKey());
+    }
+}
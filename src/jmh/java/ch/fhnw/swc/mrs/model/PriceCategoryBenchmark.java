@@ -0,0 +1,68 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Charge calculation and lookup of the three price categories.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceCategoryBenchmark {
+    @Param({"regular", "children", "newrelease"})
+    public String category;
+
+    @Param({"1", "7"})
+    public long days;
+
+    private PriceCategory priceCategory;
+    private String name;
+    private int code;
+
+    @Setup
+    public void setUp() {
+        PriceCategory.init();
+        switch (category) {
+            case "regular":
+                priceCategory = RegularPriceCategory.getInstance();
+                break;
+            case "children":
+                priceCategory = ChildrenPriceCategory.getInstance();
+                break;
+            default:
+                priceCategory = NewReleasePriceCategory.getInstance();
+        }
+        name = priceCategory.toString();
+        code = priceCategory.getCode();
+    }
+
+    @Benchmark
+    public double getCharge() {
+        return priceCategory.getCharge(days);
+    }
+
+    @Benchmark
+    public PriceCategory getPriceCategoryFromId() {
+        return PriceCategory.getPriceCategoryFromId(name);
+    }
+
+    @Benchmark
+    public PriceCategory getPriceCategoryFromCode() {
+        return PriceCategory.getPriceCategoryFromCode(code);
+    }
+}
@@ -0,0 +1,67 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of several counters renting and returning copies from one shared stock, with a low stock listener
+ * that is notified on every removal.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SharedStockBenchmark {
+    @Param({"1", "100"})
+    public int titles;
+
+    private Stock stock;
+    private Movie[] movies;
+
+    @Setup
+    public void setUp() {
+        stock = new Stock();
+        movies = new Movie[titles];
+        for (int i = 0; i < titles; i++) {
+            movies[i] = new Movie("Movie " + i, LocalDate.of(2000, 1, 1), RegularPriceCategory.getInstance(), 0);
+            for (int j = 0; j < 10; j++) {
+                stock.addToStock(movies[i]);
+            }
+        }
+        stock.addLowStockListener(new LowStockListener() {
+            @Override
+            public int getThreshold() {
+                return Integer.MAX_VALUE;
+            }
+
+            @Override
+            public void stockLow(Movie m, int c) {
+            }
+        });
+    }
+
+    @Benchmark
+    public int rentAndReturn() {
+        Movie m = movies[ThreadLocalRandom.current().nextInt(titles)];
+        int left = stock.removeFromStock(m);
+        stock.addToStock(m);
+        return left;
+    }
+}
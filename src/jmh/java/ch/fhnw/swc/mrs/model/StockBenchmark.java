@@ -0,0 +1,73 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adding and removing copies of movies in a stock with low stock listeners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StockBenchmark {
+    @Param({"10", "10000"})
+    public int titles;
+
+    private Stock stock;
+    private Movie[] movies;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        stock = new Stock();
+        movies = new Movie[titles];
+        for (int i = 0; i < titles; i++) {
+            movies[i] = new Movie("Movie " + i, LocalDate.of(2000, 1, 1), RegularPriceCategory.getInstance(), 0);
+            stock.addToStock(movies[i]);
+        }
+        stock.addLowStockListener(new LowStockListener() {
+            @Override
+            public int getThreshold() {
+                return 0;
+            }
+
+            @Override
+            public void stockLow(Movie m, int c) {
+            }
+        });
+    }
+
+    /** @return the next movie, cycling through all titles. */
+    private Movie nextMovie() {
+        Movie m = movies[next];
+        next = next + 1 == titles ? 0 : next + 1;
+        return m;
+    }
+
+    @Benchmark
+    public int addToStock() {
+        return stock.addToStock(nextMovie());
+    }
+
+    @Benchmark
+    public int addAndRemove() {
+        Movie m = nextMovie();
+        stock.addToStock(m);
+        return stock.removeFromStock(m);
+    }
+}
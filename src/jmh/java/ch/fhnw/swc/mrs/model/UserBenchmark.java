@@ -0,0 +1,52 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Total charge of a user, mixing all price categories and rental durations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserBenchmark {
+    @Param({"3", "100", "1000"})
+    public int rentals;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        PriceCategory[] categories = {RegularPriceCategory.getInstance(), ChildrenPriceCategory.getInstance(),
+            NewReleasePriceCategory.getInstance()};
+        user = new User("Duck", "Donald", LocalDate.of(1970, 1, 1));
+        user.setId(1);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < rentals; i++) {
+            Movie m = new Movie("Movie " + i, LocalDate.of(2000, 1, 1), categories[i % categories.length], 0);
+            m.setId(i + 1);
+            // materialized rentals are not limited to Rental.MAX_NUMBER_OF_RENTALS
+            Rental.materializeRentalFromDB(i + 1, user, m, today.minusDays(i % 30));
+        }
+    }
+
+    @Benchmark
+    public double getCharge() {
+        return user.getCharge();
+    }
+}
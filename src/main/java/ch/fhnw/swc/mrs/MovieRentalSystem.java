@@ -1,25 +1,45 @@
 package ch.fhnw.swc.mrs;
 
+import ch.fhnw.swc.mrs.data.CachingMRSServices;
 import ch.fhnw.swc.mrs.data.DbMRSServices;
 import ch.fhnw.swc.mrs.model.MRSServices;
 import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.remote.RemoteMRSServices;
 import ch.fhnw.swc.mrs.view.MRSController;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 /**
- * Main class of the Movie Rental System App.
+ * Main class of the Movie Rental System App. The window is shown right away; the database is started on a
+ * background thread meanwhile and the tabs are filled once it is ready.
  */
 public class MovieRentalSystem extends Application {
 
-	/** The backend component used in this application. */
-	private MRSServices backend = new DbMRSServices();
+	/**
+	 * Whether the application only starts, uses the backend and every tab once and exits again, set with the
+	 * system property <code>mrs.training</code>. The classes loaded by such a run are put into the
+	 * class-data-sharing archive of the <code>appcds</code> build profile.
+	 */
+	private static final boolean TRAINING = Boolean.getBoolean("mrs.training");
+
+	/** Timings of the phases of the application start. */
+	private static final StartupTimings TIMINGS = new StartupTimings();
+
+	/**
+	 * The backend component used in this application. Tabs shown again without changes are served from the cache.
+	 * With the system property <code>mrs.remote</code> set, the backend of an MRSServer is shared instead of using
+	 * a database of its own.
+	 */
+	private MRSServices backend = new CachingMRSServices(
+			Boolean.getBoolean("mrs.remote") ? new RemoteMRSServices() : new DbMRSServices());
 
 	@Override
 	public void start(Stage primaryStage) {
-		backend.init();
 		primaryStage.setTitle("Software Construction Lab");
 
 		try {
@@ -29,15 +49,70 @@ public class MovieRentalSystem extends Application {
 
 			// Show the scene containing the root layout.
 			primaryStage.setScene(new Scene(loader.load()));
+			MRSController controller = loader.getController();
+			controller.showStarting();
 			primaryStage.show();
+			TIMINGS.mark(StartupTimings.WINDOW);
+			new AnimationTimer() {
+				@Override
+				public void handle(long now) {
+					TIMINGS.mark(StartupTimings.FIRST_FRAME);
+					stop();
+				}
+			}.start();
 
-			MRSController controller = loader.getController();
-			controller.initTabs(backend);
+			startBackend(controller);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Release the database connections when the application exits.
+	 */
+	@Override
+	public void stop() {
+		backend.shutdown();
+	}
+
+	/**
+	 * Initialize the backend on a background thread and show the tabs when it is ready.
+	 * 
+	 * @param controller the controller of the main window.
+	 */
+	private void startBackend(MRSController controller) {
+		Task<Void> startup = new Task<Void>() {
+			@Override
+			protected Void call() {
+				backend.init();
+				if (TRAINING) {
+					backend.getAllMovies();
+					backend.getAllUsers();
+					backend.getAllRentals();
+				}
+				return null;
+			}
+		};
+		startup.setOnSucceeded(e -> {
+			TIMINGS.mark(StartupTimings.DATABASE);
+			controller.initTabs(backend);
+			if (TRAINING) {
+				controller.preloadTabs();
+				Platform.exit();
+			}
+		});
+		startup.setOnFailed(e -> {
+			startup.getException().printStackTrace();
+			if (TRAINING) {
+				System.exit(1);
+			}
+			controller.showStartFailed(startup.getException());
+		});
+		Thread t = new Thread(startup, "mrs-startup");
+		t.setDaemon(true);
+		t.start();
+	}
+
 	/**
 	 * The main method to start the app.
 	 * 
@@ -45,6 +120,7 @@ public class MovieRentalSystem extends Application {
 	 *            currently ignored.
 	 */
 	public static void main(String[] args) {
+		TIMINGS.mark(StartupTimings.MAIN);
 	    PriceCategory.init();
 		launch(args);
 	}
@@ -0,0 +1,77 @@
+package ch.fhnw.swc.mrs;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records when the phases of the application start were reached, measured in milliseconds since the JVM was
+ * started. Every phase is logged when it is reached; once the database is ready and the first frame was shown
+ * the whole start is logged in one line.
+ */
+final class StartupTimings {
+	/** Phase reached when the main method runs. */
+	static final String MAIN = "main";
+	/** Phase reached when the window was shown. */
+	static final String WINDOW = "window shown";
+	/** Phase reached when the first frame was rendered. */
+	static final String FIRST_FRAME = "first frame";
+	/** Phase reached when the backend is initialized and the first tab is being loaded. */
+	static final String DATABASE = "database ready";
+
+	/** Logger used to report the timings. */
+	private static Logger log = LogManager.getLogger();
+
+	private final long jvmStart;
+	private final Map<String, Long> phases = new LinkedHashMap<>();
+
+	/**
+	 * Measure from the start of the running JVM.
+	 */
+	StartupTimings() {
+		this(ManagementFactory.getRuntimeMXBean().getStartTime());
+	}
+
+	/**
+	 * @param jvmStart time in milliseconds since the epoch the phases are measured from.
+	 */
+	StartupTimings(long jvmStart) {
+		this.jvmStart = jvmStart;
+	}
+
+	/**
+	 * Record that a phase was reached now. Only the first time a phase is reached is kept.
+	 * 
+	 * @param phase name of the phase.
+	 */
+	synchronized void mark(String phase) {
+		if (phases.containsKey(phase)) {
+			return;
+		}
+		long elapsed = System.currentTimeMillis() - jvmStart;
+		phases.put(phase, elapsed);
+		log.info("startup: " + phase + " after " + elapsed + "ms");
+		if (phases.containsKey(FIRST_FRAME) && phases.containsKey(DATABASE)) {
+			log.info("startup: " + this);
+		}
+	}
+
+	/**
+	 * @return the phases reached so far with the milliseconds since the start of the JVM, in the order reached.
+	 */
+	synchronized Map<String, Long> getPhases() {
+		return new LinkedHashMap<>(phases);
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder("jvm start 0ms");
+		for (Map.Entry<String, Long> e : phases.entrySet()) {
+			sb.append(", ").append(e.getKey()).append(' ').append(e.getValue()).append("ms");
+		}
+		return sb.toString();
+	}
+}
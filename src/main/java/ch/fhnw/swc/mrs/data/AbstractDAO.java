@@ -1,9 +1,20 @@
 package ch.fhnw.swc.mrs.data;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class AbstractDAO implements DAO {
-    
+
+    /** Number of rows a streaming cursor fetches from the database at once. */
+    protected static final int STREAM_FETCH_SIZE = 200;
+
     /** java.sql.Connection to use for db access. */
     private Connection connection;
 
@@ -14,11 +25,89 @@ public class AbstractDAO implements DAO {
     protected AbstractDAO(Connection c) {
         connection = c;
     }
-    
+
     protected Connection getConnection() {
         return connection;
     }
 
+    /**
+     * Run work as one transaction: it is committed when the work completes and rolled back when it throws.
+     * @param work the statements to run.
+     * @throws SQLException whenever there is a problem.
+     */
+    protected void inTransaction(Work work) throws SQLException {
+        Connection c = getConnection();
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+        try {
+            work.run();
+            c.commit();
+        } catch (SQLException | RuntimeException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Run a query without parameters on a forward-only, read-only cursor.
+     * @param sql the query.
+     * @return the cursor. Closing it is up to the caller, see {@link #close(ResultSet)}.
+     * @throws SQLException whenever there is a problem.
+     */
+    protected ResultSet openCursor(String sql) throws SQLException {
+        Statement st = getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            st.setFetchSize(STREAM_FETCH_SIZE);
+            return st.executeQuery(sql);
+        } catch (SQLException e) {
+            st.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Close a cursor together with its statement.
+     * @param r the cursor to close.
+     */
+    protected static void close(ResultSet r) {
+        try {
+            Statement st = r.getStatement();
+            r.close();
+            st.close();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Stream the rows of a cursor, reading one object per row only when the stream asks for it. Closing the
+     * stream closes the cursor and its statement, but not the connection.
+     * @param r a cursor as returned by {@link #openCursor(String)}.
+     * @param reader reads the object at the current row.
+     * @param <T> type of the objects read.
+     * @return an ordered stream of the objects read.
+     */
+    protected static <T> Stream<T> stream(ResultSet r, RowReader<T> reader) {
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!r.next()) {
+                        return false;
+                    }
+                    action.accept(reader.read(r));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> close(r));
+    }
+
     @Override
     public void dispose() {
         try {
@@ -27,4 +116,25 @@ public class AbstractDAO implements DAO {
             e.printStackTrace();
         }
     }
+
+    /** Statements run by {@link AbstractDAO#inTransaction(Work)}. */
+    protected interface Work {
+        /**
+         * @throws SQLException whenever there is a problem.
+         */
+        void run() throws SQLException;
+    }
+
+    /**
+     * Reads the object at the current row of a result set.
+     * @param <T> type of the objects read.
+     */
+    protected interface RowReader<T> {
+        /**
+         * @param r cursor positioned on the row to read.
+         * @return the object read.
+         * @throws SQLException whenever there is a problem.
+         */
+        T read(ResultSet r) throws SQLException;
+    }
 }
@@ -0,0 +1,207 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import ch.fhnw.swc.mrs.model.AsyncMRSServices;
+import ch.fhnw.swc.mrs.model.MRSServices;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRecord;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalRecord;
+import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
+
+/**
+ * Offers any {@link MRSServices} asynchronously by running each call on an executor. The services must be
+ * thread-safe, as independent calls run at the same time.
+ */
+public class AsyncMRSServicesAdapter implements AsyncMRSServices {
+    private final MRSServices services;
+    private final Executor executor;
+
+    /**
+     * Run the calls on the {@link TaskExecutors#sharedBlockingTaskExecutor() shared executor}.
+     *
+     * @param services the services to call.
+     */
+    public AsyncMRSServicesAdapter(MRSServices services) {
+        this(services, TaskExecutors.sharedBlockingTaskExecutor());
+    }
+
+    /**
+     * @param services the services to call.
+     * @param executor runs the calls.
+     */
+    public AsyncMRSServicesAdapter(MRSServices services, Executor executor) {
+        this.services = services;
+        this.executor = executor;
+    }
+
+    /**
+     * @param task a call of the services.
+     * @param <T> type of the result.
+     * @return the future result of the call, run on the executor.
+     */
+    protected <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    @Override
+    public CompletableFuture<Movie> createMovie(Movie m) {
+        return supply(() -> services.createMovie(m));
+    }
+
+    @Override
+    public CompletableFuture<List<Movie>> getAllMovies() {
+        return supply(() -> services.getAllMovies());
+    }
+
+    @Override
+    public CompletableFuture<List<Movie>> getAllMovies(boolean rented) {
+        return supply(() -> services.getAllMovies(rented));
+    }
+
+    @Override
+    public CompletableFuture<List<Movie>> getMoviesPage(int afterId, int limit) {
+        return supply(() -> services.getMoviesPage(afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<MovieRecord>> getMovieRecords() {
+        return supply(() -> services.getMovieRecords());
+    }
+
+    @Override
+    public CompletableFuture<Movie> getMovieById(int id) {
+        return supply(() -> services.getMovieById(id));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateMovie(Movie movie) {
+        return supply(() -> services.updateMovie(movie));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteMovie(Movie movie) {
+        return supply(() -> services.deleteMovie(movie));
+    }
+
+    @Override
+    public CompletableFuture<List<Integer>> createMovies(Collection<Movie> movies) {
+        return supply(() -> services.createMovies(movies));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateMovies(Collection<Movie> movies) {
+        return supply(() -> services.updateMovies(movies));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteMovies(Collection<Movie> movies) {
+        return supply(() -> services.deleteMovies(movies));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> getAllUsers() {
+        return supply(() -> services.getAllUsers());
+    }
+
+    @Override
+    public CompletableFuture<List<User>> getUsersPage(int afterId, int limit) {
+        return supply(() -> services.getUsersPage(afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<UserRecord>> getUserRecords() {
+        return supply(() -> services.getUserRecords());
+    }
+
+    @Override
+    public CompletableFuture<User> getUserById(int id) {
+        return supply(() -> services.getUserById(id));
+    }
+
+    @Override
+    public CompletableFuture<User> getUserByName(String name) {
+        return supply(() -> services.getUserByName(name));
+    }
+
+    @Override
+    public CompletableFuture<User> createUser(User u) {
+        return supply(() -> services.createUser(u));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateUser(User u) {
+        return supply(() -> services.updateUser(u));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteUser(User u) {
+        return supply(() -> services.deleteUser(u));
+    }
+
+    @Override
+    public CompletableFuture<List<Integer>> createUsers(Collection<User> users) {
+        return supply(() -> services.createUsers(users));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateUsers(Collection<User> users) {
+        return supply(() -> services.updateUsers(users));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteUsers(Collection<User> users) {
+        return supply(() -> services.deleteUsers(users));
+    }
+
+    @Override
+    public CompletableFuture<List<Rental>> getAllRentals() {
+        return supply(() -> services.getAllRentals());
+    }
+
+    @Override
+    public CompletableFuture<Rental> getRentalById(int id) {
+        return supply(() -> services.getRentalById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Rental>> getRentalsPage(int afterId, int limit) {
+        return supply(() -> services.getRentalsPage(afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<RentalRecord>> getRentalRecords() {
+        return supply(() -> services.getRentalRecords());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createRental(User u, Movie m) {
+        return supply(() -> services.createRental(u, m));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> returnRental(Rental r) {
+        return supply(() -> services.returnRental(r));
+    }
+
+    @Override
+    public CompletableFuture<List<Integer>> createRentals(Collection<Rental> rentals) {
+        return supply(() -> services.createRentals(rentals));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> returnRentals(Collection<Rental> rentals) {
+        return supply(() -> services.returnRentals(rentals));
+    }
+
+    @Override
+    public CompletableFuture<Void> init() {
+        return CompletableFuture.runAsync(services::init, executor);
+    }
+}
@@ -0,0 +1,191 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes a collection of objects with JDBC batches. Each object runs the registered statements in the order they
+ * were added. The objects are sent in chunks of <code>batchSize</code>, all in one transaction: when a chunk
+ * fails, the chunks before it are rolled back too, so the collection is written completely or not at all.
+ * Statements registered with {@link #guard(String, Binder)} must change a row for every object, otherwise the
+ * chunk fails with a {@link GuardException}.
+ *
+ * @param <T> type of the objects written.
+ */
+final class BatchWriter<T> {
+
+    /**
+     * Binds the parameters of a statement to the values of one object.
+     *
+     * @param <T> type of the objects written.
+     */
+    interface Binder<T> {
+        /**
+         * @param ps the statement whose parameters are set.
+         * @param item the object to write.
+         * @throws SQLException whenever there is a problem.
+         */
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
+    private final Connection connection;
+    private final int batchSize;
+    private final List<String> statements = new ArrayList<>();
+    private final List<Binder<? super T>> binders = new ArrayList<>();
+    private final List<Boolean> guards = new ArrayList<>();
+    /** Index of the statement whose generated keys are collected, -1 for none. */
+    private int keysOf = -1;
+
+    /**
+     * @param connection the connection to write to. Its auto-commit mode is restored after writing.
+     * @param batchSize number of objects sent together.
+     */
+    BatchWriter(Connection connection, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+        }
+        this.connection = connection;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Register a statement to run for every object.
+     *
+     * @param sql the statement.
+     * @param binder sets the parameters of the statement for one object.
+     * @return this writer.
+     */
+    BatchWriter<T> add(String sql, Binder<? super T> binder) {
+        statements.add(sql);
+        binders.add(binder);
+        guards.add(false);
+        return this;
+    }
+
+    /**
+     * Register a statement to run for every object that must change at least one row each time.
+     *
+     * @param sql the statement, usually a conditional update.
+     * @param binder sets the parameters of the statement for one object.
+     * @return this writer.
+     */
+    BatchWriter<T> guard(String sql, Binder<? super T> binder) {
+        add(sql, binder);
+        guards.set(guards.size() - 1, true);
+        return this;
+    }
+
+    /**
+     * Collect the keys generated by the statement registered last.
+     *
+     * @return this writer.
+     */
+    BatchWriter<T> returningKeys() {
+        keysOf = statements.size() - 1;
+        return this;
+    }
+
+    /**
+     * @param items the objects to write.
+     * @return the keys generated for the objects in iteration order, empty unless {@link #returningKeys()} was set.
+     * @throws SQLException when a chunk could not be written. All chunks are rolled back.
+     */
+    List<Integer> write(Collection<? extends T> items) throws SQLException {
+        List<Integer> keys = new ArrayList<>(keysOf >= 0 ? items.size() : 0);
+        if (items.isEmpty()) {
+            return keys;
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        PreparedStatement[] ps = new PreparedStatement[statements.size()];
+        connection.setAutoCommit(false);
+        try {
+            for (int i = 0; i < ps.length; i++) {
+                ps[i] = i == keysOf
+                        ? connection.prepareStatement(statements.get(i), Statement.RETURN_GENERATED_KEYS)
+                        : connection.prepareStatement(statements.get(i));
+            }
+            int pending = 0;
+            int written = 0;
+            for (T item : items) {
+                for (int i = 0; i < ps.length; i++) {
+                    binders.get(i).bind(ps[i], item);
+                    ps[i].addBatch();
+                }
+                if (++pending == batchSize) {
+                    flush(ps, keys, written);
+                    written += pending;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                flush(ps, keys, written);
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            for (PreparedStatement s : ps) {
+                if (s != null) {
+                    s.close();
+                }
+            }
+            connection.setAutoCommit(autoCommit);
+        }
+        return keys;
+    }
+
+    /**
+     * @param ps the statements with their pending batches.
+     * @param keys receives the generated keys.
+     * @param written number of objects written by earlier chunks.
+     * @throws SQLException whenever there is a problem.
+     */
+    private void flush(PreparedStatement[] ps, List<Integer> keys, int written) throws SQLException {
+        for (int i = 0; i < ps.length; i++) {
+            int[] counts = ps[i].executeBatch();
+            if (guards.get(i)) {
+                for (int j = 0; j < counts.length; j++) {
+                    if (counts[j] == 0) {
+                        throw new GuardException(statements.get(i), written + j);
+                    }
+                }
+            }
+            if (i == keysOf) {
+                try (ResultSet r = ps[i].getGeneratedKeys()) {
+                    while (r.next()) {
+                        keys.add(r.getInt(1));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Signals that a guard statement did not change any row for an object.
+     */
+    static final class GuardException extends SQLException {
+        private static final long serialVersionUID = 1L;
+        private final int index;
+
+        /**
+         * @param sql the guard statement.
+         * @param index position of the object in the written collection.
+         */
+        GuardException(String sql, int index) {
+            super("guard failed for item " + index + ": " + sql);
+            this.index = index;
+        }
+
+        /** @return position of the object in the written collection. */
+        int getIndex() {
+            return index;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ch.fhnw.swc.mrs.data;
+
+/**
+ * Immutable snapshot of the usage figures of a {@link CachingMRSServices}.
+ */
+public final class CacheStatistics {
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+
+    /**
+     * Create a new snapshot.
+     * @param size number of results currently cached.
+     * @param maxSize the upper bound of cached results.
+     * @param hits number of queries answered from the cache.
+     * @param misses number of queries passed on to the backend.
+     * @param evictions number of results dropped to make room for others.
+     * @param expirations number of results dropped because they were older than the time to live.
+     * @param invalidations number of results dropped because of a change.
+     */
+    CacheStatistics(int size, int maxSize, long hits, long misses, long evictions, long expirations,
+                    long invalidations) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+    }
+
+    /** @return number of results currently cached. */
+    public int getSize() {
+        return size;
+    }
+
+    /** @return the upper bound of cached results. */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return number of queries answered from the cache. */
+    public long getHits() {
+        return hits;
+    }
+
+    /** @return number of queries passed on to the backend. */
+    public long getMisses() {
+        return misses;
+    }
+
+    /** @return number of results dropped to make room for others. */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /** @return number of results dropped because they were older than the time to live. */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /** @return number of results dropped because of a change. */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d, max=%d, hits=%d, misses=%d, evictions=%d, expirations=%d, invalidations=%d",
+                size, maxSize, hits, misses, evictions, expirations, invalidations);
+    }
+}
@@ -0,0 +1,563 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import ch.fhnw.swc.mrs.model.DataChangeListener;
+import ch.fhnw.swc.mrs.model.DataChangeListener.Kind;
+import ch.fhnw.swc.mrs.model.MRSServices;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRecord;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalRecord;
+import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
+
+/**
+ * Caches the results of the queries of another backend, so a view that is shown again without any change in
+ * between does not reach the database. Results are kept for a limited time; when the cache is full, the least
+ * recently used result is dropped. Every change made through this object drops the cached results that depend on
+ * it. Changes made by other clients of the database become visible after the time to live at the latest, or at
+ * once after {@link #invalidateAll()}.
+ * <p>
+ * Results are cached as immutable records, and every query returns new objects, so callers may change them
+ * without affecting the cache. Streams are not cached.
+ * <p>
+ * Listeners registered with {@link #addDataChangeListener(DataChangeListener)} are notified whenever cached
+ * results are dropped because of a change, so views can show the change without reloading everything.
+ */
+public class CachingMRSServices implements MRSServices {
+    /** Time to live of cached results in milliseconds, override with -Dmrs.cache.ttl. */
+    private static final long TTL_MILLIS = Long.getLong("mrs.cache.ttl", 30000L);
+    /** Maximum number of cached results, override with -Dmrs.cache.size. */
+    private static final int MAX_ENTRIES = Integer.getInteger("mrs.cache.size", 256);
+
+    /** Results that depend on movies. */
+    private static final int MOVIES = 1;
+    /** Results that depend on users. */
+    private static final int USERS = 2;
+    /** Results that depend on rentals. */
+    private static final int RENTALS = 4;
+    /** Results that contain rentals together with their users and movies. */
+    private static final int ALL = MOVIES | USERS | RENTALS;
+
+    private final MRSServices backend;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier ticker;
+    private final Map<String, CachedResult> cache;
+    private final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+    /** Incremented by every invalidation, so results loaded before it are not cached afterwards. */
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * Create a cache with the configured time to live and size.
+     * @param backend the backend whose results are cached.
+     */
+    public CachingMRSServices(MRSServices backend) {
+        this(backend, TTL_MILLIS, MAX_ENTRIES);
+    }
+
+    /**
+     * @param backend the backend whose results are cached.
+     * @param ttlMillis how long a result is cached, in milliseconds.
+     * @param maxEntries maximum number of results cached.
+     */
+    public CachingMRSServices(MRSServices backend, long ttlMillis, int maxEntries) {
+        this(backend, ttlMillis, maxEntries, System::nanoTime);
+    }
+
+    /**
+     * @param backend the backend whose results are cached.
+     * @param ttlMillis how long a result is cached, in milliseconds.
+     * @param maxEntries maximum number of results cached.
+     * @param ticker the current time in nanoseconds.
+     */
+    CachingMRSServices(MRSServices backend, long ttlMillis, int maxEntries, LongSupplier ticker) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("cache size must be positive: " + maxEntries);
+        }
+        this.backend = backend;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        this.ticker = ticker;
+        this.cache = new LinkedHashMap<String, CachedResult>(maxEntries * 4 / 3 + 1, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                if (size() <= CachingMRSServices.this.maxEntries) {
+                    return false;
+                }
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Answer a query from the cache, or from the backend if the result is not cached or has expired.
+     * @param key identifies the query and its arguments.
+     * @param depends the kinds of objects the result depends on.
+     * @param query runs the query on the backend.
+     * @param freeze converts the result into its immutable form.
+     * @param thaw builds a new result from its immutable form.
+     * @param <T> type of the result.
+     * @param <S> type of the cached form of the result.
+     * @return the result, <code>null</code> results are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    private <T, S> T cached(String key, int depends, Supplier<T> query, Function<T, S> freeze,
+                            Function<S, T> thaw) {
+        long loadedIn;
+        synchronized (cache) {
+            CachedResult e = cache.get(key);
+            if (e != null) {
+                if (ticker.getAsLong() - e.expires < 0) {
+                    hits++;
+                    return thaw.apply((S) e.value);
+                }
+                cache.remove(key);
+                expirations++;
+            }
+            misses++;
+            loadedIn = generation;
+        }
+        T result = query.get();
+        if (result != null) {
+            S frozen = freeze.apply(result);
+            synchronized (cache) {
+                if (generation == loadedIn) {
+                    cache.put(key, new CachedResult(frozen, ticker.getAsLong() + ttlNanos, depends));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop the cached results that depend on the given kinds of objects and notify the listeners.
+     * @param changed the kinds of objects changed.
+     */
+    private void invalidate(int changed) {
+        synchronized (cache) {
+            generation++;
+            for (Iterator<CachedResult> i = cache.values().iterator(); i.hasNext();) {
+                if ((i.next().depends & changed) != 0) {
+                    i.remove();
+                    invalidations++;
+                }
+            }
+        }
+        if (!listeners.isEmpty()) {
+            Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+            if ((changed & MOVIES) != 0) {
+                kinds.add(Kind.MOVIES);
+            }
+            if ((changed & USERS) != 0) {
+                kinds.add(Kind.USERS);
+            }
+            if ((changed & RENTALS) != 0) {
+                kinds.add(Kind.RENTALS);
+            }
+            Set<Kind> notified = Collections.unmodifiableSet(kinds);
+            for (DataChangeListener l : listeners) {
+                l.dataChanged(notified);
+            }
+        }
+    }
+
+    /** Drop all cached results, e.g. after other clients changed the database. */
+    public void invalidateAll() {
+        invalidate(ALL);
+    }
+
+    @Override
+    public void addDataChangeListener(DataChangeListener l) {
+        if (l != null && !listeners.contains(l)) {
+            listeners.add(l);
+        }
+    }
+
+    @Override
+    public void removeDataChangeListener(DataChangeListener l) {
+        listeners.remove(l);
+    }
+
+    /**
+     * @return usage figures of the cache.
+     */
+    public CacheStatistics getStatistics() {
+        synchronized (cache) {
+            return new CacheStatistics(cache.size(), maxEntries, hits, misses, evictions, expirations,
+                    invalidations);
+        }
+    }
+
+    @Override
+    public void init() {
+        backend.init();
+        invalidateAll();
+    }
+
+    @Override
+    public void shutdown() {
+        backend.shutdown();
+        invalidateAll();
+    }
+
+    @Override
+    public Movie createMovie(Movie m) {
+        try {
+            return backend.createMovie(m);
+        } finally {
+            invalidate(MOVIES);
+        }
+    }
+
+    @Override
+    public List<Movie> getAllMovies() {
+        return cached("movies", MOVIES, backend::getAllMovies, CachingMRSServices::freezeMovies,
+                Records::toMovies);
+    }
+
+    @Override
+    public List<Movie> getAllMovies(boolean rented) {
+        return cached("movies rented=" + rented, MOVIES, () -> backend.getAllMovies(rented),
+                CachingMRSServices::freezeMovies, Records::toMovies);
+    }
+
+    @Override
+    public List<Movie> getMoviesPage(int afterId, int limit) {
+        return cached("movies after " + afterId + " limit " + limit, MOVIES,
+                () -> backend.getMoviesPage(afterId, limit), CachingMRSServices::freezeMovies, Records::toMovies);
+    }
+
+    @Override
+    public Stream<Movie> streamMovies() {
+        return backend.streamMovies();
+    }
+
+    @Override
+    public List<MovieRecord> getMovieRecords() {
+        return cached("movie records", MOVIES, backend::getMovieRecords, CachingMRSServices::freeze,
+                ArrayList::new);
+    }
+
+    @Override
+    public Movie getMovieById(int id) {
+        return cached("movie " + id, MOVIES, () -> backend.getMovieById(id), Records::toRecord, Records::toMovie);
+    }
+
+    @Override
+    public boolean updateMovie(Movie movie) {
+        try {
+            return backend.updateMovie(movie);
+        } finally {
+            invalidate(MOVIES);
+        }
+    }
+
+    @Override
+    public boolean deleteMovie(Movie movie) {
+        try {
+            return backend.deleteMovie(movie);
+        } finally {
+            invalidate(MOVIES);
+        }
+    }
+
+    @Override
+    public List<Integer> createMovies(Collection<Movie> movies) {
+        try {
+            return backend.createMovies(movies);
+        } finally {
+            invalidate(MOVIES);
+        }
+    }
+
+    @Override
+    public boolean updateMovies(Collection<Movie> movies) {
+        try {
+            return backend.updateMovies(movies);
+        } finally {
+            invalidate(MOVIES);
+        }
+    }
+
+    @Override
+    public boolean deleteMovies(Collection<Movie> movies) {
+        try {
+            return backend.deleteMovies(movies);
+        } finally {
+            invalidate(MOVIES);
+        }
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return cached("users", ALL, backend::getAllUsers, CachingMRSServices::freezeUsers,
+                CachingMRSServices::thawUsers);
+    }
+
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        return cached("users after " + afterId + " limit " + limit, ALL, () -> backend.getUsersPage(afterId, limit),
+                CachingMRSServices::freezeUsers, CachingMRSServices::thawUsers);
+    }
+
+    @Override
+    public Stream<User> streamUsers() {
+        return backend.streamUsers();
+    }
+
+    @Override
+    public List<UserRecord> getUserRecords() {
+        return cached("user records", USERS, backend::getUserRecords, CachingMRSServices::freeze, ArrayList::new);
+    }
+
+    @Override
+    public User getUserById(int id) {
+        return cached("user " + id, ALL, () -> backend.getUserById(id), UserSnapshot::new, UserSnapshot::thaw);
+    }
+
+    @Override
+    public User getUserByName(String name) {
+        return cached("user named " + name, ALL, () -> backend.getUserByName(name), UserSnapshot::new,
+                UserSnapshot::thaw);
+    }
+
+    @Override
+    public User createUser(User u) {
+        try {
+            return backend.createUser(u);
+        } finally {
+            invalidate(USERS);
+        }
+    }
+
+    @Override
+    public boolean updateUser(User u) {
+        try {
+            return backend.updateUser(u);
+        } finally {
+            invalidate(USERS);
+        }
+    }
+
+    @Override
+    public boolean deleteUser(User u) {
+        try {
+            return backend.deleteUser(u);
+        } finally {
+            invalidate(USERS);
+        }
+    }
+
+    @Override
+    public List<Integer> createUsers(Collection<User> users) {
+        try {
+            return backend.createUsers(users);
+        } finally {
+            invalidate(USERS);
+        }
+    }
+
+    @Override
+    public boolean updateUsers(Collection<User> users) {
+        try {
+            return backend.updateUsers(users);
+        } finally {
+            invalidate(USERS);
+        }
+    }
+
+    @Override
+    public boolean deleteUsers(Collection<User> users) {
+        try {
+            return backend.deleteUsers(users);
+        } finally {
+            invalidate(USERS);
+        }
+    }
+
+    @Override
+    public List<Rental> getAllRentals() {
+        return cached("rentals", ALL, backend::getAllRentals, RentalsSnapshot::new, RentalsSnapshot::thaw);
+    }
+
+    /**
+     * {@inheritDoc} Not cached, as it is usually read to return the rental right afterwards.
+     */
+    @Override
+    public Rental getRentalById(int id) {
+        return backend.getRentalById(id);
+    }
+
+    @Override
+    public List<Rental> getRentalsPage(int afterId, int limit) {
+        return cached("rentals after " + afterId + " limit " + limit, ALL,
+                () -> backend.getRentalsPage(afterId, limit), RentalsSnapshot::new, RentalsSnapshot::thaw);
+    }
+
+    @Override
+    public Stream<Rental> streamRentals() {
+        return backend.streamRentals();
+    }
+
+    @Override
+    public List<RentalRecord> getRentalRecords() {
+        return cached("rental records", RENTALS, backend::getRentalRecords, CachingMRSServices::freeze,
+                ArrayList::new);
+    }
+
+    @Override
+    public boolean createRental(User u, Movie m) {
+        try {
+            return backend.createRental(u, m);
+        } finally {
+            invalidate(MOVIES | RENTALS);
+        }
+    }
+
+    @Override
+    public boolean returnRental(Rental r) {
+        try {
+            return backend.returnRental(r);
+        } finally {
+            invalidate(MOVIES | RENTALS);
+        }
+    }
+
+    @Override
+    public List<Integer> createRentals(Collection<Rental> rentals) {
+        try {
+            return backend.createRentals(rentals);
+        } finally {
+            invalidate(MOVIES | RENTALS);
+        }
+    }
+
+    @Override
+    public boolean returnRentals(Collection<Rental> rentals) {
+        try {
+            return backend.returnRentals(rentals);
+        } finally {
+            invalidate(MOVIES | RENTALS);
+        }
+    }
+
+    private static <R> List<R> freeze(List<R> records) {
+        return Collections.unmodifiableList(new ArrayList<>(records));
+    }
+
+    private static List<MovieRecord> freezeMovies(List<Movie> movies) {
+        List<MovieRecord> result = new ArrayList<>(movies.size());
+        for (Movie m : movies) {
+            result.add(Records.toRecord(m));
+        }
+        return result;
+    }
+
+    private static List<UserSnapshot> freezeUsers(List<User> users) {
+        List<UserSnapshot> result = new ArrayList<>(users.size());
+        for (User u : users) {
+            result.add(new UserSnapshot(u));
+        }
+        return result;
+    }
+
+    private static List<User> thawUsers(List<UserSnapshot> users) {
+        List<User> result = new ArrayList<>(users.size());
+        for (UserSnapshot u : users) {
+            result.add(u.thaw());
+        }
+        return result;
+    }
+
+    /** A cached result. */
+    private static final class CachedResult {
+        private final Object value;
+        /** Value of the ticker when the result expires. */
+        private final long expires;
+        private final int depends;
+
+        CachedResult(Object value, long expires, int depends) {
+            this.value = value;
+            this.expires = expires;
+            this.depends = depends;
+        }
+    }
+
+    /** A user together with the rentals and their movies. */
+    private static final class UserSnapshot {
+        private final UserRecord user;
+        private final List<RentalRecord> rentals = new ArrayList<>();
+        private final List<MovieRecord> movies = new ArrayList<>();
+
+        UserSnapshot(User u) {
+            user = Records.toRecord(u);
+            for (Rental r : u.getRentals()) {
+                rentals.add(Records.toRecord(r));
+                movies.add(Records.toRecord(r.getMovie()));
+            }
+        }
+
+        User thaw() {
+            User u = Records.toUser(user);
+            for (int i = 0; i < rentals.size(); i++) {
+                RentalRecord r = rentals.get(i);
+                Rental.materializeRentalFromDB(r.getId(), u, Records.toMovie(movies.get(i)), r.getRentalDate());
+            }
+            return u;
+        }
+    }
+
+    /** Rentals together with their users and movies, each user and movie stored once. */
+    private static final class RentalsSnapshot {
+        private final List<RentalRecord> rentals;
+        private final Map<Integer, UserRecord> users = new HashMap<>();
+        private final Map<Integer, MovieRecord> movies = new HashMap<>();
+
+        RentalsSnapshot(List<Rental> list) {
+            rentals = new ArrayList<>(list.size());
+            for (Rental r : list) {
+                rentals.add(Records.toRecord(r));
+                users.putIfAbsent(r.getUser().getId(), Records.toRecord(r.getUser()));
+                movies.putIfAbsent(r.getMovie().getId(), Records.toRecord(r.getMovie()));
+            }
+        }
+
+        /** @return new rentals sharing their users and movies, like the ones returned by the backend. */
+        List<Rental> thaw() {
+            Map<Integer, User> builtUsers = new HashMap<>();
+            Map<Integer, Movie> builtMovies = new HashMap<>();
+            List<Rental> result = new ArrayList<>(rentals.size());
+            for (RentalRecord r : rentals) {
+                User u = builtUsers.computeIfAbsent(r.getUserId(), id -> Records.toUser(users.get(id)));
+                Movie m = builtMovies.computeIfAbsent(r.getMovieId(), id -> Records.toMovie(movies.get(id)));
+                result.add(Rental.materializeRentalFromDB(r.getId(), u, m, r.getRentalDate()));
+            }
+            return result;
+        }
+    }
+}
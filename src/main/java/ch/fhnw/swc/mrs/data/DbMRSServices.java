@@ -1,175 +1,632 @@
 package ch.fhnw.swc.mrs.data;
 
 import java.sql.Connection;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
+import ch.fhnw.swc.mrs.model.AsyncMRSServices;
 import ch.fhnw.swc.mrs.model.MRSServices;
 import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRecord;
 import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.RentalRecord;
+import ch.fhnw.swc.mrs.model.Stock;
 import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
 
 public class DbMRSServices implements MRSServices {
     private static final String DB_CONNECTION = "jdbc:hsqldb:file:src/main/resources/mrs";
-	private Database db;
+    /** Number of pooled connections opened at startup, override with -Dmrs.pool.min. */
+    private static final int MIN_CONNECTIONS = Integer.getInteger("mrs.pool.min", 2);
+    /** Maximum number of pooled connections, override with -Dmrs.pool.max. */
+    private static final int MAX_CONNECTIONS = Integer.getInteger("mrs.pool.max", 8);
+    /** Prepared statements cached per pooled connection, override with -Dmrs.pool.statements (0 disables). */
+    private static final int CACHED_STATEMENTS =
+            Integer.getInteger("mrs.pool.statements", PooledDatabase.DEFAULT_STATEMENT_CACHE_SIZE);
+    /** Whether to keep the large tables as CACHED tables, enable with -Dmrs.db.cached=true. */
+    private static final boolean CACHED_TABLES = Boolean.getBoolean("mrs.db.cached");
+    /** Whether leak reports show where the connection was borrowed, enable with -Dmrs.pool.leakTrace=true. */
+    private static final boolean LEAK_TRACE = Boolean.getBoolean("mrs.pool.leakTrace");
+    /** Rows sent per JDBC batch by the bulk operations, override with -Dmrs.batch.size. */
+    private static final int BATCH_SIZE = Integer.getInteger("mrs.batch.size", 500);
 
-	private MovieDAO getMovieDAO() { 
-		return new SQLMovieDAO(getConnection());
-	}
+    private final String dbConnection;
+    private PooledDatabase db;
+    private int batchSize = BATCH_SIZE;
 
-	private UserDAO getUserDAO() { 
-		return new SQLUserDAO(getConnection());
-	}
+    /** Create a backend on the default database file. */
+    public DbMRSServices() {
+        this(DB_CONNECTION);
+    }
 
-	private RentalDAO getRentalDAO() { 
-		return new SQLRentalDAO(getConnection());
-	}
+    /**
+     * Create a backend on the given database.
+     * @param dbConnection JDBC connection string of the database to use.
+     */
+    public DbMRSServices(String dbConnection) {
+        this.dbConnection = dbConnection;
+    }
 
-	@Override
-	public Movie createMovie(Movie movie) {
+    private MovieDAO getMovieDAO() {
+        return new SQLMovieDAO(getConnection());
+    }
+
+    private UserDAO getUserDAO() {
+        return new SQLUserDAO(getConnection(), true);
+    }
+
+    private RentalDAO getRentalDAO() {
+        return new SQLRentalDAO(getConnection());
+    }
+
+    private InventoryDAO getInventoryDAO() {
+        return new SQLInventoryDAO(getConnection());
+    }
+
+    @Override
+    public Movie createMovie(Movie movie) {
+        MovieDAO dao = getMovieDAO();
         try {
-            getMovieDAO().saveOrUpdate(movie);
+            dao.saveOrUpdate(movie);
             return movie;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public List<Movie> getAllMovies() {
+        MovieDAO dao = getMovieDAO();
+        try {
+            return dao.getAll();
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public List<Movie> getAllMovies(boolean rented) {
+        MovieDAO dao = getMovieDAO();
+        try {
+            return dao.getAll(rented);
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public List<Movie> getMoviesPage(int afterId, int limit) {
+        MovieDAO dao = getMovieDAO();
+        try {
+            return dao.getPage(afterId, limit);
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public Stream<Movie> streamMovies() {
+        MovieDAO dao = getMovieDAO();
+        try {
+            return dao.stream().onClose(dao::dispose);
+        } catch (RuntimeException e) {
+            dao.dispose();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<MovieRecord> getMovieRecords() {
+        MovieDAO dao = getMovieDAO();
+        try {
+            return dao.getAllRecords();
+        } finally {
+            dao.dispose();
         }
-	}
-
-	@Override
-	public List<Movie> getAllMovies() {
-		return getMovieDAO().getAll();
-	}
-
-	@Override
-	public List<Movie> getAllMovies(boolean rented) {
-        return getMovieDAO().getAll(rented);
-	}
-
-	@Override
-	public Movie getMovieById(int id) {
-	    return getMovieDAO().getById(id);
-	}
-
-	@Override
-	public boolean updateMovie(Movie movie) {
-	    try {
-	        getMovieDAO().saveOrUpdate(movie);
-	        return true;
-	    } catch (Exception e) {
-	        e.printStackTrace();
-	        return false;
-	    }
-	}
-
-	@Override
-	public boolean deleteMovie(Movie movie) {
-        try {
-            getMovieDAO().delete(movie);
+    }
+
+    @Override
+    public Movie getMovieById(int id) {
+        MovieDAO dao = getMovieDAO();
+        try {
+            return dao.getById(id);
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public boolean updateMovie(Movie movie) {
+        MovieDAO dao = getMovieDAO();
+        try {
+            dao.saveOrUpdate(movie);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
             return false;
+        } finally {
+            dao.dispose();
         }
-	}
-
-	@Override
-	public List<User> getAllUsers() {
-	    return getUserDAO().getAll();
-	}
-
-	@Override
-	public User getUserById(int id) {
-	    return getUserDAO().getById(id);
-	}
-
-	@Override
-	public User getUserByName(String name) {
-	    List<User> users = getUserDAO().getByName(name);
-		return users.size() == 0 ? null : users.get(0);
-	}
-
-	@Override
-	public User createUser(User user) {
-	    try {
-	        getUserDAO().saveOrUpdate(user);
-	        return user;
-	    } catch (Exception e) {
-	        e.printStackTrace();
-	        return null;
-	    }
-	}
-
-	@Override
-	public boolean updateUser(User user) {
-        try {
-            getUserDAO().saveOrUpdate(user);
+    }
+
+    @Override
+    public boolean deleteMovie(Movie movie) {
+        MovieDAO dao = getMovieDAO();
+        try {
+            dao.delete(movie);
+            return true;
+        } catch (Exception e) {
+            if (!isStillRented(e)) {
+                e.printStackTrace();
+            }
+            return false;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public List<Integer> createMovies(Collection<Movie> movies) {
+        MovieDAO dao = getMovieDAO();
+        try {
+            return dao.insertAll(movies, batchSize);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public boolean updateMovies(Collection<Movie> movies) {
+        MovieDAO dao = getMovieDAO();
+        try {
+            dao.updateAll(movies, batchSize);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
             return false;
+        } finally {
+            dao.dispose();
         }
-	}
+    }
 
-	@Override
-	public boolean deleteUser(User user) {
+    @Override
+    public boolean deleteMovies(Collection<Movie> movies) {
+        MovieDAO dao = getMovieDAO();
         try {
-            getUserDAO().delete(user);
+            dao.deleteAll(movies, batchSize);
+            return true;
+        } catch (Exception e) {
+            if (!isStillRented(e)) {
+                e.printStackTrace();
+            }
+            return false;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        UserDAO dao = getUserDAO();
+        try {
+            return dao.getAll();
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        UserDAO dao = getUserDAO();
+        try {
+            return dao.getPage(afterId, limit);
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public Stream<User> streamUsers() {
+        UserDAO dao = getUserDAO();
+        try {
+            return dao.stream().onClose(dao::dispose);
+        } catch (RuntimeException e) {
+            dao.dispose();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<UserRecord> getUserRecords() {
+        UserDAO dao = getUserDAO();
+        try {
+            return dao.getAllRecords();
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public User getUserById(int id) {
+        UserDAO dao = getUserDAO();
+        try {
+            return dao.getById(id);
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public User getUserByName(String name) {
+        UserDAO dao = getUserDAO();
+        try {
+            List<User> users = dao.getByName(name);
+            return users.size() == 0 ? null : users.get(0);
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public User createUser(User user) {
+        UserDAO dao = getUserDAO();
+        try {
+            dao.saveOrUpdate(user);
+            return user;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        UserDAO dao = getUserDAO();
+        try {
+            dao.saveOrUpdate(user);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
             return false;
+        } finally {
+            dao.dispose();
         }
-	}
-
-	@Override
-	public List<Rental> getAllRentals() {
-		return getRentalDAO().getAll();
-	}
-
-	@Override
-	public boolean createRental(User u, Movie m) {
-	    Rental r = new Rental(u, m);
-	    try {
-	        getRentalDAO().save(r);
-	        m.setRented(true);
-	        getMovieDAO().saveOrUpdate(m);
-	    } catch (Exception e) {
-	        e.printStackTrace();
-	        r = null;
-	    }
-	    return r != null;
-	}
-
-	@Override
-	public boolean returnRental(Rental r) {
-        try {
-            getRentalDAO().delete(r);
-            Movie m = r.getMovie();
+    }
+
+    @Override
+    public boolean deleteUser(User user) {
+        UserDAO dao = getUserDAO();
+        try {
+            dao.delete(user);
+            return true;
+        } catch (Exception e) {
+            if (!isStillRented(e)) {
+                e.printStackTrace();
+            }
+            return false;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public List<Integer> createUsers(Collection<User> users) {
+        UserDAO dao = getUserDAO();
+        try {
+            return dao.insertAll(users, batchSize);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public boolean updateUsers(Collection<User> users) {
+        UserDAO dao = getUserDAO();
+        try {
+            dao.updateAll(users, batchSize);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public boolean deleteUsers(Collection<User> users) {
+        UserDAO dao = getUserDAO();
+        try {
+            dao.deleteAll(users, batchSize);
+            return true;
+        } catch (Exception e) {
+            if (!isStillRented(e)) {
+                e.printStackTrace();
+            }
+            return false;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public List<Rental> getAllRentals() {
+        RentalDAO dao = getRentalDAO();
+        try {
+            return dao.getAll();
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public Rental getRentalById(int id) {
+        RentalDAO dao = getRentalDAO();
+        try {
+            return dao.getById(id);
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public List<Rental> getRentalsPage(int afterId, int limit) {
+        RentalDAO dao = getRentalDAO();
+        try {
+            return dao.getPage(afterId, limit);
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public Stream<Rental> streamRentals() {
+        RentalDAO dao = getRentalDAO();
+        try {
+            return dao.stream().onClose(dao::dispose);
+        } catch (RuntimeException e) {
+            dao.dispose();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<RentalRecord> getRentalRecords() {
+        RentalDAO dao = getRentalDAO();
+        try {
+            return dao.getAllRecords();
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public boolean createRental(User u, Movie m) {
+        Rental r = new Rental(u, m);
+        RentalDAO dao = getRentalDAO();
+        try {
+            dao.save(r);
+            return true;
+        } catch (RentalConflictException e) {
+            u.getRentals().remove(r); // the movie stays rented, as it is in the database
+            throw e;
+        } catch (Exception e) {
+            e.printStackTrace();
+            u.getRentals().remove(r);
             m.setRented(false);
-            getMovieDAO().saveOrUpdate(m);
+            return false;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    @Override
+    public boolean returnRental(Rental r) {
+        RentalDAO dao = getRentalDAO();
+        try {
+            dao.delete(r);
+            r.getMovie().setRented(false);
+            r.getUser().getRentals().remove(r);
+            return true;
+        } catch (RentalConflictException e) {
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
-            r = null;
+            return false;
+        } finally {
+            dao.dispose();
         }
-        return r != null;
-	}
-	
-	private Connection getConnection() {
-	    try {
+    }
+
+    @Override
+    public List<Integer> createRentals(Collection<Rental> rentals) {
+        RentalDAO dao = getRentalDAO();
+        try {
+            return dao.insertAll(rentals, batchSize);
+        } catch (RentalConflictException e) {
+            undoRentals(rentals, e.getIndex()); // the conflicting movie stays rented, as it is in the database
+            throw e;
+        } catch (Exception e) {
+            e.printStackTrace();
+            undoRentals(rentals, -1);
+            return null;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    /**
+     * Undo what creating the rentals did to their users and movies after the rentals were rolled back.
+     *
+     * @param rentals the rentals that were not stored.
+     * @param rented index of the rental whose movie is rented by someone else, -1 for none.
+     */
+    private static void undoRentals(Collection<Rental> rentals, int rented) {
+        int i = 0;
+        for (Rental r : rentals) {
+            r.getUser().getRentals().remove(r);
+            if (i++ != rented) {
+                r.getMovie().setRented(false);
+            }
+        }
+    }
+
+    @Override
+    public boolean returnRentals(Collection<Rental> rentals) {
+        RentalDAO dao = getRentalDAO();
+        try {
+            dao.deleteAll(rentals, batchSize);
+            for (Rental r : rentals) {
+                r.getMovie().setRented(false);
+                r.getUser().getRentals().remove(r);
+            }
+            return true;
+        } catch (RentalConflictException e) {
+            throw e;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    /**
+     * @param batchSize number of rows the bulk operations send per JDBC batch. Each bulk operation still runs in
+     *            one transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return a stock kept in the inventory table of this backend's database.
+     */
+    public Stock getStock() {
+        return new PersistentStock(this::getInventoryDAO);
+    }
+
+    /**
+     * Offer this backend asynchronously, running the queries on the
+     * {@link TaskExecutors#sharedBlockingTaskExecutor() shared executor}.
+     *
+     * @return the asynchronous services of this backend.
+     */
+    public AsyncMRSServices async() {
+        return async(TaskExecutors.sharedBlockingTaskExecutor());
+    }
+
+    /**
+     * Offer this backend asynchronously. Queries that do not depend on each other run at the same time on
+     * connections of their own: reading all Users queries the Users and the Rentals with their Movies at once
+     * and links them afterwards, instead of one query after the other.
+     *
+     * @param executor runs the queries.
+     * @return the asynchronous services of this backend.
+     */
+    public AsyncMRSServices async(Executor executor) {
+        return new AsyncMRSServicesAdapter(this, executor) {
+            @Override
+            public CompletableFuture<List<User>> getAllUsers() {
+                CompletableFuture<List<User>> users = supply(() -> {
+                    UserDAO dao = new SQLUserDAO(getConnection(), false);
+                    try {
+                        return dao.getAll();
+                    } finally {
+                        dao.dispose();
+                    }
+                });
+                return users.thenCombine(supply(DbMRSServices.this::getAllRentals), DbMRSServices::attach);
+            }
+        };
+    }
+
+    /**
+     * Give the users the rentals read on their own.
+     *
+     * @param users users read without their rentals.
+     * @param rentals rentals read with users of their own.
+     * @return users, now with their rentals.
+     */
+    private static List<User> attach(List<User> users, List<Rental> rentals) {
+        Map<Integer, User> byId = new HashMap<>();
+        for (User u : users) {
+            byId.put(u.getId(), u);
+        }
+        for (Rental r : rentals) {
+            User u = byId.get(r.getUser().getId());
+            if (u != null) {
+                Rental.materializeRentalFromDB(r.getId(), u, r.getMovie(), r.getRentalDate());
+            }
+        }
+        return users;
+    }
+
+    /**
+     * @return usage figures of the connection pool.
+     */
+    public PoolStatistics getPoolStatistics() {
+        return db.getStatistics();
+    }
+
+    private Connection getConnection() {
+        try {
             return db.getConnection();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-	}
-	
-	@Override
-	public void init() {
-	    try {
-            db = new HsqlDatabase();
-            db.initDB(DB_CONNECTION);
+    }
+
+    @Override
+    public void init() {
+        try {
+            db = new PooledDatabase(new HsqlDatabase(CACHED_TABLES), MIN_CONNECTIONS, MAX_CONNECTIONS);
+            db.setStatementCacheSize(CACHED_STATEMENTS);
+            db.setLeakTrace(LEAK_TRACE);
+            db.initDB(dbConnection);
         } catch (Exception e) {
-            e.printStackTrace();
+            throw new RuntimeException("database " + dbConnection + " could not be initialized", e);
+        }
+    }
+
+    /**
+     * @param e the failure of a delete.
+     * @return whether the delete failed because rentals still refer to the movie or user, which the foreign keys
+     *         of the rentals table forbid. That is an expected outcome rather than an error.
+     */
+    private static boolean isStillRented(Exception e) {
+        return e.getCause() instanceof SQLIntegrityConstraintViolationException;
+    }
+
+    /**
+     * Close the pooled connections. Connections still in use are closed when they are returned.
+     */
+    @Override
+    public void shutdown() {
+        if (db != null) {
+            db.shutdown();
         }
-	}
+    }
 
 }
@@ -6,18 +6,83 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * Responsible to initialize database.
  */
 public final class HsqlDatabase implements Database {
+    private static Logger log = LogManager.getLogger();
     public static final String DB_DRIVER = "org.hsqldb.jdbcDriver";
+
+    /** Removes rentals of movies or clients that no longer exist, which the foreign keys of migration 1 forbid. */
+    private static final String DELETE_ORPHANED_RENTALS_SQL = "delete from rentals where movieid not in"
+            + " (select id from movies) or clientid not in (select id from clients)";
+
+    /**
+     * Schema migrations applied after DBSetup.script. The statements of <code>MIGRATIONS[i]</code> migrate the
+     * schema to version <code>i + 1</code>. Never change the effect of a released migration, append a new one
+     * instead. DDL statements commit on their own, so a migration that fails halfway is run again from its first
+     * statement: every statement must succeed when it was already applied.
+     */
+    private static final String[][] MIGRATIONS = {
+        { // 1: indexes and foreign keys on the hot lookup columns
+            DELETE_ORPHANED_RENTALS_SQL,
+            "drop index rentals_clientid if exists",
+            "alter table rentals add constraint if not exists rentals_movie_fk foreign key ( MovieId )"
+                + " references movies ( Id )",
+            "alter table rentals add constraint if not exists rentals_client_fk foreign key ( ClientId )"
+                + " references clients ( Id )",
+            "create index if not exists movies_isrented on movies ( IsRented )",
+            "create index if not exists movies_title on movies ( Title )",
+            "create index if not exists clients_name on clients ( Name )",
+            "create index if not exists rentals_rentaldate on rentals ( RentalDate )",
+        },
+        { // 2: price categories as compact codes (see PriceCategory.getCode()) instead of their names
+            "update movies set PriceCategory = case cast(PriceCategory as varchar(20)) when 'Regular' then '1'"
+                + " when 'Children' then '2' when 'New Release' then '3' else cast(PriceCategory as varchar(20)) end",
+            "alter table movies alter column PriceCategory set data type smallint",
+        },
+        { // 3: copies in stock per title, see SQLInventoryDAO
+            "create table if not exists inventory ( Title VARCHAR(255) NOT NULL PRIMARY KEY,"
+                + " Copies INTEGER NOT NULL, constraint inventory_copies check ( Copies >= 0 ) )",
+        },
+    };
+
+    /** The schema version this class migrates databases to. */
+    public static final int SCHEMA_VERSION = MIGRATIONS.length;
+
+    /** Tables that are switched to HSQLDB CACHED tables on request. */
+    private static final String[] LARGE_TABLES = {"movies", "clients", "rentals"};
+
+    private static final String CREATE_VERSION_TABLE_SQL =
+            "create table if not exists schema_version ( Version INTEGER NOT NULL )";
+    private static final String GET_VERSION_SQL = "SELECT MAX(version) FROM schema_version";
+    private static final String SET_VERSION_SQL = "INSERT INTO schema_version ( version ) VALUES ( ? )";
+
     private String dbCONNECTION;
+    private final boolean cachedTables;
+
+    /** Create a database whose tables are kept as configured in the database files. */
+    public HsqlDatabase() {
+        this(false);
+    }
+
+    /**
+     * @param cachedTables whether to switch the large tables to HSQLDB CACHED tables, which keep only part of
+     *            their rows in memory. Only effective for file databases.
+     */
+    public HsqlDatabase(boolean cachedTables) {
+        this.cachedTables = cachedTables;
+    }
 
     @Override
     public void initDB(String dbconnection) throws Exception {
@@ -26,6 +91,12 @@ public final class HsqlDatabase implements Database {
 
         // create database tables only if they do not yet exist.
         createDatabaseModel(connection);
+        migrate(connection);
+        if (cachedTables) {
+            for (String table : LARGE_TABLES) {
+                command("SET TABLE " + table + " TYPE CACHED", connection);
+            }
+        }
 
         connection.close();
     }
@@ -42,7 +113,7 @@ public final class HsqlDatabase implements Database {
         try {
             InputStream stream = getClass().getResourceAsStream("/data/DBSetup.script");
             List<String> commands = readAllLines(stream);
-            
+
             for (String line: commands) {
                 command(line, conn);
             }
@@ -51,13 +122,42 @@ public final class HsqlDatabase implements Database {
         }
     }
 
+    /**
+     * Bring the schema up to {@link #SCHEMA_VERSION} by applying all migrations not applied yet.
+     *
+     * @param conn connection to the database to migrate.
+     * @throws SQLException when a migration fails. Its version is not recorded, so it is retried next time.
+     */
+    private void migrate(Connection conn) throws SQLException {
+        command(CREATE_VERSION_TABLE_SQL, conn);
+        int version;
+        try (Statement st = conn.createStatement(); ResultSet r = st.executeQuery(GET_VERSION_SQL)) {
+            r.next();
+            version = r.getInt(1);
+        }
+        for (int v = version; v < SCHEMA_VERSION; v++) {
+            for (String expression : MIGRATIONS[v]) {
+                int rows = command(expression, conn);
+                if (expression.equals(DELETE_ORPHANED_RENTALS_SQL) && rows > 0) {
+                    log.warn("schema version " + (v + 1) + " deleted " + rows
+                            + " rentals of movies or clients that no longer exist");
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(SET_VERSION_SQL)) {
+                ps.setInt(1, v + 1);
+                ps.executeUpdate();
+            }
+        }
+    }
+
     /**
      * use for SQL commands CREATE, DROP, INSERT and UPDATE.
-     * 
+     *
      * @param expression SQL command
+     * @return the number of rows changed.
      * @throws SQLException when something went wrong
      */
-    private synchronized void command(String expression, Connection connection) throws SQLException {
+    private synchronized int command(String expression, Connection connection) throws SQLException {
         Statement st = null;
         st = connection.createStatement(); // statements
         int i = st.executeUpdate(expression); // run the query
@@ -65,13 +165,14 @@ public final class HsqlDatabase implements Database {
             System.out.println("db error : " + expression);
         }
         st.close();
+        return i;
     }
 
     @Override
     public Connection getConnection() throws SQLException {
         return DriverManager.getConnection(dbCONNECTION, "SA", "");
     }
-    
+
     private List<String> readAllLines(InputStream is) throws IOException {
         List<String> result = new LinkedList<>();
         BufferedReader b = new BufferedReader(new InputStreamReader(is));
@@ -0,0 +1,781 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import ch.fhnw.swc.mrs.model.MRSServices;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRecord;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.RentalRecord;
+import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
+
+/**
+ * Keeps all movies, users and rentals in memory as immutable records, indexed by id and by rented status, title,
+ * user name and user. Like the database backend, every call returns new objects, so callers may change them
+ * without affecting the stored data. Reads take no lock and see each record either before or after a concurrent
+ * change; changes are serialized.
+ * <p>
+ * Without a backend the data only lives as long as this object, which makes it a fast test double. With a
+ * backend, usually a {@link DbMRSServices}, the data is loaded from it by {@link #init()} and every change is
+ * written through to it first: the memory only changes when the backend succeeded, so it answers all reads
+ * without touching the database.
+ */
+public class InMemoryMRSServices implements MRSServices {
+    /** First id handed out, as by the identity columns of the database. */
+    private static final int FIRST_ID = 100;
+
+    /** Where changes are written through to, or <code>null</code>. */
+    private final MRSServices backend;
+    /** Serializes all changes. */
+    private final Object writeLock = new Object();
+
+    private final ConcurrentNavigableMap<Integer, MovieRecord> movies = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<Integer, UserRecord> users = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<Integer, RentalRecord> rentals = new ConcurrentSkipListMap<>();
+
+    /** Ids of the rented movies. */
+    private final Set<Integer> rentedMovies = new ConcurrentSkipListSet<>();
+    /** Ids of the available movies. */
+    private final Set<Integer> availableMovies = new ConcurrentSkipListSet<>();
+    /** Ids of the movies by title. */
+    private final ConcurrentMap<String, NavigableSet<Integer>> moviesByTitle = new ConcurrentHashMap<>();
+    /** Ids of the users by name. */
+    private final ConcurrentMap<String, NavigableSet<Integer>> usersByName = new ConcurrentHashMap<>();
+    /** Ids of the rentals by user id. */
+    private final ConcurrentMap<Integer, NavigableSet<Integer>> rentalsByUser = new ConcurrentHashMap<>();
+
+    private int nextMovieId = FIRST_ID;
+    private int nextUserId = FIRST_ID;
+    private int nextRentalId = FIRST_ID;
+
+    /** Create a backend that keeps its data in memory only. */
+    public InMemoryMRSServices() {
+        this(null);
+    }
+
+    /**
+     * Create a backend that keeps a copy of another backend in memory.
+     * @param backend the backend to load from and to write through to, <code>null</code> for none.
+     */
+    public InMemoryMRSServices(MRSServices backend) {
+        this.backend = backend;
+    }
+
+    @Override
+    public void shutdown() {
+        if (backend != null) {
+            backend.shutdown();
+        }
+    }
+
+    @Override
+    public void init() {
+        if (backend == null) {
+            return;
+        }
+        backend.init();
+        synchronized (writeLock) {
+            movies.clear();
+            users.clear();
+            rentals.clear();
+            rentedMovies.clear();
+            availableMovies.clear();
+            moviesByTitle.clear();
+            usersByName.clear();
+            rentalsByUser.clear();
+            for (MovieRecord m : backend.getMovieRecords()) {
+                putMovie(m);
+            }
+            for (UserRecord u : backend.getUserRecords()) {
+                putUser(u);
+            }
+            for (RentalRecord r : backend.getRentalRecords()) {
+                putRental(r);
+            }
+        }
+    }
+
+    @Override
+    public Movie createMovie(Movie movie) {
+        synchronized (writeLock) {
+            if (backend != null) {
+                if (backend.createMovie(movie) == null) {
+                    return null;
+                }
+            } else if (movie.getId() == 0 || !movies.containsKey(movie.getId())) {
+                movie.setId(nextMovieId++);
+            }
+            putMovie(Records.toRecord(movie));
+            return movie;
+        }
+    }
+
+    @Override
+    public List<Movie> getAllMovies() {
+        return Records.toMovies(movies.values());
+    }
+
+    @Override
+    public List<Movie> getAllMovies(boolean rented) {
+        List<Movie> result = new ArrayList<>();
+        for (Integer id : rented ? rentedMovies : availableMovies) {
+            MovieRecord m = movies.get(id);
+            if (m != null && m.isRented() == rented) {
+                result.add(Records.toMovie(m));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieve the movies with a given title, using the title index.
+     * @param title the exact title.
+     * @return the movies with this title in the order of their ids.
+     */
+    public List<Movie> getMoviesByTitle(String title) {
+        List<Movie> result = new ArrayList<>();
+        for (Integer id : moviesByTitle.getOrDefault(title, Collections.emptyNavigableSet())) {
+            MovieRecord m = movies.get(id);
+            if (m != null && m.getTitle().equals(title)) {
+                result.add(Records.toMovie(m));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Movie> getMoviesPage(int afterId, int limit) {
+        return movies.tailMap(afterId, false).values().stream().limit(limit).map(Records::toMovie)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Movie> streamMovies() {
+        return movies.values().stream().map(Records::toMovie);
+    }
+
+    @Override
+    public List<MovieRecord> getMovieRecords() {
+        return new ArrayList<>(movies.values());
+    }
+
+    @Override
+    public Movie getMovieById(int id) {
+        MovieRecord m = movies.get(id);
+        return m == null ? null : Records.toMovie(m);
+    }
+
+    @Override
+    public boolean updateMovie(Movie movie) {
+        synchronized (writeLock) {
+            if (backend != null && !backend.updateMovie(movie)) {
+                return false;
+            }
+            if (backend == null && !movies.containsKey(movie.getId())) {
+                movie.setId(nextMovieId++);
+            }
+            putMovie(edited(movie));
+            return true;
+        }
+    }
+
+    @Override
+    public boolean deleteMovie(Movie movie) {
+        synchronized (writeLock) {
+            if (isRentedOut(movie.getId())) {
+                return false; // a rental still refers to it
+            }
+            if (backend != null && !backend.deleteMovie(movie)) {
+                return false;
+            }
+            removeMovie(movie.getId());
+            return true;
+        }
+    }
+
+    @Override
+    public List<Integer> createMovies(Collection<Movie> movies) {
+        synchronized (writeLock) {
+            List<Integer> ids;
+            if (backend != null) {
+                ids = backend.createMovies(movies);
+                if (ids == null) {
+                    return null;
+                }
+            } else {
+                ids = new ArrayList<>(movies.size());
+                for (Movie m : movies) {
+                    m.setId(nextMovieId++);
+                    ids.add(m.getId());
+                }
+            }
+            for (Movie m : movies) {
+                putMovie(Records.toRecord(m));
+            }
+            return ids;
+        }
+    }
+
+    @Override
+    public boolean updateMovies(Collection<Movie> movies) {
+        synchronized (writeLock) {
+            if (backend != null && !backend.updateMovies(movies)) {
+                return false;
+            }
+            for (Movie m : movies) {
+                if (this.movies.containsKey(m.getId())) {
+                    putMovie(edited(m));
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public boolean deleteMovies(Collection<Movie> movies) {
+        synchronized (writeLock) {
+            for (Movie m : movies) {
+                if (isRentedOut(m.getId())) {
+                    return false;
+                }
+            }
+            if (backend != null && !backend.deleteMovies(movies)) {
+                return false;
+            }
+            for (Movie m : movies) {
+                removeMovie(m.getId());
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return users.values().stream().map(this::toUser).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        return users.tailMap(afterId, false).values().stream().limit(limit).map(this::toUser)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<User> streamUsers() {
+        return users.values().stream().map(this::toUser);
+    }
+
+    @Override
+    public List<UserRecord> getUserRecords() {
+        return new ArrayList<>(users.values());
+    }
+
+    @Override
+    public User getUserById(int id) {
+        UserRecord u = users.get(id);
+        return u == null ? null : toUser(u);
+    }
+
+    /**
+     * {@inheritDoc} Uses the name index and returns the user with the lowest id.
+     */
+    @Override
+    public User getUserByName(String name) {
+        for (Integer id : usersByName.getOrDefault(name, Collections.emptyNavigableSet())) {
+            UserRecord u = users.get(id);
+            if (u != null && u.getName().equals(name)) {
+                return toUser(u);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieve the users with a given name, using the name index.
+     * @param name the exact family name.
+     * @return the users with this name in the order of their ids.
+     */
+    public List<User> getUsersByName(String name) {
+        List<User> result = new ArrayList<>();
+        for (Integer id : usersByName.getOrDefault(name, Collections.emptyNavigableSet())) {
+            UserRecord u = users.get(id);
+            if (u != null && u.getName().equals(name)) {
+                result.add(toUser(u));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public User createUser(User user) {
+        synchronized (writeLock) {
+            if (backend != null) {
+                if (backend.createUser(user) == null) {
+                    return null;
+                }
+            } else if (user.getId() == 0 || !users.containsKey(user.getId())) {
+                user.setId(nextUserId++);
+            }
+            putUser(Records.toRecord(user));
+            return user;
+        }
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        synchronized (writeLock) {
+            if (backend != null && !backend.updateUser(user)) {
+                return false;
+            }
+            if (backend == null && !users.containsKey(user.getId())) {
+                user.setId(nextUserId++);
+            }
+            putUser(Records.toRecord(user));
+            return true;
+        }
+    }
+
+    @Override
+    public boolean deleteUser(User user) {
+        synchronized (writeLock) {
+            if (rentalsByUser.containsKey(user.getId())) {
+                return false; // the user still rents movies
+            }
+            if (backend != null && !backend.deleteUser(user)) {
+                return false;
+            }
+            removeUser(user.getId());
+            return true;
+        }
+    }
+
+    @Override
+    public List<Integer> createUsers(Collection<User> users) {
+        synchronized (writeLock) {
+            List<Integer> ids;
+            if (backend != null) {
+                ids = backend.createUsers(users);
+                if (ids == null) {
+                    return null;
+                }
+            } else {
+                ids = new ArrayList<>(users.size());
+                for (User u : users) {
+                    u.setId(nextUserId++);
+                    ids.add(u.getId());
+                }
+            }
+            for (User u : users) {
+                putUser(Records.toRecord(u));
+            }
+            return ids;
+        }
+    }
+
+    @Override
+    public boolean updateUsers(Collection<User> users) {
+        synchronized (writeLock) {
+            if (backend != null && !backend.updateUsers(users)) {
+                return false;
+            }
+            for (User u : users) {
+                if (this.users.containsKey(u.getId())) {
+                    putUser(Records.toRecord(u));
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public boolean deleteUsers(Collection<User> users) {
+        synchronized (writeLock) {
+            for (User u : users) {
+                if (rentalsByUser.containsKey(u.getId())) {
+                    return false;
+                }
+            }
+            if (backend != null && !backend.deleteUsers(users)) {
+                return false;
+            }
+            for (User u : users) {
+                removeUser(u.getId());
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public List<Rental> getAllRentals() {
+        return rentals.values().stream().map(new RentalBuilder()::build).filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Rental getRentalById(int id) {
+        RentalRecord r = rentals.get(id);
+        return r == null ? null : new RentalBuilder().build(r);
+    }
+
+    @Override
+    public List<Rental> getRentalsPage(int afterId, int limit) {
+        return rentals.tailMap(afterId, false).values().stream().limit(limit).map(new RentalBuilder()::build)
+                .filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Rental> streamRentals() {
+        return rentals.values().stream().map(new RentalBuilder()::build).filter(Objects::nonNull);
+    }
+
+    @Override
+    public List<RentalRecord> getRentalRecords() {
+        return new ArrayList<>(rentals.values());
+    }
+
+    @Override
+    public boolean createRental(User u, Movie m) {
+        synchronized (writeLock) {
+            checkAvailable(m);
+            if (!users.containsKey(u.getId())) {
+                return false;
+            }
+            Rental r;
+            if (backend != null) {
+                if (!backend.createRental(u, m)) {
+                    return false;
+                }
+                r = u.getRentals().get(u.getRentals().size() - 1);
+            } else {
+                r = new Rental(u, m);
+                r.setId(nextRentalId++);
+            }
+            putRental(Records.toRecord(r));
+            return true;
+        }
+    }
+
+    @Override
+    public boolean returnRental(Rental r) {
+        synchronized (writeLock) {
+            checkRented(r);
+            if (backend != null) {
+                if (!backend.returnRental(r)) {
+                    return false;
+                }
+            } else {
+                r.getMovie().setRented(false);
+                r.getUser().getRentals().remove(r);
+            }
+            removeRental(r.getId());
+            return true;
+        }
+    }
+
+    /**
+     * {@inheritDoc} Without a backend, a movie rented twice within the rentals is a conflict too. With a backend,
+     * the rentals and movies concerned are read from it again after it failed, so the memory agrees with whatever
+     * the backend stored.
+     */
+    @Override
+    public List<Integer> createRentals(Collection<Rental> rentals) {
+        synchronized (writeLock) {
+            Set<Integer> rented = new HashSet<>();
+            for (Rental r : rentals) {
+                if (!rented.add(r.getMovie().getId())) {
+                    throw new RentalConflictException("movie " + r.getMovie().getId() + " is rented twice");
+                }
+                checkAvailable(r.getMovie());
+                if (!users.containsKey(r.getUser().getId())) {
+                    return null;
+                }
+            }
+            List<Integer> ids;
+            if (backend != null) {
+                try {
+                    ids = backend.createRentals(rentals);
+                } catch (RuntimeException e) {
+                    reloadRentals(rentals);
+                    throw e;
+                }
+                if (ids == null) {
+                    reloadRentals(rentals);
+                    return null;
+                }
+            } else {
+                ids = new ArrayList<>(rentals.size());
+                for (Rental r : rentals) {
+                    r.setId(nextRentalId++);
+                    ids.add(r.getId());
+                }
+            }
+            for (Rental r : rentals) {
+                putRental(Records.toRecord(r));
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * {@inheritDoc} With a backend, the rentals and movies concerned are read from it again after it failed, so
+     * the memory agrees with whatever the backend deleted.
+     */
+    @Override
+    public boolean returnRentals(Collection<Rental> rentals) {
+        synchronized (writeLock) {
+            for (Rental r : rentals) {
+                checkRented(r);
+            }
+            if (backend != null) {
+                boolean returned;
+                try {
+                    returned = backend.returnRentals(rentals);
+                } catch (RuntimeException e) {
+                    reloadRentals(rentals);
+                    throw e;
+                }
+                if (!returned) {
+                    reloadRentals(rentals);
+                    return false;
+                }
+            } else {
+                for (Rental r : rentals) {
+                    r.getMovie().setRented(false);
+                    r.getUser().getRentals().remove(r);
+                }
+            }
+            for (Rental r : rentals) {
+                removeRental(r.getId());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Read the users and movies of rentals from the backend again, after the backend failed to store or delete
+     * them and may have done so only in part. Callers hold the write lock.
+     * @param changed the rentals the backend failed on.
+     */
+    private void reloadRentals(Collection<Rental> changed) {
+        Set<Integer> userIds = new HashSet<>();
+        Set<Integer> movieIds = new HashSet<>();
+        for (Rental r : changed) {
+            userIds.add(r.getUser().getId());
+            movieIds.add(r.getMovie().getId());
+        }
+        for (int id : userIds) {
+            for (Integer rental : new ArrayList<>(rentalsByUser.getOrDefault(id, Collections.emptyNavigableSet()))) {
+                removeRental(rental);
+            }
+            User u = backend.getUserById(id);
+            if (u != null) {
+                for (Rental r : u.getRentals()) {
+                    putRental(Records.toRecord(r));
+                }
+            }
+        }
+        for (int id : movieIds) {
+            Movie m = backend.getMovieById(id);
+            if (m != null) {
+                putMovie(Records.toRecord(m));
+            }
+        }
+    }
+
+    /**
+     * @param m the movie to rent.
+     * @throws RentalConflictException if the movie is unknown or already rented.
+     */
+    private void checkAvailable(Movie m) {
+        MovieRecord stored = movies.get(m.getId());
+        if (stored == null || stored.isRented()) {
+            throw new RentalConflictException("movie " + m.getId() + " is already rented");
+        }
+    }
+
+    /**
+     * @param r the rental to terminate.
+     * @throws RentalConflictException if the rental does not exist (any more).
+     */
+    private void checkRented(Rental r) {
+        if (!rentals.containsKey(r.getId())) {
+            throw new RentalConflictException("rental " + r.getId() + " has already been returned");
+        }
+    }
+
+    /**
+     * @param m an edited movie.
+     * @return the record of m with the rented state of the stored movie, as only renting and returning
+     *         change it; a copy of m read before a rental must not make the movie available again.
+     */
+    private MovieRecord edited(Movie m) {
+        MovieRecord stored = movies.get(m.getId());
+        return Records.toRecord(m).withRented(stored != null && stored.isRented());
+    }
+
+    /**
+     * @param movieId the id of a movie.
+     * @return whether a stored rental refers to the movie.
+     */
+    private boolean isRentedOut(int movieId) {
+        for (NavigableSet<Integer> ids : rentalsByUser.values()) {
+            for (Integer id : ids) {
+                RentalRecord r = rentals.get(id);
+                if (r != null && r.getMovieId() == movieId) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Store a movie and update the indexes. Callers hold the write lock.
+     * @param m the movie to store, replacing the one with the same id.
+     */
+    private void putMovie(MovieRecord m) {
+        MovieRecord old = movies.put(m.getId(), m);
+        if (old != null && !old.getTitle().equals(m.getTitle())) {
+            unindex(moviesByTitle, old.getTitle(), old.getId());
+        }
+        index(moviesByTitle, m.getTitle(), m.getId());
+        (m.isRented() ? rentedMovies : availableMovies).add(m.getId());
+        (m.isRented() ? availableMovies : rentedMovies).remove(m.getId());
+    }
+
+    /**
+     * Remove a movie and its index entries. Callers hold the write lock.
+     * @param id the id of the movie.
+     */
+    private void removeMovie(int id) {
+        MovieRecord old = movies.remove(id);
+        if (old != null) {
+            unindex(moviesByTitle, old.getTitle(), id);
+            rentedMovies.remove(id);
+            availableMovies.remove(id);
+        }
+    }
+
+    /**
+     * Store a user and update the name index. Callers hold the write lock.
+     * @param u the user to store, replacing the one with the same id.
+     */
+    private void putUser(UserRecord u) {
+        UserRecord old = users.put(u.getId(), u);
+        if (old != null && !old.getName().equals(u.getName())) {
+            unindex(usersByName, old.getName(), old.getId());
+        }
+        index(usersByName, u.getName(), u.getId());
+    }
+
+    /**
+     * Remove a user and its index entry. Callers hold the write lock.
+     * @param id the id of the user.
+     */
+    private void removeUser(int id) {
+        UserRecord old = users.remove(id);
+        if (old != null) {
+            unindex(usersByName, old.getName(), id);
+        }
+    }
+
+    /**
+     * Store a rental, index it by user and mark its movie as rented. Callers hold the write lock.
+     * @param r the rental to store.
+     */
+    private void putRental(RentalRecord r) {
+        rentals.put(r.getId(), r);
+        index(rentalsByUser, r.getUserId(), r.getId());
+        MovieRecord m = movies.get(r.getMovieId());
+        if (m != null && !m.isRented()) {
+            putMovie(m.withRented(true));
+        }
+    }
+
+    /**
+     * Remove a rental and mark its movie as available. Callers hold the write lock.
+     * @param id the id of the rental.
+     */
+    private void removeRental(int id) {
+        RentalRecord old = rentals.remove(id);
+        if (old != null) {
+            unindex(rentalsByUser, old.getUserId(), id);
+            MovieRecord m = movies.get(old.getMovieId());
+            if (m != null && m.isRented()) {
+                putMovie(m.withRented(false));
+            }
+        }
+    }
+
+    private static <K> void index(ConcurrentMap<K, NavigableSet<Integer>> index, K key, int id) {
+        index.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+    }
+
+    private static <K> void unindex(ConcurrentMap<K, NavigableSet<Integer>> index, K key, int id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * @param r the user to build.
+     * @return a new user together with his/her rentals, as the database backend returns them.
+     */
+    private User toUser(UserRecord r) {
+        User u = Records.toUser(r);
+        for (Integer id : rentalsByUser.getOrDefault(r.getId(), Collections.emptyNavigableSet())) {
+            RentalRecord rental = rentals.get(id);
+            MovieRecord m = rental == null ? null : movies.get(rental.getMovieId());
+            if (m != null) {
+                Rental.materializeRentalFromDB(rental.getId(), u, Records.toMovie(m), rental.getRentalDate());
+            }
+        }
+        return u;
+    }
+
+    /**
+     * Builds rentals like {@link RentalLoader}: all rentals built by one builder share their users and movies.
+     */
+    private final class RentalBuilder {
+        private final Map<Integer, User> builtUsers = new HashMap<>();
+        private final Map<Integer, Movie> builtMovies = new HashMap<>();
+
+        /**
+         * @param r the rental to build.
+         * @return the rental, or <code>null</code> if its user or movie was removed concurrently.
+         */
+        Rental build(RentalRecord r) {
+            User u = builtUsers.computeIfAbsent(r.getUserId(), id -> {
+                UserRecord record = users.get(id);
+                return record == null ? null : Records.toUser(record);
+            });
+            Movie m = builtMovies.computeIfAbsent(r.getMovieId(), id -> {
+                MovieRecord record = movies.get(id);
+                return record == null ? null : Records.toMovie(record);
+            });
+            if (u == null || m == null) {
+                return null;
+            }
+            return Rental.materializeRentalFromDB(r.getId(), u, m, r.getRentalDate());
+        }
+    }
+}
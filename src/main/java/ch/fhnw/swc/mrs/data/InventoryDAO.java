@@ -0,0 +1,36 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.util.Map;
+
+/**
+ * Data Access Object that provides access to the underlying database. Use this DAO to access the number of copies
+ * in stock per movie title. Copies are taken and put back with single atomic statements, so several clients may
+ * share one inventory.
+ */
+public interface InventoryDAO extends DAO {
+    /**
+     * @param title the movie title.
+     * @return the number of copies of the title in stock, 0 for unknown titles.
+     */
+    int getCopies(String title);
+
+    /**
+     * Retrieve the inventory.
+     * @return the number of copies in stock by title, ordered by title.
+     */
+    Map<String, Integer> getAll();
+
+    /**
+     * Put a copy of a title into stock. Unknown titles are added to the inventory.
+     * @param title the movie title.
+     * @return the number of copies of the title in stock after this operation.
+     */
+    int addCopy(String title);
+
+    /**
+     * Take a copy of a title out of stock, unless there is none left.
+     * @param title the movie title.
+     * @return the number of copies of the title in stock after this operation, or -1 if there was no copy in stock.
+     */
+    int removeCopy(String title);
+}
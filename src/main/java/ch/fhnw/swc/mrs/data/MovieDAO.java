@@ -1,8 +1,11 @@
 package ch.fhnw.swc.mrs.data;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRecord;
 
 /**
  * @author wolfgang.schwaiger
@@ -20,6 +23,12 @@ public interface MovieDAO extends DAO {
      */
     List<Movie> getAll();
     
+    /**
+     * Retrieve all movies as immutable records, without creating any JavaFX properties.
+     * @return all movies.
+     */
+    List<MovieRecord> getAllRecords();
+
     /**
      * Get movies according to their rented status.
      * @param rented if the movies shall be rented or not.
@@ -33,6 +42,22 @@ public interface MovieDAO extends DAO {
      */
     List<Movie> getByTitle(String title);
 
+    /**
+     * Retrieve a page of movies in the order of their ids. Pass the id of the last movie of a page to get the
+     * next page, starting with 0.
+     * @param afterId only movies with an id greater than this one are returned.
+     * @param limit maximum number of movies returned.
+     * @return the next movies, an empty list after the last page.
+     */
+    List<Movie> getPage(int afterId, int limit);
+
+    /**
+     * Stream all movies in the order of their ids. The movies are read from a forward-only cursor while the stream
+     * is consumed, so they need not fit into memory at once. Close the stream to release the cursor.
+     * @return all movies.
+     */
+    Stream<Movie> stream();
+
     /**
      * @param movie none.
      */
@@ -42,4 +67,26 @@ public interface MovieDAO extends DAO {
      * @param movie none.
      */
     void delete(Movie movie);
+
+    /**
+     * Insert new movies with JDBC batches in one transaction. The movies receive their generated ids.
+     * @param movies the movies to insert.
+     * @param batchSize number of movies written per batch.
+     * @return the generated ids in the iteration order of movies.
+     */
+    List<Integer> insertAll(Collection<Movie> movies, int batchSize);
+
+    /**
+     * Update stored movies with JDBC batches in one transaction. Movies not stored are skipped.
+     * @param movies the movies to update.
+     * @param batchSize number of movies written per batch.
+     */
+    void updateAll(Collection<Movie> movies, int batchSize);
+
+    /**
+     * Delete movies with JDBC batches in one transaction.
+     * @param movies the movies to delete.
+     * @param batchSize number of movies deleted per batch.
+     */
+    void deleteAll(Collection<Movie> movies, int batchSize);
 }
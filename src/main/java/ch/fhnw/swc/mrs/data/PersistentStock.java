@@ -0,0 +1,108 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRentalException;
+import ch.fhnw.swc.mrs.model.Stock;
+
+/**
+ * A stock whose copies are counted in the inventory table instead of in memory, so it survives restarts and can
+ * be shared by several clients of the same database. Every operation takes a DAO for its own and disposes it
+ * afterwards. Low stock listeners are notified as by {@link Stock}.
+ */
+public class PersistentStock extends Stock {
+    /**
+     * Title under which copies of movies without a title are counted, as the inventory table cannot hold a null
+     * title. No movie can have it as its title, as titles must not be empty.
+     */
+    static final String NO_TITLE = "";
+
+    private final Supplier<InventoryDAO> daos;
+
+    /**
+     * Create a stock that notifies its listeners on a shared background thread.
+     * 
+     * @param daos supplies a new DAO for every operation.
+     */
+    public PersistentStock(Supplier<InventoryDAO> daos) {
+        this.daos = daos;
+    }
+
+    /**
+     * @param daos supplies a new DAO for every operation.
+     * @param notifier runs the deliveries of notifications.
+     */
+    public PersistentStock(Supplier<InventoryDAO> daos, Executor notifier) {
+        super(notifier);
+        this.daos = daos;
+    }
+
+    /**
+     * {@inheritDoc} Copies of movies without a title are counted under {@link #NO_TITLE}.
+     */
+    @Override
+    public int addToStock(Movie movie) {
+        InventoryDAO dao = daos.get();
+        try {
+            return dao.addCopy(key(movie.getTitle()));
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    /**
+     * {@inheritDoc} Copies of movies without a title are counted under {@link #NO_TITLE}.
+     */
+    @Override
+    public int removeFromStock(Movie movie) {
+        String title = movie.getTitle();
+        int inStock;
+        InventoryDAO dao = daos.get();
+        try {
+            inStock = dao.removeCopy(key(title));
+        } finally {
+            dao.dispose();
+        }
+        if (inStock < 0) {
+            throw new MovieRentalException("no video in stock");
+        }
+        notifyListeners(movie, title, inStock);
+        return inStock;
+    }
+
+    @Override
+    public int getInStock(String title) {
+        InventoryDAO dao = daos.get();
+        try {
+            return dao.getCopies(key(title));
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    /**
+     * Load the whole inventory with one query.
+     * 
+     * @return the number of copies in stock by title, ordered by title. Copies of movies without a title are
+     *         listed under {@link #NO_TITLE}.
+     */
+    public Map<String, Integer> getInventory() {
+        InventoryDAO dao = daos.get();
+        try {
+            return dao.getAll();
+        } finally {
+            dao.dispose();
+        }
+    }
+
+    /**
+     * @param title a movie title, may be null.
+     * @return the title under which the copies are counted in the inventory table.
+     */
+    private static String key(String title) {
+        return title == null ? NO_TITLE : title;
+    }
+}
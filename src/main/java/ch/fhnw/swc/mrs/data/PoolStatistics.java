@@ -0,0 +1,129 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of the usage figures of a {@link PooledDatabase}.
+ */
+public final class PoolStatistics {
+    private final int active;
+    private final int idle;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long waitCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long createdCount;
+    private final long validationFailures;
+    private final long leakCount;
+    private final long statementHits;
+    private final long statementMisses;
+    private final long statementEvictions;
+
+    /**
+     * Create a new snapshot.
+     * @param active number of connections currently lent out.
+     * @param idle number of connections waiting in the pool.
+     * @param maxSize the upper bound of physical connections.
+     * @param borrowCount number of successful borrows so far.
+     * @param waitCount number of borrows that had to wait for a free connection.
+     * @param totalWaitNanos accumulated time spent waiting for a connection.
+     * @param maxWaitNanos longest time a single borrow had to wait.
+     * @param createdCount number of physical connections opened so far.
+     * @param validationFailures number of idle connections discarded because they were no longer valid.
+     * @param leakCount number of connections reported as leaked.
+     * @param statementHits number of prepared statements served from a statement cache.
+     * @param statementMisses number of prepared statements that were not cached yet.
+     * @param statementEvictions number of cached statements closed to make room for others.
+     */
+    PoolStatistics(int active, int idle, int maxSize, long borrowCount, long waitCount, long totalWaitNanos,
+                   long maxWaitNanos, long createdCount, long validationFailures, long leakCount,
+                   long statementHits, long statementMisses, long statementEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.waitCount = waitCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.createdCount = createdCount;
+        this.validationFailures = validationFailures;
+        this.leakCount = leakCount;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+        this.statementEvictions = statementEvictions;
+    }
+
+    /** @return number of connections currently lent out. */
+    public int getActive() {
+        return active;
+    }
+
+    /** @return number of connections waiting in the pool. */
+    public int getIdle() {
+        return idle;
+    }
+
+    /** @return the upper bound of physical connections. */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return number of successful borrows so far. */
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    /** @return number of borrows that had to wait for a free connection. */
+    public long getWaitCount() {
+        return waitCount;
+    }
+
+    /** @return accumulated time in milliseconds spent waiting for a connection. */
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos);
+    }
+
+    /** @return longest time in milliseconds a single borrow had to wait. */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+    }
+
+    /** @return number of physical connections opened so far. */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    /** @return number of idle connections discarded because they were no longer valid. */
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    /** @return number of connections reported as leaked. */
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    /** @return number of prepared statements served from a statement cache. */
+    public long getStatementHits() {
+        return statementHits;
+    }
+
+    /** @return number of prepared statements that were not cached yet. */
+    public long getStatementMisses() {
+        return statementMisses;
+    }
+
+    /** @return number of cached statements closed to make room for others. */
+    public long getStatementEvictions() {
+        return statementEvictions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d, idle=%d, max=%d, borrows=%d, waits=%d, wait=%dms (max %dms), "
+                + "created=%d, invalid=%d, leaks=%d, statements: hits=%d, misses=%d, evictions=%d", active, idle,
+                maxSize, borrowCount, waitCount, getTotalWaitMillis(), getMaxWaitMillis(), createdCount,
+                validationFailures, leakCount, statementHits, statementMisses, statementEvictions);
+    }
+}
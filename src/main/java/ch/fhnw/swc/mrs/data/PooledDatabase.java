@@ -0,0 +1,370 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A bounded pool of connections in front of another {@link Database}. Connections handed out by
+ * {@link #getConnection()} go back to the pool when they are closed, so callers (i.e. the DAOs'
+ * <code>dispose()</code>) keep using the plain JDBC contract. Every physical connection keeps its prepared
+ * statements in a {@link StatementCache}, so the DAOs' constant SQL is parsed only once per connection.
+ */
+public final class PooledDatabase implements Database {
+    /** Default number of connections opened when the pool is initialized. */
+    public static final int DEFAULT_MIN_SIZE = 1;
+    /** Default upper bound of physical connections. */
+    public static final int DEFAULT_MAX_SIZE = 8;
+    /** Default time a borrower waits for a free connection. */
+    public static final long DEFAULT_BORROW_TIMEOUT_MILLIS = 10000;
+    /** Default time after which a connection that was not returned is reported as leaked. */
+    public static final long DEFAULT_LEAK_THRESHOLD_MILLIS = 60000;
+    /** Default time granted to validate an idle connection before it is lent out. */
+    public static final int DEFAULT_VALIDATION_TIMEOUT_SECONDS = 2;
+    /** Default number of prepared statements cached per connection. */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+    /** Logger used to report leaks and broken connections. */
+    private static Logger log = LogManager.getLogger();
+
+    private final Database delegate;
+    private final int minSize;
+    private final int maxSize;
+    private long borrowTimeoutMillis = DEFAULT_BORROW_TIMEOUT_MILLIS;
+    private long leakThresholdMillis = DEFAULT_LEAK_THRESHOLD_MILLIS;
+    private boolean leakTrace = false;
+    private int validationTimeoutSeconds = DEFAULT_VALIDATION_TIMEOUT_SECONDS;
+    private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+
+    /** One permit per connection that may be lent out. */
+    private Semaphore permits;
+    /** Connections ready to be lent out; most recently returned first. */
+    private final Deque<Connection> idle = new LinkedBlockingDeque<>();
+    /** Connections currently lent out. */
+    private final Set<Lease> active = ConcurrentHashMap.newKeySet();
+    /** Statement cache of every open physical connection. */
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    /**
+     * Create a pool with default bounds.
+     * @param delegate the database that opens the physical connections.
+     */
+    public PooledDatabase(Database delegate) {
+        this(delegate, DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Create a pool.
+     * @param delegate the database that opens the physical connections.
+     * @param minSize number of connections opened when the pool is initialized.
+     * @param maxSize maximum number of connections lent out at the same time.
+     */
+    public PooledDatabase(Database delegate, int minSize, int maxSize) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate database must not be null");
+        }
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("illegal pool bounds [" + minSize + ", " + maxSize + "]");
+        }
+        this.delegate = delegate;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param millis how long a borrower waits for a free connection before giving up.
+     */
+    public void setBorrowTimeout(long millis) {
+        borrowTimeoutMillis = millis;
+    }
+
+    /**
+     * @param millis after how long a connection that was not returned is reported as leaked. 0 disables
+     *            leak detection.
+     */
+    public void setLeakThreshold(long millis) {
+        leakThresholdMillis = millis;
+    }
+
+    /**
+     * @param trace whether the stack trace of every borrower is recorded, so a leak report shows where the
+     *            connection was borrowed. Recording it costs time on every borrow; without it a leak report
+     *            only names the borrowing thread.
+     */
+    public void setLeakTrace(boolean trace) {
+        leakTrace = trace;
+    }
+
+    /**
+     * @param seconds time granted to validate an idle connection before it is lent out.
+     */
+    public void setValidationTimeout(int seconds) {
+        validationTimeoutSeconds = seconds;
+    }
+
+    /**
+     * @param size number of prepared statements cached per connection. 0 disables the cache for connections
+     *            opened from now on.
+     */
+    public void setStatementCacheSize(int size) {
+        statementCacheSize = size;
+    }
+
+    @Override
+    public void initDB(String dbconnection) throws Exception {
+        delegate.initDB(dbconnection);
+        permits = new Semaphore(maxSize, true);
+        for (int i = 0; i < minSize; i++) {
+            idle.offerLast(open());
+        }
+    }
+
+    /**
+     * Borrow a connection. Closing the returned connection hands it back to the pool.
+     * @return a validated connection.
+     * @throws SQLException if no connection became available in time or none could be opened.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (permits == null || closed) {
+            throw new SQLException("connection pool is not initialized or already shut down");
+        }
+        detectLeaks();
+        acquirePermit();
+        try {
+            Lease lease = new Lease(takeValidConnection());
+            active.add(lease);
+            borrowCount.incrementAndGet();
+            return lease.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        waitCount.incrementAndGet();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted while waiting for a connection", e);
+        } finally {
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+        if (!acquired) {
+            throw new SQLTimeoutException("no connection available within " + borrowTimeoutMillis + "ms ("
+                    + getStatistics() + ")");
+        }
+    }
+
+    private Connection takeValidConnection() throws SQLException {
+        Connection c;
+        while ((c = idle.pollFirst()) != null) {
+            if (isValid(c)) {
+                return c;
+            }
+            validationFailures.incrementAndGet();
+            closeQuietly(c);
+        }
+        return open();
+    }
+
+    private boolean isValid(Connection c) {
+        try {
+            return c.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection open() throws SQLException {
+        try {
+            Connection c = delegate.getConnection();
+            createdCount.incrementAndGet();
+            if (statementCacheSize > 0) {
+                statementCaches.put(c, new StatementCache(c, statementCacheSize, statementHits, statementMisses,
+                        statementEvictions));
+            }
+            return c;
+        } catch (SQLException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException("could not open connection", e);
+        }
+    }
+
+    /**
+     * Take back a connection from a borrower. Connections left in a transaction are rolled back.
+     * @param lease the lease to terminate.
+     */
+    private void release(Lease lease) {
+        if (!active.remove(lease)) {
+            return; // closed twice
+        }
+        Connection c = lease.physical;
+        try {
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (closed) {
+                closeQuietly(c);
+            } else {
+                idle.offerFirst(c);
+            }
+        } catch (SQLException e) {
+            log.warn("discarding broken connection", e);
+            closeQuietly(c);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Report connections that have been lent out for longer than the leak threshold. Each leak is logged
+     * once, together with the borrowing thread and, if enabled with {@link #setLeakTrace(boolean)}, the stack
+     * trace of the borrower.
+     * @return the number of connections currently considered leaked.
+     */
+    public int detectLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int leaked = 0;
+        for (Lease lease : active) {
+            long age = now - lease.borrowedAt;
+            if (age > leakThresholdMillis) {
+                leaked++;
+                if (!lease.reported) {
+                    lease.reported = true;
+                    leakCount.incrementAndGet();
+                    log.warn("connection borrowed by " + lease.borrower + " not returned to pool after " + age + "ms",
+                            lease.origin);
+                }
+            }
+        }
+        return leaked;
+    }
+
+    /**
+     * @return a snapshot of the current pool usage.
+     */
+    public PoolStatistics getStatistics() {
+        return new PoolStatistics(active.size(), idle.size(), maxSize, borrowCount.get(), waitCount.get(),
+                totalWaitNanos.get(), maxWaitNanos.get(), createdCount.get(), validationFailures.get(),
+                leakCount.get(), statementHits.get(), statementMisses.get(), statementEvictions.get());
+    }
+
+    /**
+     * Close all idle connections. Connections still lent out are closed when they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        Connection c;
+        while ((c = idle.pollFirst()) != null) {
+            closeQuietly(c);
+        }
+    }
+
+    private void closeQuietly(Connection c) {
+        statementCaches.remove(c);
+        try {
+            c.close();
+        } catch (SQLException e) {
+            log.debug("ignoring failure while closing connection", e);
+        }
+    }
+
+    /**
+     * A connection lent out to a borrower. The borrower only sees a proxy whose <code>close()</code> returns
+     * the physical connection to the pool.
+     */
+    private final class Lease implements InvocationHandler {
+        private final Connection physical;
+        private final Connection proxy;
+        private final StatementCache statements;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String borrower = Thread.currentThread().getName();
+        private final Throwable origin;
+        private volatile boolean reported = false;
+
+        Lease(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCaches.get(physical);
+            this.origin = leakThresholdMillis > 0 && leakTrace
+                    ? new Throwable("connection borrowed here") : null;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release(this);
+                    return null;
+                case "isClosed":
+                    return !active.contains(this) || physical.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return "pooled " + physical;
+                default:
+            }
+            if (!active.contains(this)) {
+                throw new SQLException("connection has already been returned to the pool");
+            }
+            if (statements != null && "prepareStatement".equals(method.getName())) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return statements.prepare((String) args[0]);
+                } else if (types.length == 2 && types[1] == int.class) {
+                    return statements.prepare((String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
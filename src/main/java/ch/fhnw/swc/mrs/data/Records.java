@@ -0,0 +1,93 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRecord;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalRecord;
+import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
+
+/**
+ * Converts between entities and the immutable records that backends keep in memory or send to their clients.
+ */
+public final class Records {
+
+    private Records() { }
+
+    /**
+     * @param r the record to build from.
+     * @return a new Movie with the values of r.
+     */
+    public static Movie toMovie(MovieRecord r) {
+        Movie m = new Movie(r.getTitle(), r.getReleaseDate(), r.getPriceCategory(), r.getAgeRating());
+        m.setId(r.getId());
+        m.setRented(r.isRented());
+        return m;
+    }
+
+    /**
+     * @param records the records to build from.
+     * @return new Movies with the values of the records, in the same order.
+     */
+    public static List<Movie> toMovies(Collection<MovieRecord> records) {
+        List<Movie> result = new ArrayList<>(records.size());
+        for (MovieRecord r : records) {
+            result.add(toMovie(r));
+        }
+        return result;
+    }
+
+    /**
+     * @param r the record to build from.
+     * @return a new User with the values of r and without rentals. A record with id 0 gives a User that has not
+     *         been stored yet and can still receive its id.
+     */
+    public static User toUser(UserRecord r) {
+        User u = new User(r.getName(), r.getFirstName(), r.getBirthdate());
+        if (r.getId() != 0) {
+            u.setId(r.getId());
+        }
+        return u;
+    }
+
+    /**
+     * @param records the records to build from.
+     * @return new Users with the values of the records and without rentals, in the same order.
+     */
+    public static List<User> toUsers(Collection<UserRecord> records) {
+        List<User> result = new ArrayList<>(records.size());
+        for (UserRecord r : records) {
+            result.add(toUser(r));
+        }
+        return result;
+    }
+
+    /**
+     * @param m the Movie to convert.
+     * @return a record with the current values of m.
+     */
+    public static MovieRecord toRecord(Movie m) {
+        return new MovieRecord(m.getId(), m.getTitle(), m.getReleaseDate(), m.getPriceCategory(), m.getAgeRating(),
+                m.isRented());
+    }
+
+    /**
+     * @param u the User to convert. Its rentals are not part of the record.
+     * @return a record with the current values of u.
+     */
+    public static UserRecord toRecord(User u) {
+        return new UserRecord(u.getId(), u.getName(), u.getFirstName(), u.getBirthdate());
+    }
+
+    /**
+     * @param r the Rental to convert.
+     * @return a record with the current values of r.
+     */
+    public static RentalRecord toRecord(Rental r) {
+        return new RentalRecord(r.getId(), r.getUser().getId(), r.getMovie().getId(), r.getRentalDate());
+    }
+}
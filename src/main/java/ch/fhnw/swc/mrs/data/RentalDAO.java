@@ -1,8 +1,11 @@
 package ch.fhnw.swc.mrs.data;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalRecord;
 import ch.fhnw.swc.mrs.model.User;
 
 /**
@@ -17,8 +20,9 @@ public interface RentalDAO extends DAO {
     Rental getById(int id);
 
     /**
-     * @param user none.
-     * @return none.
+     * Retrieve the rentals of a user. The user's rental list is replaced by the rentals found.
+     * @param user the user whose rentals are retrieved.
+     * @return the rentals of the user, an empty list if there are none.
      */
     List<Rental> getRentalsByUser(User user);
 
@@ -28,12 +32,56 @@ public interface RentalDAO extends DAO {
     List<Rental> getAll();
 
     /**
-     * @param rental none.
+     * Retrieve all rentals as immutable records. Users and movies are referred to by their ids, so neither is
+     * joined nor read.
+     * @return all rentals.
+     */
+    List<RentalRecord> getAllRecords();
+
+    /**
+     * Retrieve a page of rentals in the order of their ids. Pass the id of the last rental of a page to get the
+     * next page, starting with 0.
+     * @param afterId only rentals with an id greater than this one are returned.
+     * @param limit maximum number of rentals returned.
+     * @return the next rentals, an empty list after the last page.
+     */
+    List<Rental> getPage(int afterId, int limit);
+
+    /**
+     * Stream all rentals in the order of their ids. The rentals are read from a forward-only cursor while the stream
+     * is consumed, so they need not fit into memory at once. Close the stream to release the cursor.
+     * @return all rentals.
+     */
+    Stream<Rental> stream();
+
+    /**
+     * Store a new rental and mark its movie as rented, atomically and only if the movie is not rented yet.
+     * @param rental the rental to store. It receives its generated id.
+     * @throws ch.fhnw.swc.mrs.model.RentalConflictException if the movie is already rented.
      */
     void save(Rental rental);
 
     /**
-     * @param rental none.
+     * Delete a rental and mark its movie as available, atomically.
+     * @param rental the rental to delete.
+     * @throws ch.fhnw.swc.mrs.model.RentalConflictException if the rental has already been deleted.
      */
     void delete(Rental rental);
+
+    /**
+     * Insert new rentals with JDBC batches and mark their movies as rented, all in one transaction that fails as a
+     * whole if one of the movies is already rented. The rentals receive their generated ids.
+     * @param rentals the rentals to insert.
+     * @param batchSize number of rentals written per batch.
+     * @return the generated ids in the iteration order of rentals.
+     */
+    List<Integer> insertAll(Collection<Rental> rentals, int batchSize);
+
+    /**
+     * Delete rentals with JDBC batches and mark their movies as available, all in one transaction that fails as a
+     * whole if one of the rentals has already been deleted.
+     * @param rentals the rentals to delete.
+     * @param batchSize number of rentals deleted per batch.
+     */
+    void deleteAll(Collection<Rental> rentals, int batchSize);
 }
@@ -0,0 +1,76 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.User;
+
+/**
+ * Materializes rentals from a single query that joins rentals with their movies and clients. Every movie and
+ * user is built only once per loader, so all rentals of a user share the same User object.
+ */
+final class RentalLoader {
+    /** Labels of the movie columns, prefixed with M_. */
+    private static final SQLMovieDAO.Columns MOVIE_COLUMNS = new SQLMovieDAO.Columns("M_");
+    /** Labels of the client columns, prefixed with C_. */
+    private static final SQLUserDAO.Columns USER_COLUMNS = new SQLUserDAO.Columns("C_");
+
+    /** select clause of queries that load rentals together with their movies and clients. */
+    static final String SELECT_CLAUSE = "SELECT r.id, r.movieid, r.clientid, r.rentaldate, "
+            + "m.id AS M_Id, m.title AS M_Title, m.isrented AS M_IsRented, m.releasedate AS M_ReleaseDate, "
+            + "m.pricecategory AS M_PriceCategory, m.agerating AS M_AgeRating, "
+            + "c.id AS C_Id, c.name AS C_Name, c.firstname AS C_FirstName, c.birthdate AS C_Birthdate "
+            + "FROM rentals r JOIN movies m ON m.id = r.movieid JOIN clients c ON c.id = r.clientid ";
+
+    /** identity map of the movies read so far. */
+    private final Map<Integer, Movie> movies = new HashMap<>();
+    /** identity map of the users read so far. */
+    private final Map<Integer, User> users = new HashMap<>();
+
+    /** Create a loader that builds all movies and users from the result set. */
+    RentalLoader() {
+    }
+
+    /**
+     * Create a loader that attaches rentals to already materialized users instead of building new ones.
+     *
+     * @param knownUsers users whose rentals are loaded.
+     */
+    RentalLoader(Collection<User> knownUsers) {
+        for (User u : knownUsers) {
+            users.put(u.getId(), u);
+        }
+    }
+
+    /**
+     * Read the rental at the current cursor position.
+     *
+     * @param r cursor into a result set of a query starting with {@link #SELECT_CLAUSE}.
+     * @return Rental object
+     * @throws SQLException whenever there is a problem.
+     */
+    Rental read(ResultSet r) throws SQLException {
+        int id = r.getInt("id");
+        int mid = r.getInt("movieid");
+        int cid = r.getInt("clientid");
+        LocalDate rentaldate = r.getDate("rentaldate").toLocalDate();
+
+        Movie m = movies.get(mid);
+        if (m == null) {
+            m = SQLMovieDAO.readMovie(r, MOVIE_COLUMNS);
+            movies.put(mid, m);
+        }
+        User u = users.get(cid);
+        if (u == null) {
+            u = SQLUserDAO.readUser(r, USER_COLUMNS);
+            users.put(cid, u);
+        }
+        return Rental.materializeRentalFromDB(id, u, m, rentaldate);
+    }
+}
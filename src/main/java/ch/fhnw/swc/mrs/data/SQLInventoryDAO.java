@@ -0,0 +1,113 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL access to the inventory. Copies are counted by the database: taking one is a conditional update that only
+ * succeeds while there is a copy left, so no copy is handed out twice, not even by different clients.
+ */
+public class SQLInventoryDAO extends AbstractDAO implements InventoryDAO {
+
+    /** SQL statement to get the copies of a title. */
+    private static final String GET_COPIES_SQL = "SELECT copies FROM inventory WHERE title = ?";
+    /** SQL statement to get the whole inventory. */
+    private static final String GET_ALL_SQL = "SELECT title, copies FROM inventory ORDER BY title";
+    /** SQL statement to add a copy, inserting the title if it is not in the inventory yet. */
+    private static final String ADD_COPY_SQL = "MERGE INTO inventory i USING ( VALUES ( CAST(? AS VARCHAR(255)) ) )"
+            + " AS v ( title ) ON i.title = v.title WHEN MATCHED THEN UPDATE SET i.copies = i.copies + 1"
+            + " WHEN NOT MATCHED THEN INSERT ( title, copies ) VALUES ( v.title, 1 )";
+    /** SQL statement to take a copy, changing no row if there is none left. */
+    private static final String REMOVE_COPY_SQL =
+            "UPDATE inventory SET copies = copies - 1 WHERE title = ? AND copies > 0";
+
+    /**
+     * Create a new DAO which uses the given connection.
+     * 
+     * @param c connection.
+     */
+    public SQLInventoryDAO(Connection c) {
+        super(c);
+    }
+
+    @Override
+    public int getCopies(String title) {
+        try {
+            return copies(title);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getAll() {
+        try {
+            Map<String, Integer> result = new LinkedHashMap<>();
+            PreparedStatement ps = getConnection().prepareStatement(GET_ALL_SQL);
+            ResultSet r = ps.executeQuery();
+            while (r.next()) {
+                result.put(r.getString("Title"), r.getInt("Copies"));
+            }
+            r.close();
+            ps.close();
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int addCopy(String title) {
+        return change(ADD_COPY_SQL, title);
+    }
+
+    @Override
+    public int removeCopy(String title) {
+        return change(REMOVE_COPY_SQL, title);
+    }
+
+    /**
+     * Run a statement that changes the copies of a title and read the new count in the same transaction, so it
+     * is not affected by other clients.
+     * 
+     * @param sql the statement, with the title as its only parameter.
+     * @param title the movie title.
+     * @return the copies after the change, -1 if the statement changed no row.
+     */
+    private int change(String sql, String title) {
+        int[] copies = {-1};
+        try {
+            inTransaction(() -> {
+                PreparedStatement ps = getConnection().prepareStatement(sql);
+                ps.setString(1, title);
+                int rows = ps.executeUpdate();
+                ps.close();
+                if (rows > 0) {
+                    copies[0] = copies(title);
+                }
+            });
+            return copies[0];
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param title the movie title.
+     * @return the copies of the title, 0 for unknown titles.
+     * @throws SQLException whenever there is a problem
+     */
+    private int copies(String title) throws SQLException {
+        PreparedStatement ps = getConnection().prepareStatement(GET_COPIES_SQL);
+        ps.setString(1, title);
+        ResultSet r = ps.executeQuery();
+        int result = r.next() ? r.getInt(1) : 0;
+        r.close();
+        ps.close();
+        return result;
+    }
+}
@@ -7,10 +7,15 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRecord;
 import ch.fhnw.swc.mrs.model.PriceCategory;
 
 /**
@@ -21,11 +26,14 @@ public class SQLMovieDAO extends AbstractDAO implements MovieDAO {
     private static final String DELETE_SQL = "DELETE FROM movies WHERE id = ?";
     /** SQL statement to create movie. */
     private static final String INSERT_SQL = 
-            "INSERT INTO movies (title, isrented, releasedate, pricecategory, agerating)"
+            "INSERT INTO movies (title, releasedate, pricecategory, agerating, isrented)"
             + "  VALUES (?, ?, ?, ?, ?)";
-    /** SQL statement to update movie. */
+    /**
+     * SQL statement to update movie. The rented flag is left alone: only renting and returning change it, so a
+     * stale copy of a movie cannot make it available while it is rented.
+     */
     private static final String UPDATE_SQL = "UPDATE movies "
-            + "SET title = ?, isrented = ?, releasedate = ?, pricecategory = ? , agerating = ?" + "WHERE id = ?";
+            + "SET title = ?, releasedate = ?, pricecategory = ? , agerating = ? " + "WHERE id = ?";
     /** select clause of queries. */
     private static final String SELECT_CLAUSE = "SELECT id, title, isrented, releasedate, pricecategory, agerating "
             + "  FROM movies ";
@@ -37,6 +45,12 @@ public class SQLMovieDAO extends AbstractDAO implements MovieDAO {
     private static final String GET_ALL_SQL = SELECT_CLAUSE;
     /** SQL statement to get all movies of a given rented status. */
     private static final String GET_ALL_RENTED_SQL = SELECT_CLAUSE + " WHERE isrented = ?";
+    /** SQL statement to get a page of movies. */
+    private static final String GET_PAGE_SQL = SELECT_CLAUSE + " WHERE id > ? ORDER BY id LIMIT ?";
+    /** SQL statement to stream all movies. */
+    private static final String STREAM_SQL = SELECT_CLAUSE + " ORDER BY id";
+    /** Labels of the columns of plain movie queries. */
+    static final Columns COLUMNS = new Columns("");
 
     /**
      * Create a new DAO which uses the given connection.
@@ -67,19 +81,55 @@ public class SQLMovieDAO extends AbstractDAO implements MovieDAO {
      * @throws SQLException in case of any problem
      */
     private Movie readMovie(ResultSet r) throws SQLException {
-        String title = r.getString("Title");
-        boolean isrented = r.getBoolean("IsRented");
-        LocalDate date = r.getDate("ReleaseDate").toLocalDate();
-        int i = r.getInt("Id");
-        String pc = r.getString("PriceCategory");
-        PriceCategory cat = PriceCategory.getPriceCategoryFromId(pc);
+        return readMovie(r, COLUMNS);
+    }
+
+    /**
+     * Read a single movie object from a result set whose movie columns carry a common label prefix, e.g.
+     * when movies are joined to other tables.
+     * 
+     * @param r Cursor into result set.
+     * @param c labels of the movie columns, {@link #COLUMNS} for plain movie queries.
+     * @return a movie object
+     * @throws SQLException in case of any problem
+     */
+    static Movie readMovie(ResultSet r, Columns c) throws SQLException {
+        String title = r.getString(c.title);
+        boolean isrented = r.getBoolean(c.isRented);
+        LocalDate date = r.getDate(c.releaseDate).toLocalDate();
+        int i = r.getInt(c.id);
+        PriceCategory cat = PriceCategory.getPriceCategoryFromCode(r.getInt(c.priceCategory));
         Movie m = new Movie(title, date, cat, 0);
         m.setId(i);
         m.setRented(isrented);
-        m.setAgeRating(r.getInt("agerating"));
+        m.setAgeRating(r.getInt(c.ageRating));
         return m;
     }
 
+    /**
+     * Labels of the movie columns in a result set, built once per label prefix rather than for every row.
+     */
+    static final class Columns {
+        private final String id;
+        private final String title;
+        private final String isRented;
+        private final String releaseDate;
+        private final String priceCategory;
+        private final String ageRating;
+
+        /**
+         * @param prefix prefix of the column labels, empty for plain movie queries.
+         */
+        Columns(String prefix) {
+            id = prefix + "Id";
+            title = prefix + "Title";
+            isRented = prefix + "IsRented";
+            releaseDate = prefix + "ReleaseDate";
+            priceCategory = prefix + "PriceCategory";
+            ageRating = prefix + "AgeRating";
+        }
+    }
+
     @Override
     public List<Movie> getAll() {
         try {
@@ -90,6 +140,36 @@ public class SQLMovieDAO extends AbstractDAO implements MovieDAO {
         }
     }
 
+    @Override
+    public List<MovieRecord> getAllRecords() {
+        try {
+            List<MovieRecord> result = new ArrayList<>();
+            PreparedStatement ps = getConnection().prepareStatement(GET_ALL_SQL);
+            ResultSet r = ps.executeQuery();
+            while (r.next()) {
+                result.add(readRecord(r));
+            }
+            r.close();
+            ps.close();
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read a single movie record from database.
+     * 
+     * @param r Cursor into result set.
+     * @return a movie record
+     * @throws SQLException in case of any problem
+     */
+    private static MovieRecord readRecord(ResultSet r) throws SQLException {
+        return new MovieRecord(r.getInt("Id"), r.getString("Title"), r.getDate("ReleaseDate").toLocalDate(),
+                PriceCategory.getPriceCategoryFromCode(r.getInt("PriceCategory")), r.getInt("agerating"),
+                r.getBoolean("IsRented"));
+    }
+
     @Override
     public List<Movie> getAll(boolean rented) {
         try {
@@ -150,41 +230,135 @@ public class SQLMovieDAO extends AbstractDAO implements MovieDAO {
     }
 
     @Override
-    public void saveOrUpdate(Movie movie) {
+    public List<Movie> getPage(int afterId, int limit) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(GET_BY_ID_SQL);
-            ps.setInt(1, movie.getId());
+            List<Movie> result = new ArrayList<>();
+            PreparedStatement ps = getConnection().prepareStatement(GET_PAGE_SQL);
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
             ResultSet r = ps.executeQuery();
-            PreparedStatement writeStmt;
-            boolean isUpdate = r.next();
-            int paramcount = 1;
-            if (isUpdate) { // there exists already a movie with this id => UPDATE
-                writeStmt = getConnection().prepareStatement(UPDATE_SQL);
-            } else {
-                writeStmt = getConnection().prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
-            }
-            writeStmt.setString(paramcount++, movie.getTitle());
-            writeStmt.setBoolean(paramcount++, movie.isRented());
-            Date d = Date.valueOf(movie.getReleaseDate());
-            writeStmt.setDate(paramcount++, d);
-            writeStmt.setString(paramcount++, movie.getPriceCategory().toString());
-            writeStmt.setInt(paramcount++, movie.getAgeRating());
-            if (isUpdate) {
-                writeStmt.setInt(paramcount, movie.getId());
-            }
-            writeStmt.executeUpdate();
-            getConnection().commit();
-            if (!isUpdate) {
-                r = writeStmt.getGeneratedKeys();
-                if (r.next()) {
-                    movie.setId(r.getInt(1));
-                }
+            while (r.next()) {
+                result.add(readMovie(r));
             }
-            writeStmt.close();
             r.close();
             ps.close();
+            return result;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public Stream<Movie> stream() {
+        try {
+            return stream(openCursor(STREAM_SQL), this::readMovie);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void saveOrUpdate(Movie movie) {
+        try {
+            // a movie that was never stored has no id yet, so there is nothing to update.
+            if (movie.getId() == 0 || update(movie) == 0) {
+                insert(movie);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<Integer> insertAll(Collection<Movie> movies, int batchSize) {
+        try {
+            List<Integer> ids = new BatchWriter<Movie>(getConnection(), batchSize)
+                    .add(INSERT_SQL, SQLMovieDAO::setInsertParameters).returningKeys().write(movies);
+            Iterator<Integer> id = ids.iterator();
+            for (Movie m : movies) {
+                m.setId(id.next());
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<Movie> movies, int batchSize) {
+        try {
+            new BatchWriter<Movie>(getConnection(), batchSize)
+                    .add(UPDATE_SQL, (ps, m) -> ps.setInt(setParameters(ps, m), m.getId())).write(movies);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<Movie> movies, int batchSize) {
+        try {
+            new BatchWriter<Movie>(getConnection(), batchSize)
+                    .add(DELETE_SQL, (ps, m) -> ps.setInt(1, m.getId())).write(movies);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param movie the movie to update.
+     * @return the number of updated rows, 0 if there is no movie with this id.
+     * @throws SQLException in case of any problem
+     */
+    private int update(Movie movie) throws SQLException {
+        PreparedStatement ps = getConnection().prepareStatement(UPDATE_SQL);
+        int paramcount = setParameters(ps, movie);
+        ps.setInt(paramcount, movie.getId());
+        int rows = ps.executeUpdate();
+        ps.close();
+        return rows;
+    }
+
+    /**
+     * @param movie the movie to insert. Its id is set to the one generated by the database.
+     * @throws SQLException in case of any problem
+     */
+    private void insert(Movie movie) throws SQLException {
+        PreparedStatement ps = getConnection().prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+        setInsertParameters(ps, movie);
+        ps.executeUpdate();
+        ResultSet r = ps.getGeneratedKeys();
+        if (r.next()) {
+            movie.setId(r.getInt(1));
+        }
+        r.close();
+        ps.close();
+    }
+
+    /**
+     * Set the column values shared by INSERT_SQL and UPDATE_SQL.
+     * 
+     * @param ps the statement to fill.
+     * @param movie the movie to write.
+     * @return the index of the next parameter.
+     * @throws SQLException in case of any problem
+     */
+    private static int setParameters(PreparedStatement ps, Movie movie) throws SQLException {
+        int paramcount = 1;
+        ps.setString(paramcount++, movie.getTitle());
+        ps.setDate(paramcount++, Date.valueOf(movie.getReleaseDate()));
+        ps.setInt(paramcount++, movie.getPriceCategory().getCode());
+        ps.setInt(paramcount++, movie.getAgeRating());
+        return paramcount;
+    }
+
+    /**
+     * Set the column values of INSERT_SQL.
+     * 
+     * @param ps the statement to fill.
+     * @param movie the movie to write.
+     * @throws SQLException in case of any problem
+     */
+    private static void setInsertParameters(PreparedStatement ps, Movie movie) throws SQLException {
+        ps.setBoolean(setParameters(ps, movie), movie.isRented());
+    }
 }
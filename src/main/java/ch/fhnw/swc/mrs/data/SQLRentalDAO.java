@@ -6,12 +6,17 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Stream;
 
-import ch.fhnw.swc.mrs.model.Movie;
 import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.RentalRecord;
 import ch.fhnw.swc.mrs.model.User;
 
 /**
@@ -24,13 +29,26 @@ public class SQLRentalDAO extends AbstractDAO implements RentalDAO {
     /** SQL statement to create movie. */
     private static final String INSERT_SQL = "INSERT INTO rentals ( movieid, clientid, rentaldate )"
             + "  VALUES ( ?, ?, ? )";
-    /** select clause of queries. */
-    private static final String SELECT_CLAUSE = "SELECT id, movieid, clientid, rentaldate FROM rentals ";
-    /** SQL statement to get movie by id. */
-    private static final String GET_BY_ID_SQL = SELECT_CLAUSE + " WHERE id = ?";
+    /** SQL statement to mark a movie as rented, changes no row if the movie is already rented. */
+    private static final String RENT_MOVIE_SQL = "UPDATE movies SET isrented = TRUE WHERE id = ? AND isrented = FALSE";
+    /** SQL statement to mark a movie as available again. */
+    private static final String RETURN_MOVIE_SQL = "UPDATE movies SET isrented = FALSE WHERE id = ?";
+    /** SQLSTATE class of transaction rollbacks, e.g. serialization failures or deadlocks. */
+    private static final String ROLLBACK_STATE_CLASS = "40";
+    /** SQL statement to get rental by id. */
+    private static final String GET_BY_ID_SQL = RentalLoader.SELECT_CLAUSE + " WHERE r.id = ?";
 
-    /** SQL statement to get all movies. */
-    private static final String GET_ALL_SQL = SELECT_CLAUSE;
+    /** SQL statement to get the rentals of a user, backed by the index on rentals.clientid. */
+    private static final String GET_BY_USER_SQL = RentalLoader.SELECT_CLAUSE + " WHERE r.clientid = ?";
+
+    /** SQL statement to get all rentals. */
+    private static final String GET_ALL_SQL = RentalLoader.SELECT_CLAUSE;
+    /** SQL statement to get all rentals without their users and movies. */
+    private static final String GET_ALL_RECORDS_SQL = "SELECT id, clientid, movieid, rentaldate FROM rentals";
+    /** SQL statement to get a page of rentals. */
+    private static final String GET_PAGE_SQL = RentalLoader.SELECT_CLAUSE + " WHERE r.id > ? ORDER BY r.id LIMIT ?";
+    /** SQL statement to stream all rentals. */
+    private static final String STREAM_SQL = RentalLoader.SELECT_CLAUSE + " ORDER BY r.id";
 
     /**
      * Create a new DAO which uses the given connection.
@@ -41,40 +59,132 @@ public class SQLRentalDAO extends AbstractDAO implements RentalDAO {
         super(c);
     }
 
+    /**
+     * {@inheritDoc} The rental is deleted and its movie marked as available in one transaction.
+     * 
+     * @throws RentalConflictException if the rental does not exist (any more), e.g. because it was returned
+     *             concurrently.
+     */
     @Override
     public void delete(Rental rental) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(DELETE_SQL);
-            int id = rental.getId();
-            ps.setInt(1, id);
-            ps.execute();
+            inTransaction(() -> {
+                PreparedStatement ps = getConnection().prepareStatement(DELETE_SQL);
+                ps.setInt(1, rental.getId());
+                int deleted = ps.executeUpdate();
+                ps.close();
+                if (deleted == 0) {
+                    throw new RentalConflictException("rental " + rental.getId() + " has already been returned");
+                }
+                ps = getConnection().prepareStatement(RETURN_MOVIE_SQL);
+                ps.setInt(1, rental.getMovie().getId());
+                ps.executeUpdate();
+                ps.close();
+            });
+        } catch (SQLException e) {
+            throw translate(e, rental);
+        }
+    }
+
+    @Override
+    public List<Rental> getPage(int afterId, int limit) {
+        try {
+            List<Rental> result = new ArrayList<>();
+            RentalLoader loader = new RentalLoader();
+            PreparedStatement ps = getConnection().prepareStatement(GET_PAGE_SQL);
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            ResultSet r = ps.executeQuery();
+            while (r.next()) {
+                result.add(loader.read(r));
+            }
+            r.close();
             ps.close();
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc} All rentals of the stream share their movies and users.
+     */
+    @Override
+    public Stream<Rental> stream() {
+        try {
+            return stream(openCursor(STREAM_SQL), new RentalLoader()::read);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Read single Rental object.
+     * {@inheritDoc}
      * 
-     * @param r cursor into result set
-     * @return Rental object
-     * @throws SQLException whenever there is a problem.
+     * @throws RentalConflictException if one of the movies is already rented. Its index tells which rental.
      */
-    private Rental readRental(ResultSet r) throws SQLException {
-        int id = r.getInt("id");
-        int mid = r.getInt("movieid");
-        int cid = r.getInt("clientid");
-        LocalDate rentaldate = r.getDate("rentaldate").toLocalDate();
+    @Override
+    public List<Integer> insertAll(Collection<Rental> rentals, int batchSize) {
+        try {
+            List<Integer> ids = new BatchWriter<Rental>(getConnection(), batchSize)
+                    .guard(RENT_MOVIE_SQL, (ps, r) -> ps.setInt(1, r.getMovie().getId()))
+                    .add(INSERT_SQL, SQLRentalDAO::setParameters).returningKeys().write(rentals);
+            Iterator<Integer> id = ids.iterator();
+            for (Rental r : rentals) {
+                r.setId(id.next());
+            }
+            return ids;
+        } catch (BatchWriter.GuardException e) {
+            throw new RentalConflictException(
+                    "movie of rental no. " + e.getIndex() + " in the batch is already rented", e.getIndex());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-        SQLMovieDAO mDao = new SQLMovieDAO(getConnection());
-        Movie m = mDao.getById(mid);
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws RentalConflictException if one of the rentals has already been returned. Its index tells which one.
+     */
+    @Override
+    public void deleteAll(Collection<Rental> rentals, int batchSize) {
+        try {
+            new BatchWriter<Rental>(getConnection(), batchSize)
+                    .guard(DELETE_SQL, (ps, r) -> ps.setInt(1, r.getId()))
+                    .add(RETURN_MOVIE_SQL, (ps, r) -> ps.setInt(1, r.getMovie().getId())).write(rentals);
+        } catch (BatchWriter.GuardException e) {
+            throw new RentalConflictException(
+                    "rental no. " + e.getIndex() + " in the batch has already been returned", e.getIndex());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-        SQLUserDAO uDao = new SQLUserDAO(getConnection());
-        User u = uDao.getById(cid);
+    /**
+     * Set the column values of INSERT_SQL.
+     * 
+     * @param ps the statement to fill.
+     * @param rental the rental to write.
+     * @throws SQLException whenever there is a problem.
+     */
+    private static void setParameters(PreparedStatement ps, Rental rental) throws SQLException {
+        ps.setInt(1, rental.getMovie().getId());
+        ps.setInt(2, rental.getUser().getId());
+        ps.setDate(3, Date.valueOf(rental.getRentalDate()));
+    }
 
-        Rental rental = Rental.materializeRentalFromDB(id, u, m, rentaldate);
-        return rental;
+    /**
+     * @param e failure of a rental operation.
+     * @param rental the rental concerned.
+     * @return the exception to throw: a conflict if the database gave up because of a concurrent transaction.
+     */
+    private static RuntimeException translate(SQLException e, Rental rental) {
+        if (e.getSQLState() != null && e.getSQLState().startsWith(ROLLBACK_STATE_CLASS)) {
+            return new RentalConflictException("concurrent change of movie " + rental.getMovie().getId() + ": "
+                    + e.getMessage());
+        }
+        return new RuntimeException(e);
     }
 
     @Override
@@ -83,8 +193,9 @@ public class SQLRentalDAO extends AbstractDAO implements RentalDAO {
             List<Rental> result = new LinkedList<Rental>();
             PreparedStatement ps = getConnection().prepareStatement(GET_ALL_SQL);
             ResultSet r = ps.executeQuery();
+            RentalLoader loader = new RentalLoader();
             while (r.next()) {
-                Rental rtl = readRental(r);
+                Rental rtl = loader.read(r);
                 result.add(rtl);
             }
             r.close();
@@ -95,6 +206,24 @@ public class SQLRentalDAO extends AbstractDAO implements RentalDAO {
         }
     }
 
+    @Override
+    public List<RentalRecord> getAllRecords() {
+        try {
+            List<RentalRecord> result = new ArrayList<>();
+            PreparedStatement ps = getConnection().prepareStatement(GET_ALL_RECORDS_SQL);
+            ResultSet r = ps.executeQuery();
+            while (r.next()) {
+                result.add(new RentalRecord(r.getInt("id"), r.getInt("clientid"), r.getInt("movieid"),
+                        r.getDate("rentaldate").toLocalDate()));
+            }
+            r.close();
+            ps.close();
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public Rental getById(int id) {
         try {
@@ -103,7 +232,7 @@ public class SQLRentalDAO extends AbstractDAO implements RentalDAO {
             ps.setInt(1, id);
             ResultSet r = ps.executeQuery();
             if (r.next()) {
-                result = readRental(r);
+                result = new RentalLoader().read(r);
             }
             r.close();
             ps.close();
@@ -113,35 +242,63 @@ public class SQLRentalDAO extends AbstractDAO implements RentalDAO {
         }
     }
 
+    /**
+     * {@inheritDoc} The user's rentals are replaced by the rentals read, and left as they were if reading fails.
+     */
     @Override
     public List<Rental> getRentalsByUser(User user) {
-        // TODO Auto-generated method stub
-        return null;
-    }
-
-    @Override
-    public void save(Rental rental) {
+        List<Rental> previous = user.getRentals();
         try {
-            PreparedStatement ps = getConnection().prepareStatement(GET_BY_ID_SQL);
-            ps.setInt(1, rental.getId());
+            PreparedStatement ps = getConnection().prepareStatement(GET_BY_USER_SQL);
+            ps.setInt(1, user.getId());
             ResultSet r = ps.executeQuery();
-            PreparedStatement writeStmt;
-            int paramcount = 1;
-            writeStmt = getConnection().prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
-            writeStmt.setInt(paramcount++, rental.getMovie().getId());
-            writeStmt.setInt(paramcount++, rental.getUser().getId());
-            writeStmt.setDate(paramcount++, Date.valueOf(rental.getRentalDate()));
-            writeStmt.execute();
-            getConnection().commit();
-            r = writeStmt.getGeneratedKeys();
-            if (r.next()) {
-                rental.setId(r.getInt(1));
+            List<Rental> result = new LinkedList<Rental>();
+            user.setRentals(result);
+            RentalLoader loader = new RentalLoader(Collections.singleton(user));
+            while (r.next()) {
+                loader.read(r);
             }
-            writeStmt.close();
             r.close();
             ps.close();
+            return new LinkedList<Rental>(result);
         } catch (SQLException e) {
+            user.setRentals(previous);
             throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            user.setRentals(previous);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc} The movie is marked as rented and the rental inserted in one transaction, and only if the
+     * movie is not rented yet.
+     * 
+     * @throws RentalConflictException if the movie is already rented, e.g. by a concurrent rental.
+     */
+    @Override
+    public void save(Rental rental) {
+        try {
+            inTransaction(() -> {
+                PreparedStatement ps = getConnection().prepareStatement(RENT_MOVIE_SQL);
+                ps.setInt(1, rental.getMovie().getId());
+                int rented = ps.executeUpdate();
+                ps.close();
+                if (rented == 0) {
+                    throw new RentalConflictException("movie " + rental.getMovie().getId() + " is already rented");
+                }
+                ps = getConnection().prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                setParameters(ps, rental);
+                ps.executeUpdate();
+                ResultSet r = ps.getGeneratedKeys();
+                if (r.next()) {
+                    rental.setId(r.getInt(1));
+                }
+                r.close();
+                ps.close();
+            });
+        } catch (SQLException e) {
+            throw translate(e, rental);
         }
     }
 
@@ -10,10 +10,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
 
 /**
  * SQL access to data.
@@ -32,14 +38,46 @@ public class SQLUserDAO extends AbstractDAO implements UserDAO {
     private static final String GET_BY_NAME_SQL = "SELECT id, firstname, name, birthdate FROM clients WHERE name = ?";
     /** SQL statement to get all users. */
     private static final String GET_ALL_SQL = "SELECT id, firstname, name, birthdate FROM clients";
+    /** SQL statement to get the rentals of a user. */
+    private static final String RENTALS_BY_ID_SQL = RentalLoader.SELECT_CLAUSE + " WHERE r.clientid = ?";
+    /** SQL statement to get the rentals of all users with a given name. */
+    private static final String RENTALS_BY_NAME_SQL = RentalLoader.SELECT_CLAUSE + " WHERE c.name = ?";
+    /** SQL statement to get the rentals of all users. */
+    private static final String RENTALS_ALL_SQL = RentalLoader.SELECT_CLAUSE;
+    /** SQL statement to get a page of users. */
+    private static final String GET_PAGE_SQL = GET_ALL_SQL + " WHERE id > ? ORDER BY id LIMIT ?";
+    /** SQL statement to get the rentals of the users in an id range. */
+    private static final String RENTALS_PAGE_SQL = RentalLoader.SELECT_CLAUSE
+            + " WHERE r.clientid > ? AND r.clientid <= ?";
+    /** SQL statement to stream all users. */
+    private static final String STREAM_SQL = GET_ALL_SQL + " ORDER BY id";
+    /** SQL statement to stream the rentals of all users, in the order of STREAM_SQL. */
+    private static final String RENTALS_STREAM_SQL = RentalLoader.SELECT_CLAUSE + " ORDER BY r.clientid";
+    /** Labels of the columns of plain user queries. */
+    static final Columns COLUMNS = new Columns("");
+
+    /** Whether the users' rentals are loaded together with the users. */
+    private final boolean withRentals;
 
     /**
-     * Create a new DAO which uses the given connection.
+     * Create a new DAO which uses the given connection. Users are loaded without their rentals.
      * 
      * @param c connection.
      */
     public SQLUserDAO(Connection c) {
+        this(c, false);
+    }
+
+    /**
+     * Create a new DAO which uses the given connection.
+     * 
+     * @param c connection.
+     * @param withRentals whether to fill the rentals of the users read. The rentals of all users returned by
+     *            one call are loaded with a single additional query.
+     */
+    public SQLUserDAO(Connection c, boolean withRentals) {
         super(c);
+        this.withRentals = withRentals;
     }
 
     @Override
@@ -62,16 +100,67 @@ public class SQLUserDAO extends AbstractDAO implements UserDAO {
      * @throws SQLException whenever there is a problem
      */
     private User readUser(ResultSet r) throws SQLException {
-        String firstname = r.getString("FirstName");
-        String lastname = r.getString("Name");
-        int i = r.getInt("Id");
-		LocalDate date = r.getDate("Birthdate").toLocalDate();
+        return readUser(r, COLUMNS);
+    }
+
+    /**
+     * Read single User object from a result set whose user columns carry a common label prefix, e.g. when
+     * clients are joined to other tables.
+     * 
+     * @param r cursor into result set.
+     * @param c labels of the user columns, {@link #COLUMNS} for plain user queries.
+     * @return newly read User object
+     * @throws SQLException whenever there is a problem
+     */
+    static User readUser(ResultSet r, Columns c) throws SQLException {
+        String firstname = r.getString(c.firstName);
+        String lastname = r.getString(c.name);
+        int i = r.getInt(c.id);
+        LocalDate date = r.getDate(c.birthdate).toLocalDate();
         User u = new User(lastname, firstname, date);
         u.setId(i);
 
         return u;
     }
 
+    /**
+     * Labels of the user columns in a result set, built once per label prefix rather than for every row.
+     */
+    static final class Columns {
+        private final String id;
+        private final String name;
+        private final String firstName;
+        private final String birthdate;
+
+        /**
+         * @param prefix prefix of the column labels, empty for plain user queries.
+         */
+        Columns(String prefix) {
+            id = prefix + "Id";
+            name = prefix + "Name";
+            firstName = prefix + "FirstName";
+            birthdate = prefix + "Birthdate";
+        }
+    }
+
+    @Override
+    public List<UserRecord> getAllRecords() {
+        try {
+            List<UserRecord> result = new ArrayList<>();
+            PreparedStatement ps = getConnection().prepareStatement(GET_ALL_SQL);
+            ResultSet r = ps.executeQuery();
+            while (r.next()) {
+                result.add(new UserRecord(r.getInt("Id"), r.getString("Name"), r.getString("FirstName"),
+                        r.getDate("Birthdate").toLocalDate()));
+            }
+            r.close();
+            ps.close();
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public List<User> getAll() {
         try {
@@ -83,12 +172,80 @@ public class SQLUserDAO extends AbstractDAO implements UserDAO {
             }
             r.close();
             ps.close();
+            if (withRentals) {
+                loadRentals(result, getConnection().prepareStatement(RENTALS_ALL_SQL));
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<User> getPage(int afterId, int limit) {
+        try {
+            List<User> result = new ArrayList<>();
+            PreparedStatement ps = getConnection().prepareStatement(GET_PAGE_SQL);
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            ResultSet r = ps.executeQuery();
+            while (r.next()) {
+                result.add(readUser(r));
+            }
+            r.close();
+            ps.close();
+            if (withRentals && !result.isEmpty()) {
+                PreparedStatement rentals = getConnection().prepareStatement(RENTALS_PAGE_SQL);
+                rentals.setInt(1, afterId);
+                rentals.setInt(2, result.get(result.size() - 1).getId());
+                loadRentals(result, rentals);
+            }
             return result;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * {@inheritDoc} When rentals are loaded, a second cursor over all rentals ordered by user is merged into the
+     * stream, so no query is run per user.
+     */
+    @Override
+    public Stream<User> stream() {
+        try {
+            if (!withRentals) {
+                return stream(openCursor(STREAM_SQL), this::readUser);
+            }
+            ResultSet rentals = openCursor(RENTALS_STREAM_SQL);
+            try {
+                RentalMerger merger = new RentalMerger(rentals);
+                return stream(openCursor(STREAM_SQL), merger::read).onClose(() -> close(rentals));
+            } catch (SQLException | RuntimeException e) {
+                close(rentals);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Attach the rentals selected by a prepared query to the given users.
+     * 
+     * @param users the users whose rentals are selected by the query.
+     * @param ps prepared rental query based on {@link RentalLoader#SELECT_CLAUSE}; closed by this method.
+     * @throws SQLException whenever there is a problem
+     */
+    private void loadRentals(List<User> users, PreparedStatement ps) throws SQLException {
+        RentalLoader loader = new RentalLoader(users);
+        ResultSet r = ps.executeQuery();
+        while (r.next()) {
+            loader.read(r);
+        }
+        r.close();
+        ps.close();
+    }
+
     @Override
     public User getById(int id) {
         try {
@@ -101,6 +258,11 @@ public class SQLUserDAO extends AbstractDAO implements UserDAO {
             }
             r.close();
             ps.close();
+            if (withRentals && result != null) {
+                PreparedStatement rentals = getConnection().prepareStatement(RENTALS_BY_ID_SQL);
+                rentals.setInt(1, id);
+                loadRentals(Collections.singletonList(result), rentals);
+            }
             return result;
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -119,6 +281,11 @@ public class SQLUserDAO extends AbstractDAO implements UserDAO {
             }
             r.close();
             ps.close();
+            if (withRentals && !result.isEmpty()) {
+                PreparedStatement rentals = getConnection().prepareStatement(RENTALS_BY_NAME_SQL);
+                rentals.setString(1, name);
+                loadRentals(result, rentals);
+            }
             return result;
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -128,38 +295,128 @@ public class SQLUserDAO extends AbstractDAO implements UserDAO {
     @Override
     public void saveOrUpdate(User user) {
         try {
-            PreparedStatement ps = getConnection().prepareStatement(GET_BY_ID_SQL);
-            ps.setInt(1, user.getId());
-            ResultSet r = ps.executeQuery();
-            PreparedStatement writeStmt;
-            boolean isUpdate = r.next();
-            int paramcount = 1;
-            if (isUpdate) { // there exists already a user with this id => UPDATE
-                writeStmt = getConnection().prepareStatement(UPDATE_SQL);
-            } else { // new user => INSERT
-                writeStmt = getConnection().prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+            // a user who was never stored has no id yet, so there is nothing to update.
+            if (user.getId() == 0 || update(user) == 0) {
+                insert(user);
             }
-            writeStmt.setString(paramcount++, user.getFirstName());
-            writeStmt.setString(paramcount++, user.getName());
-            Date d = Date.valueOf(user.getBirthdate());
-            writeStmt.setDate(paramcount++, d);
-			if (isUpdate) {
-				writeStmt.setInt(paramcount, user.getId());
-			}
-			writeStmt.execute();
-			getConnection().commit();
-            if (!isUpdate) {
-                r = writeStmt.getGeneratedKeys();
-                if (r.next()) {
-                    user.setId(r.getInt(1));
-                }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<Integer> insertAll(Collection<User> users, int batchSize) {
+        try {
+            List<Integer> ids = new BatchWriter<User>(getConnection(), batchSize)
+                    .add(INSERT_SQL, SQLUserDAO::setParameters).returningKeys().write(users);
+            Iterator<Integer> id = ids.iterator();
+            for (User u : users) {
+                u.setId(id.next());
             }
-            writeStmt.close();
-            r.close();
-            ps.close();
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<User> users, int batchSize) {
+        try {
+            new BatchWriter<User>(getConnection(), batchSize)
+                    .add(UPDATE_SQL, (ps, u) -> ps.setInt(setParameters(ps, u), u.getId())).write(users);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public void deleteAll(Collection<User> users, int batchSize) {
+        try {
+            new BatchWriter<User>(getConnection(), batchSize)
+                    .add(DELETE_SQL, (ps, u) -> ps.setInt(1, u.getId())).write(users);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param user the user to update.
+     * @return the number of updated rows, 0 if there is no user with this id.
+     * @throws SQLException whenever there is a problem
+     */
+    private int update(User user) throws SQLException {
+        PreparedStatement ps = getConnection().prepareStatement(UPDATE_SQL);
+        int paramcount = setParameters(ps, user);
+        ps.setInt(paramcount, user.getId());
+        int rows = ps.executeUpdate();
+        ps.close();
+        return rows;
+    }
+
+    /**
+     * @param user the user to insert. Its id is set to the one generated by the database.
+     * @throws SQLException whenever there is a problem
+     */
+    private void insert(User user) throws SQLException {
+        PreparedStatement ps = getConnection().prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+        setParameters(ps, user);
+        ps.executeUpdate();
+        ResultSet r = ps.getGeneratedKeys();
+        if (r.next()) {
+            user.setId(r.getInt(1));
+        }
+        r.close();
+        ps.close();
+    }
+
+    /**
+     * Set the column values shared by INSERT_SQL and UPDATE_SQL.
+     * 
+     * @param ps the statement to fill.
+     * @param user the user to write.
+     * @return the index of the next parameter.
+     * @throws SQLException whenever there is a problem
+     */
+    private static int setParameters(PreparedStatement ps, User user) throws SQLException {
+        int paramcount = 1;
+        ps.setString(paramcount++, user.getFirstName());
+        ps.setString(paramcount++, user.getName());
+        ps.setDate(paramcount++, Date.valueOf(user.getBirthdate()));
+        return paramcount;
+    }
+
+    /**
+     * Reads users from a cursor ordered by id and attaches their rentals from a second cursor ordered by user.
+     */
+    private final class RentalMerger {
+        private final ResultSet rentals;
+        private boolean more;
+
+        /**
+         * @param rentals cursor over a query starting with {@link RentalLoader#SELECT_CLAUSE}, ordered by user.
+         * @throws SQLException whenever there is a problem
+         */
+        RentalMerger(ResultSet rentals) throws SQLException {
+            this.rentals = rentals;
+            this.more = rentals.next();
+        }
+
+        /**
+         * @param r cursor on the user to read.
+         * @return the user together with the rentals.
+         * @throws SQLException whenever there is a problem
+         */
+        User read(ResultSet r) throws SQLException {
+            User user = readUser(r);
+            RentalLoader loader = new RentalLoader(Collections.singleton(user));
+            while (more && rentals.getInt("clientid") <= user.getId()) {
+                if (rentals.getInt("clientid") == user.getId()) {
+                    loader.read(rentals);
+                }
+                more = rentals.next();
+            }
+            return user;
+        }
+    }
+
 }
@@ -0,0 +1,194 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the prepared statements of one physical connection open, so SQL that is prepared again is not parsed
+ * again. The statements handed out are proxies: closing one only clears its parameters and makes it available
+ * for the next <code>prepareStatement</code> call with the same SQL. When the cache is full, the least recently
+ * used statement is closed. Like the connection itself, a cache must only be used by one thread at a time.
+ */
+final class StatementCache {
+    /** Marks statements prepared without the auto-generated keys argument. */
+    private static final int PLAIN = -1;
+
+    private final Connection connection;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private final Map<Key, CachedStatement> entries;
+
+    /**
+     * @param connection the physical connection whose statements are cached.
+     * @param capacity maximum number of statements kept open.
+     * @param hits counts statements served from the cache.
+     * @param misses counts statements that had to be prepared.
+     * @param evictions counts statements closed to make room for others.
+     */
+    StatementCache(Connection connection, int capacity, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.connection = connection;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = new LinkedHashMap<Key, CachedStatement>(capacity * 4 / 3 + 1, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param sql the SQL to prepare.
+     * @return a cached statement for the SQL.
+     * @throws SQLException whenever there is a problem.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, PLAIN);
+    }
+
+    /**
+     * @param sql the SQL to prepare.
+     * @param autoGeneratedKeys whether generated keys are returned, or {@link #PLAIN}.
+     * @return a cached statement for the SQL.
+     * @throws SQLException whenever there is a problem.
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement e = entries.get(key);
+        if (e != null && !e.inUse) {
+            hits.incrementAndGet();
+            e.inUse = true;
+            return e.proxy;
+        }
+        misses.incrementAndGet();
+        PreparedStatement ps = autoGeneratedKeys == PLAIN
+                ? connection.prepareStatement(sql) : connection.prepareStatement(sql, autoGeneratedKeys);
+        if (e != null) {
+            return ps; // the cached one is still open, this one is closed as usual
+        }
+        e = new CachedStatement(ps);
+        entries.put(key, e);
+        return e.proxy;
+    }
+
+    /** @return number of statements currently cached. */
+    int size() {
+        return entries.size();
+    }
+
+    /** SQL text together with the way it was prepared. */
+    private static final class Key {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return autoGeneratedKeys == k.autoGeneratedKeys && sql.equals(k.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+
+    /** A cached statement and the proxy handed out for it. */
+    private final class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse = true;
+        private boolean evicted = false;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, this);
+        }
+
+        /** Drop the statement from the cache, closing it as soon as it is no longer used. */
+        void evict() {
+            evictions.incrementAndGet();
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // the statement is not used any more anyway
+            }
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        giveBack();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return "cached " + statement;
+                default:
+            }
+            if (!inUse) {
+                throw new SQLException("statement has already been closed");
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void giveBack() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                statement.close();
+                return;
+            }
+            ResultSet r = statement.getResultSet();
+            if (r != null) {
+                r.close();
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+        }
+    }
+}
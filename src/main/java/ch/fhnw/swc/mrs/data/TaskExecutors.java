@@ -0,0 +1,60 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates executors for tasks that spend most of their time blocked, e.g. on database queries or sockets.
+ */
+public final class TaskExecutors {
+
+    private TaskExecutors() { }
+
+    /**
+     * Holds the shared executor, so it is only created when first used.
+     */
+    private static final class Shared {
+        /** Threads of the shared pool without virtual threads, set with <code>mrs.async.threads</code>. */
+        private static final int THREADS = Integer.getInteger("mrs.async.threads", 8);
+        private static final ExecutorService EXECUTOR = newBlockingTaskExecutor("mrs-async", THREADS);
+    }
+
+    /**
+     * The executor shared by all asynchronous services of the application. It runs every task on a virtual
+     * thread if the JVM offers them, otherwise on a pool of <code>mrs.async.threads</code> daemon threads
+     * (default 8), so it needs no shutdown.
+     *
+     * @return the shared executor.
+     */
+    public static Executor sharedBlockingTaskExecutor() {
+        return Shared.EXECUTOR;
+    }
+
+    /**
+     * Create an executor that runs every task on a virtual thread if the JVM offers them. They are looked up
+     * by reflection, as the application is built for Java 8. Otherwise the tasks run on a fixed pool of daemon
+     * threads.
+     *
+     * @param name prefix of the names of the pool's threads.
+     * @param threads number of threads of the pool used without virtual threads.
+     * @return a new executor; shut it down when done.
+     */
+    public static ExecutorService newBlockingTaskExecutor(String name, int threads) {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            return Executors.newFixedThreadPool(threads, factory);
+        }
+    }
+}
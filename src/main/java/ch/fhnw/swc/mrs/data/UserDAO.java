@@ -1,8 +1,11 @@
 package ch.fhnw.swc.mrs.data;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
 
 /**
  * Data Access Object that provides access to the underlying database. Use this DAO to access User related data.
@@ -21,6 +24,28 @@ public interface UserDAO extends DAO {
      */
     List<User> getAll();
 
+    /**
+     * Retrieve all users as immutable records, without their rentals and without creating any JavaFX properties.
+     * @return a list of all users.
+     */
+    List<UserRecord> getAllRecords();
+
+    /**
+     * Retrieve a page of users in the order of their ids. Pass the id of the last user of a page to get the
+     * next page, starting with 0.
+     * @param afterId only users with an id greater than this one are returned.
+     * @param limit maximum number of users returned.
+     * @return the next users, an empty list after the last page.
+     */
+    List<User> getPage(int afterId, int limit);
+
+    /**
+     * Stream all users in the order of their ids. The users are read from a forward-only cursor while the stream
+     * is consumed, so they need not fit into memory at once. Close the stream to release the cursor.
+     * @return all users.
+     */
+    Stream<User> stream();
+
     /**
      * Persist a User object. Use this method either when storing a new User object or for updating an existing one.
      * @param user the object to persist.
@@ -41,4 +66,27 @@ public interface UserDAO extends DAO {
      * @return a list of users with the given name.
      */
     List<User> getByName(String name);
+
+    /**
+     * Insert new users with JDBC batches in one transaction. The users receive their generated ids.
+     * @param users the users to insert. None of them may have an id yet.
+     * @param batchSize number of users written per batch.
+     * @return the generated ids in the iteration order of users.
+     */
+    List<Integer> insertAll(Collection<User> users, int batchSize);
+
+    /**
+     * Update stored users with JDBC batches in one transaction. Users not stored are skipped.
+     * @param users the users to update.
+     * @param batchSize number of users written per batch.
+     */
+    void updateAll(Collection<User> users, int batchSize);
+
+    /**
+     * Delete users with JDBC batches in one transaction. Users who still rent a movie cannot be
+     * deleted.
+     * @param users the users to delete.
+     * @param batchSize number of users deleted per batch.
+     */
+    void deleteAll(Collection<User> users, int batchSize);
 }
@@ -0,0 +1,186 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The services of {@link MRSServices} without blocking the caller. Every method starts the operation and
+ * returns a future of its result, which completes exceptionally where the blocking method would throw, e.g.
+ * with a {@link RentalConflictException}. Independent operations started one after the other run at the same
+ * time. The streaming methods are left out, as a stream holds resources until it is closed.
+ */
+public interface AsyncMRSServices {
+  /**
+   * @param m a Movie that is used as a source for the newly created object.
+   * @return see {@link MRSServices#createMovie(Movie)}.
+   */
+  CompletableFuture<Movie> createMovie(Movie m);
+
+  /** @return see {@link MRSServices#getAllMovies()}. */
+  CompletableFuture<List<Movie>> getAllMovies();
+
+  /**
+   * @param rented whether the available or the rented Movies shall be retrieved.
+   * @return see {@link MRSServices#getAllMovies(boolean)}.
+   */
+  CompletableFuture<List<Movie>> getAllMovies(boolean rented);
+
+  /**
+   * @param afterId only Movies with a greater identification are returned.
+   * @param limit maximum number of Movies returned.
+   * @return see {@link MRSServices#getMoviesPage(int, int)}.
+   */
+  CompletableFuture<List<Movie>> getMoviesPage(int afterId, int limit);
+
+  /** @return see {@link MRSServices#getMovieRecords()}. */
+  CompletableFuture<List<MovieRecord>> getMovieRecords();
+
+  /**
+   * @param id the identification of the Movie to retrieve.
+   * @return see {@link MRSServices#getMovieById(int)}.
+   */
+  CompletableFuture<Movie> getMovieById(int id);
+
+  /**
+   * @param movie contains the new data.
+   * @return see {@link MRSServices#updateMovie(Movie)}.
+   */
+  CompletableFuture<Boolean> updateMovie(Movie movie);
+
+  /**
+   * @param movie Movie to delete.
+   * @return see {@link MRSServices#deleteMovie(Movie)}.
+   */
+  CompletableFuture<Boolean> deleteMovie(Movie movie);
+
+  /**
+   * @param movies the Movies to add.
+   * @return see {@link MRSServices#createMovies(Collection)}.
+   */
+  CompletableFuture<List<Integer>> createMovies(Collection<Movie> movies);
+
+  /**
+   * @param movies contain the new data.
+   * @return see {@link MRSServices#updateMovies(Collection)}.
+   */
+  CompletableFuture<Boolean> updateMovies(Collection<Movie> movies);
+
+  /**
+   * @param movies Movies to delete.
+   * @return see {@link MRSServices#deleteMovies(Collection)}.
+   */
+  CompletableFuture<Boolean> deleteMovies(Collection<Movie> movies);
+
+  /** @return see {@link MRSServices#getAllUsers()}. */
+  CompletableFuture<List<User>> getAllUsers();
+
+  /**
+   * @param afterId only Users with a greater identification are returned.
+   * @param limit maximum number of Users returned.
+   * @return see {@link MRSServices#getUsersPage(int, int)}.
+   */
+  CompletableFuture<List<User>> getUsersPage(int afterId, int limit);
+
+  /** @return see {@link MRSServices#getUserRecords()}. */
+  CompletableFuture<List<UserRecord>> getUserRecords();
+
+  /**
+   * @param id the identification of the User to retrieve.
+   * @return see {@link MRSServices#getUserById(int)}.
+   */
+  CompletableFuture<User> getUserById(int id);
+
+  /**
+   * @param name retrieve first user found with given name.
+   * @return see {@link MRSServices#getUserByName(String)}.
+   */
+  CompletableFuture<User> getUserByName(String name);
+
+  /**
+   * @param u a User that is used as a source for the newly created object.
+   * @return see {@link MRSServices#createUser(User)}.
+   */
+  CompletableFuture<User> createUser(User u);
+
+  /**
+   * @param u contains the new data.
+   * @return see {@link MRSServices#updateUser(User)}.
+   */
+  CompletableFuture<Boolean> updateUser(User u);
+
+  /**
+   * @param u User to delete.
+   * @return see {@link MRSServices#deleteUser(User)}.
+   */
+  CompletableFuture<Boolean> deleteUser(User u);
+
+  /**
+   * @param users the Users to add.
+   * @return see {@link MRSServices#createUsers(Collection)}.
+   */
+  CompletableFuture<List<Integer>> createUsers(Collection<User> users);
+
+  /**
+   * @param users contain the new data.
+   * @return see {@link MRSServices#updateUsers(Collection)}.
+   */
+  CompletableFuture<Boolean> updateUsers(Collection<User> users);
+
+  /**
+   * @param users Users to delete.
+   * @return see {@link MRSServices#deleteUsers(Collection)}.
+   */
+  CompletableFuture<Boolean> deleteUsers(Collection<User> users);
+
+  /** @return see {@link MRSServices#getAllRentals()}. */
+  CompletableFuture<List<Rental>> getAllRentals();
+
+  /**
+   * @param id the identification of the Rental to retrieve.
+   * @return see {@link MRSServices#getRentalById(int)}.
+   */
+  CompletableFuture<Rental> getRentalById(int id);
+
+  /**
+   * @param afterId only Rentals with a greater identification are returned.
+   * @param limit maximum number of Rentals returned.
+   * @return see {@link MRSServices#getRentalsPage(int, int)}.
+   */
+  CompletableFuture<List<Rental>> getRentalsPage(int afterId, int limit);
+
+  /** @return see {@link MRSServices#getRentalRecords()}. */
+  CompletableFuture<List<RentalRecord>> getRentalRecords();
+
+  /**
+   * @param u the User that is renting a Movie.
+   * @param m the Movie that is rented.
+   * @return see {@link MRSServices#createRental(User, Movie)}.
+   */
+  CompletableFuture<Boolean> createRental(User u, Movie m);
+
+  /**
+   * @param r the rental to terminate.
+   * @return see {@link MRSServices#returnRental(Rental)}.
+   */
+  CompletableFuture<Boolean> returnRental(Rental r);
+
+  /**
+   * @param rentals Rentals created with {@link Rental#Rental(User, Movie)}.
+   * @return see {@link MRSServices#createRentals(Collection)}.
+   */
+  CompletableFuture<List<Integer>> createRentals(Collection<Rental> rentals);
+
+  /**
+   * @param rentals the rentals to terminate.
+   * @return see {@link MRSServices#returnRentals(Collection)}.
+   */
+  CompletableFuture<Boolean> returnRentals(Collection<Rental> rentals);
+
+  /**
+   * Initialize the backend component.
+   * 
+   * @return a future that completes when the backend is ready.
+   */
+  CompletableFuture<Void> init();
+}
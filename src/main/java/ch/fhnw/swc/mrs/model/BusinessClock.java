@@ -0,0 +1,110 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The current business day of the movie store. Rental durations and fees only change from one day to the next, so
+ * the day is read from the underlying {@link Clock} once and kept until the clock is advanced: asking for today is
+ * a plain field read. The shared system clock advances itself at every midnight; other clocks, e.g. fixed ones
+ * in tests, advance when {@link #advance()} is called.
+ */
+public final class BusinessClock {
+
+  /** Clock injected with {@link #setInstance(BusinessClock)}, null for the system clock. */
+  private static volatile BusinessClock instance;
+
+  private final Clock clock;
+  private volatile LocalDate today;
+  private volatile long epochDay;
+
+  /**
+   * @param clock the clock to read the day from, in the zone of the store.
+   */
+  public BusinessClock(Clock clock) {
+    this.clock = clock;
+    advance();
+  }
+
+  /** Lazy holder of the system clock, so its timer thread only starts when the clock is used. */
+  private static final class SystemClock {
+    static final BusinessClock CLOCK = new BusinessClock(Clock.systemDefaultZone()).advanceAtMidnight();
+  }
+
+  /**
+   * @return the business clock used by new Rentals.
+   */
+  public static BusinessClock getInstance() {
+    BusinessClock c = instance;
+    return c != null ? c : SystemClock.CLOCK;
+  }
+
+  /**
+   * Replace the business clock used by new Rentals, e.g. by one with a fixed date in tests. Existing Rentals keep
+   * the clock they were created with.
+   * 
+   * @param aClock the new clock, null to use the system clock again.
+   */
+  public static void setInstance(BusinessClock aClock) {
+    instance = aClock;
+  }
+
+  /**
+   * @return the current business day.
+   */
+  public LocalDate today() {
+    return today;
+  }
+
+  /**
+   * @return the current business day as counted by {@link LocalDate#toEpochDay()}.
+   */
+  public long epochDay() {
+    return epochDay;
+  }
+
+  /**
+   * Read the day from the underlying clock again.
+   * 
+   * @return whether the business day has changed.
+   */
+  public boolean advance() {
+    LocalDate now = LocalDate.now(clock);
+    if (now.equals(today)) {
+      return false;
+    }
+    today = now;
+    epochDay = now.toEpochDay();
+    return true;
+  }
+
+  /**
+   * Start a daemon thread that advances this clock right after every midnight.
+   * 
+   * @return this clock.
+   */
+  private BusinessClock advanceAtMidnight() {
+    ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "business-clock");
+      t.setDaemon(true);
+      return t;
+    });
+    scheduleNextDay(timer);
+    return this;
+  }
+
+  private void scheduleNextDay(ScheduledExecutorService timer) {
+    Instant midnight = ZonedDateTime.now(clock).toLocalDate().plusDays(1).atStartOfDay(clock.getZone()).toInstant();
+    long delay = Math.max(0, Duration.between(clock.instant(), midnight).toMillis()) + 1;
+    timer.schedule(() -> {
+      advance();
+      scheduleNextDay(timer);
+    }, delay, TimeUnit.MILLISECONDS);
+  }
+}
@@ -30,6 +30,11 @@ public final class ChildrenPriceCategory extends PriceCategory {
     return "Children";
   }
 
+  @Override
+  public int getCode() {
+    return 2;
+  }
+
   /** singleton instance. */
   private static ChildrenPriceCategory singleton = new ChildrenPriceCategory();
 
@@ -0,0 +1,18 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.util.Set;
+
+/**
+ * Gets notified when a service changed movies, users or rentals.
+ */
+public interface DataChangeListener {
+    /** The kinds of data a change may affect. */
+    enum Kind { MOVIES, USERS, RENTALS }
+
+    /**
+     * This method is called after data was changed, by the thread that changed it.
+     * 
+     * @param changed the kinds of data changed. Renting and returning change both rentals and movies.
+     */
+    void dataChanged(Set<Kind> changed);
+}
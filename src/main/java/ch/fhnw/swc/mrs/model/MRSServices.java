@@ -1,9 +1,12 @@
 package ch.fhnw.swc.mrs.model;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
- * The service interface for all services that the MRS offers.
+ * The service interface for all services that the MRS offers. The operations on many objects at
+ * once are atomic: they change all of the objects or, when they fail, none of them.
  */
 public interface MRSServices {
   /**
@@ -30,6 +33,31 @@ public interface MRSServices {
    */
   List<Movie> getAllMovies(boolean rented);
 
+  /**
+   * Retrieve a page of Movies in the order of their identification. Pass the identification of the
+   * last Movie of a page to get the next page, starting with 0.
+   * 
+   * @param afterId only Movies with a greater identification are returned.
+   * @param limit maximum number of Movies returned.
+   * @return the next Movies, an empty list after the last page.
+   */
+  List<Movie> getMoviesPage(int afterId, int limit);
+
+  /**
+   * Stream all Movies in the order of their identification without loading them all at once. The
+   * stream holds database resources: close it when done, e.g. with try-with-resources.
+   * 
+   * @return all Movies.
+   */
+  Stream<Movie> streamMovies();
+
+  /**
+   * Retrieve all Movies as immutable records, which are lighter than Movies and do not need JavaFX.
+   * 
+   * @return all Movies.
+   */
+  List<MovieRecord> getMovieRecords();
+
   /**
    * @param id the identification of the Movie to retrieve.
    * @return get Movie by its ID.
@@ -48,16 +76,69 @@ public interface MRSServices {
    * Delete Movie.
    * 
    * @param movie Movie to delete.
-   * @return whether the delete operation was successful.
+   * @return whether the delete operation was successful, <code>false</code> also if the movie is
+   *         still rented.
    */
   boolean deleteMovie(Movie movie);
 
+  /**
+   * Add many new Movies at once. The Movies are stored all together or, if the operation fails, none
+   * of them.
+   * 
+   * @param movies the Movies to add. They receive their new identification.
+   * @return the identifications of the new Movies in the iteration order of movies, or null if the
+   *         operation failed.
+   */
+  List<Integer> createMovies(Collection<Movie> movies);
+
+  /**
+   * Update many Movies at once.
+   * 
+   * @param movies contain the new data.
+   * @return whether the update operation was successful.
+   */
+  boolean updateMovies(Collection<Movie> movies);
+
+  /**
+   * Delete many Movies at once.
+   * 
+   * @param movies Movies to delete.
+   * @return whether the delete operation was successful, <code>false</code> also if one of the movies
+   *         is still rented.
+   */
+  boolean deleteMovies(Collection<Movie> movies);
+
   /**
    * Retrieve all Users.
    * @return all Users.
    */
   List<User> getAllUsers();
 
+  /**
+   * Retrieve a page of Users in the order of their identification. Pass the identification of the
+   * last User of a page to get the next page, starting with 0.
+   * 
+   * @param afterId only Users with a greater identification are returned.
+   * @param limit maximum number of Users returned.
+   * @return the next Users, an empty list after the last page.
+   */
+  List<User> getUsersPage(int afterId, int limit);
+
+  /**
+   * Stream all Users in the order of their identification without loading them all at once. The
+   * stream holds database resources: close it when done, e.g. with try-with-resources.
+   * 
+   * @return all Users.
+   */
+  Stream<User> streamUsers();
+
+  /**
+   * Retrieve all Users as immutable records, without their Rentals.
+   * 
+   * @return all Users.
+   */
+  List<UserRecord> getUserRecords();
+
   /**
    * @param id the identification of the User to retrieve.
    * @return get User by its ID.
@@ -91,33 +172,145 @@ public interface MRSServices {
    * Delete User.
    * 
    * @param u User to delete.
-   * @return whether the delete operation was successful.
+   * @return whether the delete operation was successful, <code>false</code> also if the user still
+   *         rents movies.
    */
   boolean deleteUser(User u);
+
+  /**
+   * Add many new Users at once. The Users are stored all together or, if the operation fails, none
+   * of them.
+   * 
+   * @param users the Users to add. They receive their new identification.
+   * @return the identifications of the new Users in the iteration order of users, or null if the
+   *         operation failed.
+   */
+  List<Integer> createUsers(Collection<User> users);
+
+  /**
+   * Update many Users at once.
+   * 
+   * @param users contain the new data.
+   * @return whether the update operation was successful.
+   */
+  boolean updateUsers(Collection<User> users);
+
+  /**
+   * Delete many Users at once.
+   * 
+   * @param users Users to delete.
+   * @return whether the delete operation was successful, <code>false</code> also if one of the users
+   *         still rents movies.
+   */
+  boolean deleteUsers(Collection<User> users);
   
   /**
    * Retrieve all Rentals.
    * @return all Rentals.
    */
   List<Rental> getAllRentals();
+
+  /**
+   * @param id the identification of the Rental to retrieve.
+   * @return the Rental with its User and Movie, or null if there is none. The Rental is among the
+   *         rentals of its User, so it can be returned with {@link #returnRental(Rental)}.
+   */
+  Rental getRentalById(int id);
+
+  /**
+   * Retrieve a page of Rentals in the order of their identification. Pass the identification of the
+   * last Rental of a page to get the next page, starting with 0.
+   * 
+   * @param afterId only Rentals with a greater identification are returned.
+   * @param limit maximum number of Rentals returned.
+   * @return the next Rentals, an empty list after the last page.
+   */
+  List<Rental> getRentalsPage(int afterId, int limit);
+
+  /**
+   * Stream all Rentals in the order of their identification without loading them all at once. The
+   * stream holds database resources: close it when done, e.g. with try-with-resources.
+   * 
+   * @return all Rentals.
+   */
+  Stream<Rental> streamRentals();
+
+  /**
+   * Retrieve all Rentals as immutable records, which refer to their User and Movie by identification.
+   * 
+   * @return all Rentals.
+   */
+  List<RentalRecord> getRentalRecords();
   
   /**
-   * Create a new Rental.
+   * Create a new Rental. Storing the Rental and marking the Movie as rented happen atomically.
    * @param u the User that is renting a Movie.
    * @param m the Movie that is rented.
-   * @return a new Rental object.
+   * @return whether the Rental was created.
+   * @throws RentalConflictException if the Movie has been rented in the meantime, e.g. at another
+   *           counter.
    */
   boolean createRental(User u, Movie m);
   
   /**
-   * Return a rented Movie.
+   * Return a rented Movie. Deleting the Rental and marking the Movie as available happen atomically.
    * @param r the rental to terminate.
    * @return whether the return was successful.
+   * @throws RentalConflictException if the Rental has already been returned, e.g. at another counter.
    */
   boolean returnRental(Rental r);
+
+  /**
+   * Store many new Rentals at once and mark their Movies as rented. The Rentals are stored all
+   * together or, if the operation fails, none of them; the failed Rentals are then removed from their
+   * Users again and their Movies are no longer marked as rented.
+   * 
+   * @param rentals Rentals created with {@link Rental#Rental(User, Movie)}. They receive their new
+   *          identification.
+   * @return the identifications of the new Rentals in the iteration order of rentals, or null if
+   *         the operation failed.
+   * @throws RentalConflictException if one of the Movies has been rented in the meantime. Its
+   *           {@link RentalConflictException#getIndex() index} tells which one; that Movie stays
+   *           marked as rented.
+   */
+  List<Integer> createRentals(Collection<Rental> rentals);
+
+  /**
+   * Return many rented Movies at once.
+   * 
+   * @param rentals the rentals to terminate.
+   * @return whether the return was successful.
+   * @throws RentalConflictException if one of the Rentals has already been returned.
+   */
+  boolean returnRentals(Collection<Rental> rentals);
   
+  /**
+   * Register a listener that is notified after data was changed through this service. Services
+   * that do not track changes ignore it.
+   * 
+   * @param l the listener.
+   */
+  default void addDataChangeListener(DataChangeListener l) {
+  }
+
+  /**
+   * @param l the listener to remove.
+   */
+  default void removeDataChangeListener(DataChangeListener l) {
+  }
+
   /**
    * Initialize the backend component.
+   * 
+   * @throws RuntimeException if the backend cannot be started, e.g. because its database cannot be
+   *           opened.
    */
   void init();
+
+  /**
+   * Release the resources held by the backend component, such as database connections. Services
+   * without such resources ignore it.
+   */
+  default void shutdown() {
+  }
 }
@@ -25,56 +25,71 @@ public class Movie {
 
   private final StringProperty title = new SimpleStringProperty("Untitled") {
     @Override public void set(String aTitle) {
-      log.trace("entering title property setter.");
+      trace("entering title property setter.");
       if (aTitle == null || aTitle.trim().isEmpty()) {
-        log.trace("Illegal argument. Throwing exception");
+        trace("Illegal argument. Throwing exception");
         throw new IllegalArgumentException("Title must not be null nor emtpy");
       }
       super.set(aTitle);
-      log.trace("exiting title property setter.");
+      trace("exiting title property setter.");
     }
   };
   
   private final ObjectProperty<LocalDate> releaseDate = new SimpleObjectProperty<LocalDate>() {
     @Override public void set(LocalDate aReleaseDate) {
-      log.trace("entering releaseDate property setter");
+      trace("entering releaseDate property setter");
       if (aReleaseDate == null) {
-        log.trace("exiting abruptly releaseDate property setter");
+        trace("exiting abruptly releaseDate property setter");
         throw new IllegalArgumentException("Release date must not be null");
       }
       super.set(aReleaseDate);
-      log.trace("exiting releaseDate property setter"); 
+      trace("exiting releaseDate property setter"); 
     }
   };
   
   private final IntegerProperty ageRating = new SimpleIntegerProperty(0) {
     @Override public void set(int anAgeRating) {
-      log.trace("entering ageRating property setter");
+      trace("entering ageRating property setter");
       if (anAgeRating < 0 || anAgeRating > 18) {
-        log.trace("exiting abruptly ageRating property setter");
+        trace("exiting abruptly ageRating property setter");
         throw new IllegalArgumentException("age rating must be in range [0, 18]");
       }
       super.set(anAgeRating);      
-      log.trace("exiting ageRating property setter"); 
+      trace("exiting ageRating property setter"); 
     }
   };
 
   /** the rental cost of the movie. */
   private ObjectProperty<PriceCategory> priceCategory = new SimpleObjectProperty<PriceCategory>() {
     @Override public void set(PriceCategory aCategory) {
-      log.trace("entering priceCategory property setter");
+      trace("entering priceCategory property setter");
       if (aCategory == null) {
-        log.trace("exiting abruptly ageRating property setter");
+        trace("exiting abruptly ageRating property setter");
         throw new IllegalArgumentException("price category must not be null");
       }
       super.set(aCategory);
-      log.trace("exiting ageRating property setter");
+      trace("exiting ageRating property setter");
     }
   };
 
   /** Logger used to produce logs. */
   private static Logger log = LogManager.getLogger();
 
+  /**
+   * Whether movies log their trace messages, set with the system property <code>mrs.trace.movie</code>. Being
+   * constant, the JIT drops the disabled trace calls completely, even from getters and from hashCode and equals.
+   */
+  private static final boolean TRACE = Boolean.getBoolean("mrs.trace.movie");
+
+  /**
+   * @param message trace message, logged only if {@link #TRACE} is set.
+   */
+  private static void trace(String message) {
+    if (TRACE) {
+      log.trace(message);
+    }
+  }
+
   /** Ctor only for testing needed. */
   protected Movie() {
     this("Untitled", LocalDate.now(), RegularPriceCategory.getInstance(), 0);
@@ -88,19 +103,19 @@ public class Movie {
    * @param anAgeRating none.
    */
   public Movie(String aTitle, LocalDate aReleaseDate, PriceCategory aPriceCategory, int anAgeRating) {
-    log.trace("entering Movie(String, Date, PriceCategory, int)");
+    trace("entering Movie(String, Date, PriceCategory, int)");
     title.set(aTitle);
     releaseDate.set(aReleaseDate);
     priceCategory.set(aPriceCategory);
     ageRating.set(anAgeRating);
-    log.trace("exiting Movie(String, Date, PriceCategory, int)");
+    trace("exiting Movie(String, Date, PriceCategory, int)");
   }
 
   /**
    * @return unique identification number of this Movie.
    */
   public Integer getId() {
-    log.trace("in getId");
+    trace("in getId");
     return id.get();
   }
 
@@ -108,9 +123,9 @@ public class Movie {
    * @param anId set an unique identification number for this Movie.
    */
   public void setId(Integer anId) {
-    log.trace("entering setId");
+    trace("entering setId");
     this.id.set(anId);
-    log.trace("exiting setId");
+    trace("exiting setId");
   }
 
   /**  @return Java FX property for unique identification number. */
@@ -122,7 +137,7 @@ public class Movie {
    * @return The title of this Movie.
    */
   public String getTitle() {
-    log.trace("in getTitle");
+    trace("in getTitle");
     return title.get();
   }
 
@@ -130,14 +145,14 @@ public class Movie {
    * @param aTitle set the title of this Movie.
    */
   public void setTitle(String aTitle) {
-    log.trace("entering setTitle");
+    trace("entering setTitle");
     title.set(aTitle);
-    log.trace("exiting setTitle");
+    trace("exiting setTitle");
   }
 
   /** @return Java FX property for title. */
   public StringProperty titleProperty() {
-    log.trace("in titleProperty");
+    trace("in titleProperty");
     return title;
   }
 
@@ -145,7 +160,7 @@ public class Movie {
    * @return whether this Movie is rented to a User.
    */
   public boolean isRented() {
-    log.trace("in isRented");
+    trace("in isRented");
     return rented.get();
   }
 
@@ -153,9 +168,9 @@ public class Movie {
    * @param isRented set the rented status.
    */
   public void setRented(boolean isRented) {
-    log.trace("entering setRented");
+    trace("entering setRented");
     rented.set(isRented);
-    log.trace("exiting setRented");
+    trace("exiting setRented");
   }
 
   /** @return Java FX property for rented status. */
@@ -167,7 +182,7 @@ public class Movie {
    * @return the date this Movie was released.
    */
   public LocalDate getReleaseDate() {
-    log.trace("in getReleaseDate");
+    trace("in getReleaseDate");
     return releaseDate.get();
   }
 
@@ -175,14 +190,14 @@ public class Movie {
    * @param aReleaseDate set the date this Movie was released.
    */
   public void setReleaseDate(LocalDate aReleaseDate) {
-    log.trace("entering setReleaseDate");
+    trace("entering setReleaseDate");
     releaseDate.set(aReleaseDate);
-    log.trace("exiting setReleaseDate");
+    trace("exiting setReleaseDate");
   }
 
   /** @return Java FX property for release date. */
   public ObjectProperty<LocalDate> releaseDateProperty() {
-    log.trace("in releaseDateProperty");
+    trace("in releaseDateProperty");
     return releaseDate;
   }
 
@@ -190,16 +205,16 @@ public class Movie {
    * @return the minimum age to rent this movie.
    */
   public int getAgeRating() {
-    log.trace("in getAgeRating");
+    trace("in getAgeRating");
     return ageRating.get();
   }
   
   /** Set the minimum age to rent this movie.
    *  @param anAgeRating must be in range [0, 18]. */
   public void setAgeRating(int anAgeRating) {
-    log.trace("entering setAgeRating");
+    trace("entering setAgeRating");
     ageRating.set(anAgeRating);
-    log.trace("exiting setAgeRating");
+    trace("exiting setAgeRating");
   }
   
   /** @return Java FX property for age rating. */
@@ -212,7 +227,7 @@ public class Movie {
    * @return PriceCategory of this Movie.
    */
   public PriceCategory getPriceCategory() {
-    log.trace("in getPriceCategory");
+    trace("in getPriceCategory");
     return priceCategory.get();
   }
 
@@ -220,9 +235,9 @@ public class Movie {
    * @param aPriceCategory set PriceCategory for this Movie.
    */
   public void setPriceCategory(PriceCategory aPriceCategory) {
-    log.trace("entering setPriceCategory");
+    trace("entering setPriceCategory");
     this.priceCategory.set(aPriceCategory);
-    log.trace("exiting setPriceCategory");
+    trace("exiting setPriceCategory");
   }
 
   /** @return Java FX property for PriceCategory. */
@@ -236,12 +251,15 @@ public class Movie {
    */
   @Override
   public int hashCode() {
-    log.trace("entering hashCode");
+    trace("entering hashCode");
     final int prime = 31;
-    int result = prime + getId();
-    result = prime * result + ((getReleaseDate() == null) ? 0 : getReleaseDate().hashCode());
-    result = prime * result + ((getTitle() == null) ? 0 : getTitle().hashCode());
-    log.trace("exiting hashCode");
+    // read the properties directly, hash based collections call this very often
+    LocalDate date = releaseDate.get();
+    String name = title.get();
+    int result = prime + id.get();
+    result = prime * result + ((date == null) ? 0 : date.hashCode());
+    result = prime * result + ((name == null) ? 0 : name.hashCode());
+    trace("exiting hashCode");
     return result;
   }
 
@@ -252,20 +270,20 @@ public class Movie {
    */
   @Override
   public boolean equals(Object obj) {
-    log.trace("entering equals");
+    trace("entering equals");
     // first: cheap test on identity
     if (this == obj) {
-      log.trace("exiting equals (objects are the same)");
+      trace("exiting equals (objects are the same)");
       return true;
     }
     // second: check if its worth looking into the object
     if (!isOfSameType(obj)) {
-      log.trace("exiting equals (objects are of different type)");
+      trace("exiting equals (objects are of different type)");
       return false;
     }
     // third: check equality on each attribute of the object
     Movie m = (Movie) obj;
-    log.trace("exiting equals");
+    trace("exiting equals");
     return hasSameID(m) && hasEqualReleaseDates(m) && hasEqualTitles(m);
   }
   
@@ -276,7 +294,7 @@ public class Movie {
    * @return true if obj is null or of type Movie.
    */
   private boolean isOfSameType(Object obj) {
-    log.trace("in isOfSameType");
+    trace("in isOfSameType");
     return (obj != null) && (obj instanceof Movie);
   }
 
@@ -287,8 +305,8 @@ public class Movie {
    * @return true if obj is null or of type Movie.
    */
   private boolean hasSameID(final Movie other) {
-    log.trace("in hasSameID");
-    return this.getId() == other.getId();
+    trace("in hasSameID");
+    return id.get() == other.id.get();
   }
 
   /**
@@ -296,8 +314,9 @@ public class Movie {
    * @return checks whether other Movie has the same releaseDate as this.
    */
   private boolean hasEqualReleaseDates(final Movie other) {
-    log.trace("in hasEqualReleaseDates");
-    return getReleaseDate() == null ? other.getReleaseDate() == null : getReleaseDate().equals(other.getReleaseDate());
+    trace("in hasEqualReleaseDates");
+    LocalDate date = releaseDate.get();
+    return date == null ? other.releaseDate.get() == null : date.equals(other.releaseDate.get());
   }
 
   /**
@@ -305,7 +324,8 @@ public class Movie {
    * @return whether the Movies titles are equal.
    */
   private boolean hasEqualTitles(final Movie other) {
-    log.trace("in hasEqualTitles");
-    return getTitle() == null ? other.getTitle() == null : getTitle().equals(other.getTitle());
+    trace("in hasEqualTitles");
+    String name = title.get();
+    return name == null ? other.title.get() == null : name.equals(other.title.get());
   }
 }
@@ -0,0 +1,118 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Immutable value of a movie for the data and service layers. Unlike {@link Movie}, it keeps its state in plain
+ * final fields, so it is small and does not need JavaFX. The view wraps it into a {@link Movie} when showing it.
+ */
+public final class MovieRecord {
+  private final int id;
+  private final String title;
+  private final LocalDate releaseDate;
+  private final PriceCategory priceCategory;
+  private final int ageRating;
+  private final boolean rented;
+
+  /**
+   * @param id unique identification number, 0 if the movie has not been stored yet.
+   * @param title must neither be null nor empty.
+   * @param releaseDate must not be null.
+   * @param priceCategory must not be null.
+   * @param ageRating must be in range [0, 18].
+   * @param rented whether the movie is rented to a user.
+   * @throws IllegalArgumentException if one of the values is invalid.
+   */
+  public MovieRecord(int id, String title, LocalDate releaseDate, PriceCategory priceCategory, int ageRating,
+      boolean rented) {
+    if (title == null || title.trim().isEmpty()) {
+      throw new IllegalArgumentException("Title must not be null nor emtpy");
+    }
+    if (releaseDate == null) {
+      throw new IllegalArgumentException("Release date must not be null");
+    }
+    if (priceCategory == null) {
+      throw new IllegalArgumentException("price category must not be null");
+    }
+    if (ageRating < 0 || ageRating > 18) {
+      throw new IllegalArgumentException("age rating must be in range [0, 18]");
+    }
+    this.id = id;
+    this.title = title;
+    this.releaseDate = releaseDate;
+    this.priceCategory = priceCategory;
+    this.ageRating = ageRating;
+    this.rented = rented;
+  }
+
+  /** @return unique identification number of this movie. */
+  public int getId() {
+    return id;
+  }
+
+  /** @return the title of this movie. */
+  public String getTitle() {
+    return title;
+  }
+
+  /** @return the date this movie was released. */
+  public LocalDate getReleaseDate() {
+    return releaseDate;
+  }
+
+  /** @return PriceCategory of this movie. */
+  public PriceCategory getPriceCategory() {
+    return priceCategory;
+  }
+
+  /** @return the minimum age to rent this movie. */
+  public int getAgeRating() {
+    return ageRating;
+  }
+
+  /** @return whether this movie is rented to a user. */
+  public boolean isRented() {
+    return rented;
+  }
+
+  /**
+   * @param anId the new identification number.
+   * @return a copy of this movie with the given id.
+   */
+  public MovieRecord withId(int anId) {
+    return new MovieRecord(anId, title, releaseDate, priceCategory, ageRating, rented);
+  }
+
+  /**
+   * @param isRented the new rented status.
+   * @return a copy of this movie with the given rented status.
+   */
+  public MovieRecord withRented(boolean isRented) {
+    return new MovieRecord(id, title, releaseDate, priceCategory, ageRating, isRented);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof MovieRecord)) {
+      return false;
+    }
+    MovieRecord other = (MovieRecord) o;
+    return id == other.id && ageRating == other.ageRating && rented == other.rented && title.equals(other.title)
+        && releaseDate.equals(other.releaseDate) && priceCategory.equals(other.priceCategory);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, title, releaseDate);
+  }
+
+  @Override
+  public String toString() {
+    return "MovieRecord[" + id + ", " + title + ", " + releaseDate + ", " + priceCategory + ", " + ageRating + ", "
+        + rented + "]";
+  }
+}
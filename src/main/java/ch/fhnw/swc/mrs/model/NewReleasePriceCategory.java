@@ -47,6 +47,11 @@ public final class NewReleasePriceCategory extends PriceCategory {
     return "New Release";
   }
 
+  @Override
+  public int getCode() {
+    return 3;
+  }
+
   /** singleton instance. */
   private static NewReleasePriceCategory singleton = new NewReleasePriceCategory();
 
@@ -1,7 +1,8 @@
 package ch.fhnw.swc.mrs.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Abstract price category class for movie rentals.
@@ -9,7 +10,10 @@ import java.util.List;
  */
 public abstract class PriceCategory {
 
-  private static List<PriceCategory> registeredCategories = new ArrayList<>(3);
+  /** Registered categories indexed by their code, replaced as a whole when a category is registered. */
+  private static volatile PriceCategory[] registeredCategories = new PriceCategory[0];
+  /** Registered categories by their name. */
+  private static final Map<String, PriceCategory> CATEGORIES_BY_NAME = new ConcurrentHashMap<>();
   
   /**
    * @param daysRented none.
@@ -25,28 +29,53 @@ public abstract class PriceCategory {
     return daysRented > 0 ? 1 : 0;
   }
 
+  /**
+   * The compact code that identifies this category in the database. Codes are small positive numbers, unique
+   * among the registered categories. Categories without a code cannot be registered or stored.
+   * 
+   * @return the code of this category, 0 if it has none.
+   */
+  public int getCode() {
+    return 0;
+  }
+
   /**
    * Get the concrete PriceCategory object.
    * @param name the name of the price category to retrieve.
    * @return the price category with the given id or null if not found.
    */
   public static PriceCategory getPriceCategoryFromId(String name) {
-    for (PriceCategory cat: registeredCategories) {
-      if (cat.toString().equals(name)) {
-        return cat;
-      }
-    }
-    return null;
+    return name == null ? null : CATEGORIES_BY_NAME.get(name);
+  }
+
+  /**
+   * Get the concrete PriceCategory object by its code, without any hashing or string comparison.
+   * @param code the code of the price category to retrieve, see {@link #getCode()}.
+   * @return the price category with the given code or null if not found.
+   */
+  public static PriceCategory getPriceCategoryFromCode(int code) {
+    PriceCategory[] categories = registeredCategories;
+    return code > 0 && code < categories.length ? categories[code] : null;
   }
   
   /**
-   * Register a concrete price category for retrieval through getPriceCategoryFromId.
+   * Register a concrete price category for retrieval through getPriceCategoryFromId and getPriceCategoryFromCode.
    * @param pc a price category to register.
+   * @throws IllegalArgumentException if pc has no code or another category has been registered with its code.
    */
-  private static void registerPriceCategory(PriceCategory pc) {
-    if (!registeredCategories.contains(pc)) {
-      registeredCategories.add(pc);
-    }   
+  private static synchronized void registerPriceCategory(PriceCategory pc) {
+    int code = pc.getCode();
+    PriceCategory registered = getPriceCategoryFromCode(code);
+    if (registered == pc) {
+      return;
+    }
+    if (code <= 0 || registered != null) {
+      throw new IllegalArgumentException("illegal code " + code + " of price category " + pc);
+    }
+    PriceCategory[] categories = Arrays.copyOf(registeredCategories, Math.max(registeredCategories.length, code + 1));
+    categories[code] = pc;
+    CATEGORIES_BY_NAME.put(pc.toString(), pc);
+    registeredCategories = categories;
   }
   
   /** Initialize a list of available price categories. */
@@ -30,6 +30,11 @@ public final class RegularPriceCategory extends PriceCategory {
     return "Regular";
   }
 
+  @Override
+  public int getCode() {
+    return 1;
+  }
+
   /** singleton instance. */
   private static RegularPriceCategory singleton = new RegularPriceCategory();
 
@@ -2,7 +2,6 @@ package ch.fhnw.swc.mrs.model;
 
 import java.time.LocalDate;
 import java.time.Period;
-import java.time.temporal.ChronoUnit;
 
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
@@ -20,6 +19,10 @@ import javafx.beans.property.SimpleObjectProperty;
 public class Rental {
     /** Flag indicating whether the object has been initialized. */
     private boolean initialized = false;
+    /** Business day this rental counts its days against. */
+    private final BusinessClock clock = BusinessClock.getInstance();
+    /** Days and fee computed on the last business day they were read, null if not computed yet. */
+    private Charge charge;
     private final IntegerProperty id = new SimpleIntegerProperty(0) {
         @Override
         public void set(int anId) {
@@ -38,6 +41,7 @@ public class Rental {
                 throw new MovieRentalException("movie must not be null or is already rented.");
             }
             super.set(aMovie);
+            charge = null;
         }
     };
     private final ObjectProperty<User> user = new SimpleObjectProperty<User>() {
@@ -52,22 +56,23 @@ public class Rental {
     private final ObjectProperty<LocalDate> rentalDate = new SimpleObjectProperty<LocalDate>() {
         @Override
         public void set(LocalDate aRentalDate) {
-            if (aRentalDate == null || aRentalDate.isAfter(LocalDate.now())) {
+            if (aRentalDate == null || aRentalDate.isAfter(clock.today())) {
                 throw new IllegalArgumentException("Rental date must not be null or in the future.");
             }
             super.set(aRentalDate);
+            charge = null;
         }
     };
     private final ReadOnlyLongProperty rentalDays = new SimpleLongProperty(0) {
         @Override
         public long get() {
-            return ChronoUnit.DAYS.between(rentalDate.get(), LocalDate.now());
+            return charge().days;
         }
     };
     private final ReadOnlyDoubleProperty rentalFee = new SimpleDoubleProperty(0.0D) {
         @Override
         public double get() {
-            return getMovie().getPriceCategory().getCharge(getRentalDays());
+            return charge().fee;
         }
     };
 
@@ -148,13 +153,13 @@ public class Rental {
         if (maxNumberOfRentalsReached(aUser)) {
             throw new IllegalArgumentException("Max. " + MAX_NUMBER_OF_RENTALS + " Filme ausleihbar");
         }
-        if (!isUserOfAge(aMovie, aUser)) {
+        if (!isUserOfAge(aMovie, aUser, clock.today())) {
             throw new MovieRentalException("user " + aUser.getId() + " not old enough to rent movie " + aMovie.getId());
         }
 
         aUser.getRentals().add(this);
         aMovie.setRented(true);
-        rentalDate.set(LocalDate.now());
+        rentalDate.set(clock.today());
     }
     
     /**
@@ -228,6 +233,21 @@ public class Rental {
         return rentalFee.get();
     }
 
+    /**
+     * @return the days and fee of this rental on the current business day. They are only computed again when the
+     *         business day or the price category of the movie has changed.
+     */
+    private Charge charge() {
+        Charge c = charge;
+        long today = clock.epochDay();
+        PriceCategory category = getMovie().getPriceCategory();
+        if (c == null || c.epochDay != today || c.category != category) {
+            c = new Charge(today, category, today - getRentalDate().toEpochDay());
+            charge = c;
+        }
+        return c;
+    }
+
     /**
      * @return the rented movie.
      */
@@ -297,10 +317,10 @@ public class Rental {
     /**
      * @param m the movie the user u wants to rent.
      * @param u the user who wants to rent movie m.
+     * @param today the current business day.
      * @return whether the user is old enough to see the movie.
      */
-    private static boolean isUserOfAge(Movie m, User u) {
-        LocalDate today = LocalDate.now();
+    private static boolean isUserOfAge(Movie m, User u, LocalDate today) {
         LocalDate birthdate = u.getBirthdate();
         int ageRating = m.getAgeRating();
 
@@ -308,4 +328,18 @@ public class Rental {
         return age.getYears() >= ageRating;
     }
 
+    /** Immutable snapshot of the days and fee of a rental, so it can be shared with other threads safely. */
+    private static final class Charge {
+        private final long epochDay;
+        private final PriceCategory category;
+        private final long days;
+        private final double fee;
+
+        Charge(long epochDay, PriceCategory category, long days) {
+            this.epochDay = epochDay;
+            this.category = category;
+            this.days = days;
+            this.fee = category.getCharge(days);
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package ch.fhnw.swc.mrs.model;
+
+/**
+ * Thrown when a movie cannot be rented or returned because a concurrent operation got there first, e.g. when two
+ * counters rent the same movie at the same time. Reload the movie or rental to see its current state.
+ */
+public class RentalConflictException extends MovieRentalException {
+    /**
+     * Serial number.
+     */
+    private static final long serialVersionUID = 4930383390237614417L;
+
+    /** Position of the conflicting item in a bulk operation, -1 if unknown. */
+    private final int index;
+
+    /**
+     * Creates a new RentalConflictException with given message.
+     * 
+     * @param s Description of the conflict.
+     */
+    public RentalConflictException(String s) {
+        this(s, -1);
+    }
+
+    /**
+     * Creates a new RentalConflictException for one item of a bulk operation.
+     * 
+     * @param s Description of the conflict.
+     * @param index position of the conflicting item in the collection passed to the bulk operation.
+     */
+    public RentalConflictException(String s, int index) {
+        super(s);
+        this.index = index;
+    }
+
+    /**
+     * @return position of the conflicting item in the collection passed to a bulk operation, -1 if unknown.
+     */
+    public int getIndex() {
+        return index;
+    }
+}
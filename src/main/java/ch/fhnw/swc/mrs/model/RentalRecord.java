@@ -0,0 +1,83 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Immutable value of a rental for the data and service layers. It refers to its user and movie by their
+ * identification numbers only, so a list of rentals does not drag whole object graphs along.
+ */
+public final class RentalRecord {
+  private final int id;
+  private final int userId;
+  private final int movieId;
+  private final LocalDate rentalDate;
+
+  /**
+   * @param id unique identification number, 0 if the rental has not been stored yet.
+   * @param userId identification number of the user who is renting.
+   * @param movieId identification number of the movie that is rented.
+   * @param rentalDate date of start of this rental. Must not be in the future.
+   * @throws IllegalArgumentException if the rental date is null or in the future.
+   */
+  public RentalRecord(int id, int userId, int movieId, LocalDate rentalDate) {
+    if (rentalDate == null || rentalDate.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("Rental date must not be null or in the future.");
+    }
+    this.id = id;
+    this.userId = userId;
+    this.movieId = movieId;
+    this.rentalDate = rentalDate;
+  }
+
+  /** @return the unique rental identifier. */
+  public int getId() {
+    return id;
+  }
+
+  /** @return identification number of the user who is renting. */
+  public int getUserId() {
+    return userId;
+  }
+
+  /** @return identification number of the rented movie. */
+  public int getMovieId() {
+    return movieId;
+  }
+
+  /** @return the rental date. */
+  public LocalDate getRentalDate() {
+    return rentalDate;
+  }
+
+  /**
+   * @param anId the new identification number.
+   * @return a copy of this rental with the given id.
+   */
+  public RentalRecord withId(int anId) {
+    return new RentalRecord(anId, userId, movieId, rentalDate);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RentalRecord)) {
+      return false;
+    }
+    RentalRecord other = (RentalRecord) o;
+    return id == other.id && userId == other.userId && movieId == other.movieId
+        && rentalDate.equals(other.rentalDate);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, userId, movieId);
+  }
+
+  @Override
+  public String toString() {
+    return "RentalRecord[" + id + ", " + userId + ", " + movieId + ", " + rentalDate + "]";
+  }
+}
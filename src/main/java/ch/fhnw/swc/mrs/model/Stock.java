@@ -1,19 +1,78 @@
 package ch.fhnw.swc.mrs.model;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Manages the stock of videos of the rental shop.
+ * Manages the stock of videos of the rental shop. A stock may be shared by several counters: the copies of each
+ * title are counted with atomic operations, so no update is lost and no lock is held. Low stock listeners are
+ * notified on an executor, so a slow listener does not hold up a rental. While a notification for a listener and
+ * title is still waiting to be delivered, further ones are coalesced into it: the listener only receives the
+ * most recent count.
  */
 public class Stock {
 
-  /** The stock of videos. */
-  private HashMap<String, Integer> stock = new HashMap<String, Integer>();
+  /** Maximum number of notifications waiting for the shared notifier thread. */
+  private static final int NOTIFICATION_QUEUE_SIZE = 1024;
+
+  /** Key for copies of movies without a title, which a ConcurrentHashMap cannot hold as null. */
+  private static final Object NO_TITLE = new Object();
+
+  /** The stock of videos, by title. */
+  private final ConcurrentMap<Object, AtomicInteger> stock = new ConcurrentHashMap<>();
 
   /** low stock listeners. */
-  private List<LowStockListener> listeners = new LinkedList<LowStockListener>();
+  private final CopyOnWriteArrayList<LowStockListener> listeners = new CopyOnWriteArrayList<>();
+
+  /** Notifications not delivered yet, by listener and title. */
+  private final ConcurrentMap<Pending, Notification> pending = new ConcurrentHashMap<>();
+
+  /** Runs the deliveries of notifications. */
+  private final Executor notifier;
+
+  /** Create a stock that notifies its listeners on a shared background thread. */
+  public Stock() {
+    this(Notifier.EXECUTOR);
+  }
+
+  /**
+   * Create a stock that notifies its listeners with the given executor.
+   * 
+   * @param notifier runs the deliveries of notifications, e.g. <code>Runnable::run</code> to notify listeners
+   *          synchronously.
+   */
+  public Stock(Executor notifier) {
+    this.notifier = notifier;
+  }
+
+  /** Lazy holder of the shared notifier, so its thread only starts when a stock is created with it. */
+  private static final class Notifier {
+    /**
+     * One daemon thread with a bounded queue. When the queue is full, the notification is delivered by the
+     * thread that removed the movie from the stock.
+     */
+    static final Executor EXECUTOR = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(NOTIFICATION_QUEUE_SIZE), r -> {
+          Thread t = new Thread(r, "stock-notifier");
+          t.setDaemon(true);
+          return t;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  /**
+   * @param title a movie title, may be null.
+   * @return the key of the title in {@link #stock}.
+   */
+  private static Object key(String title) {
+    return title == null ? NO_TITLE : title;
+  }
 
   /**
    * Add a movie to the stock.
@@ -23,10 +82,7 @@ public class Stock {
    * @throws NullPointerException if the argument is <code>null</code>
    */
   public int addToStock(Movie movie) {
-    Integer i = stock.get(movie.getTitle());
-    int inStock = (i == null) ? 0 : i;
-    stock.put(movie.getTitle(), ++inStock);
-    return inStock;
+    return stock.computeIfAbsent(key(movie.getTitle()), k -> new AtomicInteger()).incrementAndGet();
   }
 
   /**
@@ -37,37 +93,56 @@ public class Stock {
    */
   public int removeFromStock(Movie movie) {
     String title = movie.getTitle();
-    Integer i = stock.get(title);
-    int inStock = (i == null) ? 0 : i;
-    if (inStock <= 0) {
-      throw new MovieRentalException("no video in stock");
-    }
-    stock.put(title, --inStock);
-    notifyListeners(movie, inStock);
-    return inStock;
+    AtomicInteger count = stock.get(key(title));
+    int inStock;
+    do {
+      inStock = (count == null) ? 0 : count.get();
+      if (inStock <= 0) {
+        throw new MovieRentalException("no video in stock");
+      }
+    } while (!count.compareAndSet(inStock, inStock - 1));
+    notifyListeners(movie, title, inStock - 1);
+    return inStock - 1;
   }
 
   /**
-   * Notify all LowStockListeners with a threshold of c or below that movie m is low in stock.
+   * Notify all LowStockListeners with a threshold of c or below that movie m is low in stock. Subclasses that
+   * keep their counts elsewhere call this after a copy was removed.
    * 
    * @param m movie to notify
+   * @param title title of the movie
    * @param c threshold for notification
    */
-  private void notifyListeners(Movie m, int c) {
+  protected void notifyListeners(Movie m, String title, int c) {
     for (LowStockListener l : listeners) {
       if (l.getThreshold() >= c) {
-        l.stockLow(m, c);
+        Pending key = new Pending(l, title);
+        if (pending.put(key, new Notification(m, c)) == null) {
+          notifier.execute(() -> deliver(key));
+        }
       }
     }
   }
 
+  /**
+   * Deliver the most recent notification waiting for a listener and title.
+   * 
+   * @param key the listener and title.
+   */
+  private void deliver(Pending key) {
+    Notification n = pending.remove(key);
+    if (n != null && listeners.contains(key.listener)) {
+      key.listener.stockLow(n.movie, n.count);
+    }
+  }
+
   /**
    * @param title the movie title to get the stock count.
    * @return the number copies of the movie still in stock.
    */
   public int getInStock(String title) {
-    Integer i = stock.get(title);
-    return (i == null) ? 0 : i;
+    AtomicInteger i = stock.get(key(title));
+    return (i == null) ? 0 : i.get();
   }
 
   /**
@@ -76,13 +151,13 @@ public class Stock {
    * @param l listener
    */
   public void addLowStockListener(LowStockListener l) {
-    if (l != null && !listeners.contains(l)) {
-      listeners.add(l);
+    if (l != null) {
+      listeners.addIfAbsent(l);
     }
   }
 
   /**
-   * Remove a stock listener.
+   * Remove a stock listener. Notifications for it that have not been delivered yet are dropped.
    * 
    * @param l listener
    */
@@ -90,4 +165,39 @@ public class Stock {
     listeners.remove(l);
   }
 
+  /** A listener together with the title it is notified about. */
+  private static final class Pending {
+    private final LowStockListener listener;
+    private final String title;
+
+    Pending(LowStockListener listener, String title) {
+      this.listener = listener;
+      this.title = title;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Pending)) {
+        return false;
+      }
+      Pending p = (Pending) o;
+      return listener == p.listener && Objects.equals(title, p.title);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(listener) + Objects.hashCode(title);
+    }
+  }
+
+  /** The arguments of a pending call to {@link LowStockListener#stockLow(Movie, int)}. */
+  private static final class Notification {
+    private final Movie movie;
+    private final int count;
+
+    Notification(Movie movie, int count) {
+      this.movie = movie;
+      this.count = count;
+    }
+  }
 }
@@ -208,7 +208,7 @@ public class User {
   public double getCharge() {
     double result = 0.0d;
     for (Rental rental : rentals) {
-      result += rental.getMovie().getPriceCategory().getCharge(rental.getRentalDays());
+      result += rental.getRentalFee();
     }
     return result;
   }
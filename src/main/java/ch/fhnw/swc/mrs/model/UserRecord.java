@@ -0,0 +1,101 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Immutable value of a user for the data and service layers. Unlike {@link User}, it keeps its state in plain
+ * final fields and carries no rentals, so it is small and does not need JavaFX. The view wraps it into a
+ * {@link User} when showing it.
+ */
+public final class UserRecord {
+  private final int id;
+  private final String name;
+  private final String firstName;
+  private final LocalDate birthdate;
+
+  /**
+   * @param id unique identification number, 0 if the user has not been stored yet.
+   * @param name the user's family name.
+   * @param firstName the user's first name.
+   * @param birthdate the user's birthdate. Must not be in the future.
+   * @throws IllegalArgumentException if a name or the birthdate is null, or the birthdate is in the future.
+   * @throws MovieRentalException if a name is empty ("") or longer than 40 characters.
+   */
+  public UserRecord(int id, String name, String firstName, LocalDate birthdate) {
+    checkName(name);
+    checkName(firstName);
+    if (birthdate == null || birthdate.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("illegal birthdate");
+    }
+    this.id = id;
+    this.name = name;
+    this.firstName = firstName;
+    this.birthdate = birthdate;
+  }
+
+  /**
+   * Checks if name is valid.
+   * 
+   * @param aName the name of the user.
+   */
+  private static void checkName(String aName) {
+    if (aName == null) {
+      throw new IllegalArgumentException("non-existing name");
+    }
+    if (aName.length() == 0 || aName.length() > 40) {
+      throw new MovieRentalException("invalid name value");
+    }
+  }
+
+  /** @return The user's unique identification number. */
+  public int getId() {
+    return id;
+  }
+
+  /** @return the user's family name. */
+  public String getName() {
+    return name;
+  }
+
+  /** @return the user's first name. */
+  public String getFirstName() {
+    return firstName;
+  }
+
+  /** @return user's birth date. */
+  public LocalDate getBirthdate() {
+    return birthdate;
+  }
+
+  /**
+   * @param anId the new identification number.
+   * @return a copy of this user with the given id.
+   */
+  public UserRecord withId(int anId) {
+    return new UserRecord(anId, name, firstName, birthdate);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof UserRecord)) {
+      return false;
+    }
+    UserRecord other = (UserRecord) o;
+    return id == other.id && name.equals(other.name) && firstName.equals(other.firstName)
+        && birthdate.equals(other.birthdate);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, name, firstName);
+  }
+
+  @Override
+  public String toString() {
+    return "UserRecord[" + id + ", " + name + ", " + firstName + ", " + birthdate + "]";
+  }
+}
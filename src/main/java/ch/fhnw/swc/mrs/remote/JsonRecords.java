@@ -0,0 +1,177 @@
+package ch.fhnw.swc.mrs.remote;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import ch.fhnw.swc.mrs.model.MovieRecord;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.RentalRecord;
+import ch.fhnw.swc.mrs.model.UserRecord;
+
+/**
+ * Converts between records and their JSON objects. Dates are written as ISO dates, price categories by their
+ * name.
+ */
+final class JsonRecords {
+
+    private JsonRecords() { }
+
+    /**
+     * @param m the record to convert.
+     * @return the JSON object of m.
+     */
+    static Map<String, Object> toJson(MovieRecord m) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", m.getId());
+        json.put("title", m.getTitle());
+        json.put("releaseDate", m.getReleaseDate().toString());
+        json.put("priceCategory", m.getPriceCategory().toString());
+        json.put("ageRating", m.getAgeRating());
+        json.put("rented", m.isRented());
+        return json;
+    }
+
+    /**
+     * @param u the record to convert.
+     * @return the JSON object of u.
+     */
+    static Map<String, Object> toJson(UserRecord u) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", u.getId());
+        json.put("name", u.getName());
+        json.put("firstName", u.getFirstName());
+        json.put("birthdate", u.getBirthdate().toString());
+        return json;
+    }
+
+    /**
+     * @param r the record to convert.
+     * @return the JSON object of r.
+     */
+    static Map<String, Object> toJson(RentalRecord r) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", r.getId());
+        json.put("userId", r.getUserId());
+        json.put("movieId", r.getMovieId());
+        json.put("rentalDate", r.getRentalDate().toString());
+        return json;
+    }
+
+    /**
+     * @param records the records to convert.
+     * @param toJson converts one record.
+     * @param <R> type of the records.
+     * @return the JSON array of the records.
+     */
+    static <R> List<Object> toJson(Collection<R> records, Function<R, Map<String, Object>> toJson) {
+        List<Object> json = new ArrayList<>(records.size());
+        for (R r : records) {
+            json.add(toJson.apply(r));
+        }
+        return json;
+    }
+
+    /**
+     * @param json a JSON object of a movie. A missing id or rented status is taken as 0 or false.
+     * @return the record of json.
+     * @throws IllegalArgumentException if json is not a valid movie.
+     */
+    static MovieRecord toMovieRecord(Object json) {
+        Map<String, Object> o = object(json);
+        PriceCategory pc = PriceCategory.getPriceCategoryFromId(string(o, "priceCategory"));
+        return new MovieRecord(optionalInt(o, "id"), string(o, "title"), date(o, "releaseDate"), pc,
+                integer(o, "ageRating"), Boolean.TRUE.equals(o.get("rented")));
+    }
+
+    /**
+     * @param json a JSON object of a user. A missing id is taken as 0.
+     * @return the record of json.
+     * @throws IllegalArgumentException if json is not a valid user.
+     */
+    static UserRecord toUserRecord(Object json) {
+        Map<String, Object> o = object(json);
+        return new UserRecord(optionalInt(o, "id"), string(o, "name"), string(o, "firstName"), date(o, "birthdate"));
+    }
+
+    /**
+     * @param json a JSON object of a rental.
+     * @return the record of json.
+     * @throws IllegalArgumentException if json is not a valid rental.
+     */
+    static RentalRecord toRentalRecord(Object json) {
+        Map<String, Object> o = object(json);
+        return new RentalRecord(integer(o, "id"), integer(o, "userId"), integer(o, "movieId"), date(o, "rentalDate"));
+    }
+
+    /**
+     * @param json a JSON array.
+     * @param convert converts one element.
+     * @param <R> type of the records.
+     * @return the converted elements.
+     * @throws IllegalArgumentException if json is not an array.
+     */
+    static <R> List<R> toList(Object json, Function<Object, R> convert) {
+        if (!(json instanceof List)) {
+            throw new IllegalArgumentException("JSON array expected");
+        }
+        List<?> array = (List<?>) json;
+        List<R> result = new ArrayList<>(array.size());
+        for (Object o : array) {
+            result.add(convert.apply(o));
+        }
+        return result;
+    }
+
+    /**
+     * @param json a value expected to be a JSON object.
+     * @return json as an object.
+     * @throws IllegalArgumentException if json is not an object.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> object(Object json) {
+        if (!(json instanceof Map)) {
+            throw new IllegalArgumentException("JSON object expected");
+        }
+        return (Map<String, Object>) json;
+    }
+
+    /**
+     * @param o a JSON object.
+     * @param name the name of an integer member.
+     * @return the value of the member.
+     * @throws IllegalArgumentException if the member is missing or not an integer.
+     */
+    static int integer(Map<String, Object> o, String name) {
+        Object value = o.get(name);
+        if (!(value instanceof Long)) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+        return ((Long) value).intValue();
+    }
+
+    private static int optionalInt(Map<String, Object> o, String name) {
+        return o.get(name) == null ? 0 : integer(o, name);
+    }
+
+    private static String string(Map<String, Object> o, String name) {
+        Object value = o.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static LocalDate date(Map<String, Object> o, String name) {
+        try {
+            return LocalDate.parse(string(o, name));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO date", e);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package ch.fhnw.swc.mrs.remote;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import ch.fhnw.swc.mrs.data.CachingMRSServices;
+import ch.fhnw.swc.mrs.data.DbMRSServices;
+import ch.fhnw.swc.mrs.data.Records;
+import ch.fhnw.swc.mrs.data.TaskExecutors;
+import ch.fhnw.swc.mrs.model.MRSServices;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRecord;
+import ch.fhnw.swc.mrs.model.MovieRentalException;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.RentalRecord;
+import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
+
+/**
+ * Offers an {@link MRSServices} backend to many clients over a small HTTP/JSON API, so the counters share one
+ * backend and one database. Start it without JavaFX with
+ * <code>java -cp MRSfx-jar-with-dependencies.jar ch.fhnw.swc.mrs.remote.MRSServer</code>.
+ * <p>
+ * Movies, users and rentals are exchanged as the JSON objects of their records:
+ * <ul>
+ * <li><code>GET /movies</code>, optionally with <code>rented=true|false</code> or <code>after=&amp;limit=</code>;
+ * <code>POST /movies</code>; <code>GET|PUT|DELETE /movies/{id}</code></li>
+ * <li><code>GET /users</code>, optionally with <code>name=</code> or <code>after=&amp;limit=</code>;
+ * <code>POST /users</code>; <code>GET|PUT|DELETE /users/{id}</code>. A single user and the users of a page come
+ * with their rentals.</li>
+ * <li><code>GET /rentals</code>, optionally with <code>after=&amp;limit=</code>, where each rental of the page comes
+ * with the records of its <code>user</code> and <code>movie</code>; <code>POST /rentals</code> with
+ * <code>userId</code> and <code>movieId</code> rents a movie; <code>GET /rentals/{id}</code> reads one rental and
+ * <code>DELETE /rentals/{id}</code> returns it.</li>
+ * <li><code>GET /snapshot</code> returns all <code>movies</code>, <code>users</code> and <code>rentals</code> in one
+ * response, so a client can build the complete object graph with one request.</li>
+ * </ul>
+ * Updates and deletes answer <code>{"ok": true|false}</code>. Errors answer <code>{"error": message}</code> with
+ * status 400 for invalid requests, 404 for unknown entities, 409 for rental conflicts and 500 for backend failures.
+ * <p>
+ * The HTTP server waits for requests with NIO. Requests are handled on virtual threads if the JVM offers them,
+ * otherwise on a pool of <code>mrs.server.threads</code> threads (default 32). The server listens on
+ * <code>mrs.server.host</code> (default localhost) and <code>mrs.server.port</code> (default 8089).
+ */
+public final class MRSServer {
+    /** Port the service listens on if the system property <code>mrs.server.port</code> is not set. */
+    public static final int DEFAULT_PORT = 8089;
+
+    private static final int THREADS = Integer.getInteger("mrs.server.threads", 32);
+    private static final int BACKLOG = 64;
+
+    /** Logger used to report that the service is listening. */
+    private static Logger log = LogManager.getLogger();
+
+    private final MRSServices backend;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Handles the requests to one kind of resource.
+     */
+    private interface Route {
+        /**
+         * @param request the request.
+         * @return the JSON value to answer.
+         */
+        Object handle(Request request);
+    }
+
+    /**
+     * @param backend an initialized backend that is shared by all clients. It must be thread-safe.
+     * @param address the address to listen on, port 0 picks a free port.
+     * @throws IOException if the address cannot be bound.
+     */
+    public MRSServer(MRSServices backend, InetSocketAddress address) throws IOException {
+        this.backend = backend;
+        server = HttpServer.create(address, BACKLOG);
+        server.createContext("/movies", exchange -> handle(exchange, "/movies", this::movies));
+        server.createContext("/users", exchange -> handle(exchange, "/users", this::users));
+        server.createContext("/rentals", exchange -> handle(exchange, "/rentals", this::rentals));
+        server.createContext("/snapshot", exchange -> handle(exchange, "/snapshot", this::snapshot));
+        executor = TaskExecutors.newBlockingTaskExecutor("mrs-server", THREADS);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Start answering requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop answering requests, waiting at most the given time for running requests to finish, and shut the
+     * backend down.
+     * @param delaySeconds the maximum time to wait.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdownNow();
+        backend.shutdown();
+    }
+
+    /** @return the address the server listens on. */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange, String context, Route route) throws IOException {
+        int status = 200;
+        Object result;
+        try {
+            result = route.handle(new Request(exchange, context));
+        } catch (HttpError e) {
+            status = e.status;
+            result = error(e.getMessage());
+        } catch (RentalConflictException e) {
+            status = 409;
+            result = error(e.getMessage());
+        } catch (IllegalArgumentException | MovieRentalException e) {
+            status = 400;
+            result = error(e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            status = 500;
+            result = error(String.valueOf(e));
+        }
+        byte[] body = Json.write(result).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Collections.singletonMap("error", message);
+    }
+
+    private static Map<String, Object> ok(boolean ok) {
+        return Collections.singletonMap("ok", ok);
+    }
+
+    private Object movies(Request r) {
+        if (r.id == null) {
+            if (r.is("GET")) {
+                List<Movie> movies;
+                if (r.query.containsKey("rented")) {
+                    movies = backend.getAllMovies(Boolean.parseBoolean(r.query.get("rented")));
+                } else if (r.query.containsKey("limit")) {
+                    movies = backend.getMoviesPage(r.intParam("after", 0), r.intParam("limit", 0));
+                } else {
+                    return JsonRecords.toJson(backend.getMovieRecords(), JsonRecords::toJson);
+                }
+                return JsonRecords.toJson(toRecords(movies, Records::toRecord), JsonRecords::toJson);
+            }
+            r.require("POST");
+            MovieRecord m = JsonRecords.toMovieRecord(r.body());
+            Movie created = backend.createMovie(new Movie(m.getTitle(), m.getReleaseDate(), m.getPriceCategory(),
+                    m.getAgeRating()));
+            if (created == null) {
+                throw new HttpError(500, "movie not created");
+            }
+            return JsonRecords.toJson(Records.toRecord(created));
+        }
+        Movie m = backend.getMovieById(r.id);
+        if (m == null) {
+            throw new HttpError(404, "no movie " + r.id);
+        }
+        if (r.is("PUT")) {
+            // the rented status only changes by renting and returning
+            MovieRecord changed = JsonRecords.toMovieRecord(r.body());
+            m.setTitle(changed.getTitle());
+            m.setReleaseDate(changed.getReleaseDate());
+            m.setPriceCategory(changed.getPriceCategory());
+            m.setAgeRating(changed.getAgeRating());
+            return ok(backend.updateMovie(m));
+        }
+        if (r.is("DELETE")) {
+            return ok(backend.deleteMovie(m));
+        }
+        r.require("GET");
+        return JsonRecords.toJson(Records.toRecord(m));
+    }
+
+    private Object users(Request r) {
+        if (r.id == null) {
+            if (r.is("GET")) {
+                if (r.query.containsKey("name")) {
+                    return withRentals(backend.getUserByName(r.query.get("name")), r.query.get("name"));
+                }
+                if (r.query.containsKey("limit")) {
+                    List<Object> page = new ArrayList<>();
+                    for (User u : backend.getUsersPage(r.intParam("after", 0), r.intParam("limit", 0))) {
+                        page.add(withRentals(u, u.getId()));
+                    }
+                    return page;
+                }
+                return JsonRecords.toJson(backend.getUserRecords(), JsonRecords::toJson);
+            }
+            r.require("POST");
+            UserRecord u = JsonRecords.toUserRecord(r.body());
+            User created = backend.createUser(new User(u.getName(), u.getFirstName(), u.getBirthdate()));
+            if (created == null) {
+                throw new HttpError(500, "user not created");
+            }
+            return JsonRecords.toJson(Records.toRecord(created));
+        }
+        User u = backend.getUserById(r.id);
+        if (u == null) {
+            throw new HttpError(404, "no user " + r.id);
+        }
+        if (r.is("PUT")) {
+            UserRecord changed = JsonRecords.toUserRecord(r.body());
+            u.setName(changed.getName());
+            u.setFirstName(changed.getFirstName());
+            u.setBirthdate(changed.getBirthdate());
+            return ok(backend.updateUser(u));
+        }
+        if (r.is("DELETE")) {
+            return ok(backend.deleteUser(u));
+        }
+        r.require("GET");
+        return withRentals(u, r.id);
+    }
+
+    private static Map<String, Object> withRentals(User u, Object key) {
+        if (u == null) {
+            throw new HttpError(404, "no user " + key);
+        }
+        Map<String, Object> json = JsonRecords.toJson(Records.toRecord(u));
+        json.put("rentals", JsonRecords.toJson(toRecords(u.getRentals(), Records::toRecord), JsonRecords::toJson));
+        return json;
+    }
+
+    private Object rentals(Request r) {
+        if (r.id == null) {
+            if (r.is("GET")) {
+                if (r.query.containsKey("limit")) {
+                    List<Object> page = new ArrayList<>();
+                    for (Rental rental : backend.getRentalsPage(r.intParam("after", 0), r.intParam("limit", 0))) {
+                        Map<String, Object> json = JsonRecords.toJson(Records.toRecord(rental));
+                        json.put("user", JsonRecords.toJson(Records.toRecord(rental.getUser())));
+                        json.put("movie", JsonRecords.toJson(Records.toRecord(rental.getMovie())));
+                        page.add(json);
+                    }
+                    return page;
+                }
+                return JsonRecords.toJson(backend.getRentalRecords(), JsonRecords::toJson);
+            }
+            r.require("POST");
+            Map<String, Object> body = JsonRecords.object(r.body());
+            int userId = JsonRecords.integer(body, "userId");
+            int movieId = JsonRecords.integer(body, "movieId");
+            User u = backend.getUserById(userId);
+            Movie m = backend.getMovieById(movieId);
+            if (u == null || m == null) {
+                throw new HttpError(404, u == null ? "no user " + userId : "no movie " + movieId);
+            }
+            if (!backend.createRental(u, m)) {
+                throw new HttpError(500, "rental not created");
+            }
+            for (Rental rental : u.getRentals()) {
+                if (rental.getMovie().getId() == movieId) {
+                    return JsonRecords.toJson(Records.toRecord(rental));
+                }
+            }
+            throw new HttpError(500, "rental not created");
+        }
+        Rental rental = backend.getRentalById(r.id);
+        if (rental == null) {
+            throw new HttpError(404, "no rental " + r.id);
+        }
+        if (r.is("GET")) {
+            return JsonRecords.toJson(Records.toRecord(rental));
+        }
+        r.require("DELETE");
+        return ok(backend.returnRental(rental));
+    }
+
+    private Object snapshot(Request r) {
+        if (r.id != null) {
+            throw new HttpError(404, "unknown resource /snapshot/" + r.id);
+        }
+        r.require("GET");
+        // rentals first, so the movies and users read afterwards contain those they refer to
+        List<RentalRecord> rentals = backend.getRentalRecords();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("movies", JsonRecords.toJson(backend.getMovieRecords(), JsonRecords::toJson));
+        json.put("users", JsonRecords.toJson(backend.getUserRecords(), JsonRecords::toJson));
+        json.put("rentals", JsonRecords.toJson(rentals, JsonRecords::toJson));
+        return json;
+    }
+
+    private static <E, R> List<R> toRecords(List<E> entities, Function<E, R> toRecord) {
+        List<R> result = new ArrayList<>(entities.size());
+        for (E e : entities) {
+            result.add(toRecord.apply(e));
+        }
+        return result;
+    }
+
+    /**
+     * A request to a resource or one of its entities.
+     */
+    private static final class Request {
+        private final String method;
+        private final Integer id;
+        private final Map<String, String> query = new HashMap<>();
+        private final HttpExchange exchange;
+
+        Request(HttpExchange exchange, String context) {
+            this.exchange = exchange;
+            method = exchange.getRequestMethod();
+            String rest = exchange.getRequestURI().getPath().substring(context.length());
+            if (rest.isEmpty() || rest.equals("/")) {
+                id = null;
+            } else {
+                try {
+                    id = Integer.valueOf(rest.substring(1));
+                } catch (NumberFormatException e) {
+                    throw new HttpError(404, "unknown resource " + exchange.getRequestURI().getPath());
+                }
+            }
+            String q = exchange.getRequestURI().getRawQuery();
+            if (q != null) {
+                for (String pair : q.split("&")) {
+                    int eq = pair.indexOf('=');
+                    String name = eq < 0 ? pair : pair.substring(0, eq);
+                    query.put(decode(name), eq < 0 ? "" : decode(pair.substring(eq + 1)));
+                }
+            }
+        }
+
+        private static String decode(String s) {
+            try {
+                return URLDecoder.decode(s, "UTF-8");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        boolean is(String aMethod) {
+            return method.equals(aMethod);
+        }
+
+        void require(String aMethod) {
+            if (!is(aMethod)) {
+                throw new HttpError(405, method + " not allowed");
+            }
+        }
+
+        int intParam(String name, int defaultValue) {
+            String value = query.get(name);
+            try {
+                return value == null ? defaultValue : Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be an integer");
+            }
+        }
+
+        Object body() {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            try (InputStream in = exchange.getRequestBody()) {
+                for (int n = in.read(chunk); n >= 0; n = in.read(chunk)) {
+                    buffer.write(chunk, 0, n);
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("request body not readable", e);
+            }
+            return Json.parse(new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Ends a request with the given status.
+     */
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Start the service with the backend of the application.
+     * 
+     * @param args currently ignored.
+     * @throws IOException if the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        PriceCategory.init();
+        MRSServices backend = new CachingMRSServices(new DbMRSServices());
+        backend.init();
+        String host = System.getProperty("mrs.server.host", "localhost");
+        int port = Integer.getInteger("mrs.server.port", DEFAULT_PORT);
+        MRSServer server = new MRSServer(backend, new InetSocketAddress(host, port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+        server.start();
+        log.info("MRS service listening on http://" + host + ":" + server.getAddress().getPort());
+    }
+}
@@ -0,0 +1,257 @@
+package ch.fhnw.swc.mrs.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A persistent HTTP/1.1 connection to the service that sends several requests at once and then reads their
+ * responses in the same order, so a group of requests costs one round trip instead of one per request.
+ * <p>
+ * A connection is used by one thread at a time.
+ */
+final class PipelinedConnection implements Closeable {
+
+    private final String host;
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private boolean open = true;
+    private long lastUsed = System.nanoTime();
+
+    /**
+     * A request to send.
+     */
+    static final class Call {
+        private final String method;
+        private final String path;
+        private final String body;
+
+        /**
+         * @param method the HTTP method.
+         * @param path the path and query of the resource.
+         * @param body the JSON body, null for none.
+         */
+        Call(String method, String path, String body) {
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        /**
+         * @param path the path and query of the resource.
+         * @return a GET request.
+         */
+        static Call get(String path) {
+            return new Call("GET", path, null);
+        }
+
+        /** @return whether the request can be sent again without changing data. */
+        boolean isIdempotent() {
+            return "GET".equals(method);
+        }
+    }
+
+    /**
+     * The answer to a request.
+     */
+    static final class Response {
+        private final int status;
+        private final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        /** @return the HTTP status. */
+        int getStatus() {
+            return status;
+        }
+
+        /** @return the parsed JSON body. */
+        Object json() {
+            return Json.parse(body);
+        }
+    }
+
+    /**
+     * @param address the address of the service.
+     * @param timeoutMillis the timeout for connecting and for reading a response.
+     * @throws IOException if the service cannot be reached.
+     */
+    PipelinedConnection(InetSocketAddress address, int timeoutMillis) throws IOException {
+        host = address.getHostString() + ":" + address.getPort();
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(address, timeoutMillis);
+        socket.setSoTimeout(timeoutMillis);
+        in = new BufferedInputStream(socket.getInputStream());
+        out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    /**
+     * Send the requests in one go and read their responses.
+     * 
+     * @param calls the requests to send.
+     * @return the responses in the order of calls.
+     * @throws IOException if the connection failed. The connection is closed then.
+     */
+    List<Response> exchange(List<Call> calls) throws IOException {
+        List<Response> responses = new ArrayList<>(calls.size());
+        exchange(calls, responses);
+        return responses;
+    }
+
+    /**
+     * Send the requests in one go and add their responses as they are read, so those read before a failure
+     * are kept.
+     * 
+     * @param calls the requests to send.
+     * @param responses receives the responses in the order of calls.
+     * @throws IOException if the connection failed. The connection is closed then.
+     */
+    void exchange(List<Call> calls, List<Response> responses) throws IOException {
+        try {
+            for (Call c : calls) {
+                write(c);
+            }
+            out.flush();
+            for (int i = 0; i < calls.size(); i++) {
+                responses.add(read());
+            }
+            lastUsed = System.nanoTime();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /** @return whether the connection can be used for further requests. */
+    boolean isOpen() {
+        return open;
+    }
+
+    /** @return the value of {@link System#nanoTime()} when the connection was last used. */
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+
+    private void write(Call c) throws IOException {
+        byte[] body = c.body == null ? new byte[0] : c.body.getBytes(StandardCharsets.UTF_8);
+        StringBuilder head = new StringBuilder();
+        head.append(c.method).append(' ').append(c.path).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(host).append("\r\n");
+        if (c.body != null) {
+            head.append("Content-Type: application/json; charset=utf-8\r\n");
+        }
+        head.append("Content-Length: ").append(body.length).append("\r\n\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+    }
+
+    private Response read() throws IOException {
+        String statusLine = readLine();
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+            throw new IOException("invalid status line: " + statusLine);
+        }
+        int status;
+        try {
+            status = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid status line: " + statusLine, e);
+        }
+        int length = -1;
+        boolean chunked = false;
+        for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            if (name.equals("content-length")) {
+                length = Integer.parseInt(value);
+            } else if (name.equals("transfer-encoding")) {
+                chunked = value.equalsIgnoreCase("chunked");
+            } else if (name.equals("connection") && value.equalsIgnoreCase("close")) {
+                open = false;
+            }
+        }
+        byte[] body;
+        if (chunked) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (int size = chunkSize(); size > 0; size = chunkSize()) {
+                buffer.write(readFully(size));
+                readLine();
+            }
+            for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+                // skip trailers
+            }
+            body = buffer.toByteArray();
+        } else if (length >= 0) {
+            body = readFully(length);
+        } else {
+            throw new IOException("response without length");
+        }
+        return new Response(status, new String(body, StandardCharsets.UTF_8));
+    }
+
+    private int chunkSize() throws IOException {
+        String line = readLine();
+        int semicolon = line.indexOf(';');
+        try {
+            return Integer.parseInt((semicolon < 0 ? line : line.substring(0, semicolon)).trim(), 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid chunk size: " + line, e);
+        }
+    }
+
+    private byte[] readFully(int length) throws IOException {
+        byte[] result = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = in.read(result, read, length - read);
+            if (n < 0) {
+                throw new EOFException("connection closed by the service");
+            }
+            read += n;
+        }
+        return result;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int c = in.read(); c != '\n'; c = in.read()) {
+            if (c < 0) {
+                throw new EOFException("connection closed by the service");
+            }
+            if (c != '\r') {
+                sb.append((char) c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,734 @@
+package ch.fhnw.swc.mrs.remote;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import ch.fhnw.swc.mrs.data.Records;
+import ch.fhnw.swc.mrs.model.MRSServices;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRecord;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.RentalRecord;
+import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
+import ch.fhnw.swc.mrs.remote.PipelinedConnection.Call;
+import ch.fhnw.swc.mrs.remote.PipelinedConnection.Response;
+
+/**
+ * Uses the backend of an {@link MRSServer}, so several counters share one backend and one database.
+ * <p>
+ * Connections to the service are kept open and reused. Requests that belong together, such as the Movies
+ * of a User's Rentals or the parts of a bulk operation, are pipelined: they are sent at once and the
+ * responses are read afterwards, so they cost one round trip. All Users and all Rentals with the Movies and
+ * Users they refer to are read with a single snapshot request, while pages and streams read one page of
+ * them at a time. Requests that change data are always sent over a new connection, as a reused one may
+ * have been closed by the service with no way to tell which of the requests it processed.
+ * <p>
+ * Unlike those of a database, the bulk operations are not atomic: the parts the service accepted stay
+ * stored when others fail. New Movies and Users that were stored receive their identification even then.
+ * <p>
+ * Like {@link ch.fhnw.swc.mrs.data.DbMRSServices}, read operations throw a RuntimeException if the service
+ * fails, while write operations print the failure and return false or null. The timeout for connecting and
+ * reading is set with <code>mrs.remote.timeout</code> in milliseconds (default 10000).
+ */
+public class RemoteMRSServices implements MRSServices {
+
+    private static final int TIMEOUT = Integer.getInteger("mrs.remote.timeout", 10000);
+    /** Maximum number of requests sent before their responses are read, so neither side blocks on writing. */
+    private static final int PIPELINE_DEPTH = 64;
+    /** Maximum number of open connections kept for reuse. */
+    private static final int MAX_IDLE = 4;
+    /** Connections unused for longer are closed rather than reused, before the service closes them. */
+    private static final long MAX_IDLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int PAGE_SIZE = 100;
+
+    private final InetSocketAddress address;
+    private final ConcurrentLinkedDeque<PipelinedConnection> idle = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Use the service at <code>mrs.server.host</code> (default localhost) and <code>mrs.server.port</code>.
+     */
+    public RemoteMRSServices() {
+        this(System.getProperty("mrs.server.host", "localhost"),
+                Integer.getInteger("mrs.server.port", MRSServer.DEFAULT_PORT));
+    }
+
+    /**
+     * @param host the host the service runs on.
+     * @param port the port the service listens on.
+     */
+    public RemoteMRSServices(String host, int port) {
+        address = new InetSocketAddress(host, port);
+    }
+
+    @Override
+    public void init() {
+        try {
+            release(connection());
+        } catch (IOException e) {
+            throw new RuntimeException("service at " + address + " not reachable", e);
+        }
+    }
+
+    @Override
+    public Movie createMovie(Movie m) {
+        try {
+            Response r = exchange(post("/movies", movieJson(m)));
+            return Records.toMovie(JsonRecords.toMovieRecord(ok(r)));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public List<Movie> getAllMovies() {
+        return Records.toMovies(getMovieRecords());
+    }
+
+    @Override
+    public List<Movie> getAllMovies(boolean rented) {
+        return movies(exchange(Call.get("/movies?rented=" + rented)));
+    }
+
+    @Override
+    public List<Movie> getMoviesPage(int afterId, int limit) {
+        return movies(exchange(Call.get("/movies?after=" + afterId + "&limit=" + limit)));
+    }
+
+    @Override
+    public Stream<Movie> streamMovies() {
+        return pages(afterId -> getMoviesPage(afterId, PAGE_SIZE), Movie::getId);
+    }
+
+    @Override
+    public List<MovieRecord> getMovieRecords() {
+        return JsonRecords.toList(ok(exchange(Call.get("/movies"))), JsonRecords::toMovieRecord);
+    }
+
+    @Override
+    public Movie getMovieById(int id) {
+        Response r = exchange(Call.get("/movies/" + id));
+        return r.getStatus() == 404 ? null : Records.toMovie(JsonRecords.toMovieRecord(ok(r)));
+    }
+
+    @Override
+    public boolean updateMovie(Movie movie) {
+        return updateMovies(Collections.singletonList(movie));
+    }
+
+    @Override
+    public boolean deleteMovie(Movie movie) {
+        return deleteMovies(Collections.singletonList(movie));
+    }
+
+    @Override
+    public List<Integer> createMovies(Collection<Movie> movies) {
+        List<Call> calls = new ArrayList<>(movies.size());
+        List<IntConsumer> setIds = new ArrayList<>(movies.size());
+        for (Movie m : movies) {
+            calls.add(post("/movies", movieJson(m)));
+            setIds.add(m::setId);
+        }
+        return createAll(calls, setIds);
+    }
+
+    @Override
+    public boolean updateMovies(Collection<Movie> movies) {
+        List<Call> calls = new ArrayList<>(movies.size());
+        for (Movie m : movies) {
+            calls.add(new Call("PUT", "/movies/" + m.getId(), movieJson(m)));
+        }
+        return allOk(calls);
+    }
+
+    @Override
+    public boolean deleteMovies(Collection<Movie> movies) {
+        List<Call> calls = new ArrayList<>(movies.size());
+        for (Movie m : movies) {
+            calls.add(new Call("DELETE", "/movies/" + m.getId(), null));
+        }
+        return allOk(calls);
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return new ArrayList<>(snapshot().users.values());
+    }
+
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        List<Object> json = JsonRecords.toList(ok(exchange(Call.get("/users?after=" + afterId + "&limit=" + limit))),
+                Function.identity());
+        List<User> page = new ArrayList<>(json.size());
+        List<List<RentalRecord>> rentals = new ArrayList<>(json.size());
+        Set<Integer> movieIds = new LinkedHashSet<>();
+        for (Object o : json) {
+            page.add(Records.toUser(JsonRecords.toUserRecord(o)));
+            List<RentalRecord> rs = JsonRecords.toList(JsonRecords.object(o).get("rentals"),
+                    JsonRecords::toRentalRecord);
+            for (RentalRecord r : rs) {
+                movieIds.add(r.getMovieId());
+            }
+            rentals.add(rs);
+        }
+        Map<Integer, Movie> movies = moviesById(movieIds);
+        for (int i = 0; i < page.size(); i++) {
+            for (RentalRecord r : rentals.get(i)) {
+                materialize(r, page.get(i), movies);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public Stream<User> streamUsers() {
+        return pages(afterId -> getUsersPage(afterId, PAGE_SIZE), User::getId);
+    }
+
+    @Override
+    public List<UserRecord> getUserRecords() {
+        return JsonRecords.toList(ok(exchange(Call.get("/users"))), JsonRecords::toUserRecord);
+    }
+
+    @Override
+    public User getUserById(int id) {
+        return withRentals(exchange(Call.get("/users/" + id)));
+    }
+
+    @Override
+    public User getUserByName(String name) {
+        return withRentals(exchange(Call.get("/users?name=" + encode(name))));
+    }
+
+    @Override
+    public User createUser(User u) {
+        try {
+            Response r = exchange(post("/users", userJson(u)));
+            return Records.toUser(JsonRecords.toUserRecord(ok(r)));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public boolean updateUser(User u) {
+        return updateUsers(Collections.singletonList(u));
+    }
+
+    @Override
+    public boolean deleteUser(User u) {
+        return deleteUsers(Collections.singletonList(u));
+    }
+
+    @Override
+    public List<Integer> createUsers(Collection<User> users) {
+        List<Call> calls = new ArrayList<>(users.size());
+        List<IntConsumer> setIds = new ArrayList<>(users.size());
+        for (User u : users) {
+            calls.add(post("/users", userJson(u)));
+            setIds.add(u::setId);
+        }
+        return createAll(calls, setIds);
+    }
+
+    @Override
+    public boolean updateUsers(Collection<User> users) {
+        List<Call> calls = new ArrayList<>(users.size());
+        for (User u : users) {
+            calls.add(new Call("PUT", "/users/" + u.getId(), userJson(u)));
+        }
+        return allOk(calls);
+    }
+
+    @Override
+    public boolean deleteUsers(Collection<User> users) {
+        List<Call> calls = new ArrayList<>(users.size());
+        for (User u : users) {
+            calls.add(new Call("DELETE", "/users/" + u.getId(), null));
+        }
+        return allOk(calls);
+    }
+
+    @Override
+    public List<Rental> getAllRentals() {
+        return snapshot().rentals;
+    }
+
+    @Override
+    public Rental getRentalById(int id) {
+        Response r = exchange(Call.get("/rentals/" + id));
+        if (r.getStatus() == 404) {
+            return null;
+        }
+        User u = getUserById(JsonRecords.toRentalRecord(ok(r)).getUserId());
+        for (Rental rental : u == null ? Collections.<Rental>emptyList() : u.getRentals()) {
+            if (rental.getId() == id) {
+                return rental;
+            }
+        }
+        return null; // returned in the meantime
+    }
+
+    @Override
+    public List<Rental> getRentalsPage(int afterId, int limit) {
+        List<Object> json = JsonRecords.toList(
+                ok(exchange(Call.get("/rentals?after=" + afterId + "&limit=" + limit))), Function.identity());
+        // the Rentals come with their Users and Movies; the Users only get the Rentals of the page
+        Map<Integer, User> users = new LinkedHashMap<>();
+        Map<Integer, Movie> movies = new LinkedHashMap<>();
+        List<Rental> page = new ArrayList<>(json.size());
+        for (Object o : json) {
+            Map<String, Object> rental = JsonRecords.object(o);
+            RentalRecord r = JsonRecords.toRentalRecord(rental);
+            User u = users.computeIfAbsent(r.getUserId(),
+                    id -> Records.toUser(JsonRecords.toUserRecord(rental.get("user"))));
+            Movie m = movies.computeIfAbsent(r.getMovieId(),
+                    id -> Records.toMovie(JsonRecords.toMovieRecord(rental.get("movie"))));
+            page.add(Rental.materializeRentalFromDB(r.getId(), u, m, r.getRentalDate()));
+        }
+        return page;
+    }
+
+    @Override
+    public Stream<Rental> streamRentals() {
+        return pages(afterId -> getRentalsPage(afterId, PAGE_SIZE), Rental::getId);
+    }
+
+    @Override
+    public List<RentalRecord> getRentalRecords() {
+        return JsonRecords.toList(ok(exchange(Call.get("/rentals"))), JsonRecords::toRentalRecord);
+    }
+
+    @Override
+    public boolean createRental(User u, Movie m) {
+        Rental r = new Rental(u, m);
+        try {
+            createRentals(Collections.singletonList(r), true);
+            return true;
+        } catch (RentalConflictException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            u.getRentals().remove(r);
+            m.setRented(false);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean returnRental(Rental r) {
+        return returnRentals(Collections.singletonList(r));
+    }
+
+    @Override
+    public List<Integer> createRentals(Collection<Rental> rentals) {
+        try {
+            return createRentals(rentals, false);
+        } catch (RentalConflictException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param rentals the Rentals to store.
+     * @param undoFailed whether Rentals that could not be stored are removed from their Users.
+     * @return the identifications of the new Rentals.
+     * @throws RentalConflictException if one of the Movies has been rented in the meantime. The others are stored.
+     */
+    private List<Integer> createRentals(Collection<Rental> rentals, boolean undoFailed) {
+        List<Call> calls = new ArrayList<>(rentals.size());
+        for (Rental r : rentals) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("userId", r.getUser().getId());
+            json.put("movieId", r.getMovie().getId());
+            calls.add(post("/rentals", Json.write(json)));
+        }
+        List<Integer> ids = new ArrayList<>(rentals.size());
+        RuntimeException failure = null;
+        Iterator<Rental> it = rentals.iterator();
+        for (Response response : exchange(calls)) {
+            Rental r = it.next();
+            try {
+                int id = JsonRecords.toRentalRecord(ok(response)).getId();
+                r.setId(id);
+                ids.add(id);
+            } catch (RuntimeException e) {
+                if (e instanceof RentalConflictException || undoFailed) {
+                    r.getUser().getRentals().remove(r); // a conflicting movie stays rented, as it is in the service
+                }
+                failure = failure instanceof RentalConflictException ? failure : e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean returnRentals(Collection<Rental> rentals) {
+        List<Call> calls = new ArrayList<>(rentals.size());
+        for (Rental r : rentals) {
+            calls.add(new Call("DELETE", "/rentals/" + r.getId(), null));
+        }
+        List<Response> responses;
+        try {
+            responses = exchange(calls);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        }
+        boolean returned = true;
+        RentalConflictException conflict = null;
+        Iterator<Rental> it = rentals.iterator();
+        for (Response response : responses) {
+            Rental r = it.next();
+            try {
+                if (response.getStatus() == 404) {
+                    conflict = new RentalConflictException("rental " + r.getId() + " has already been returned");
+                } else if (isOk(ok(response))) {
+                    r.getMovie().setRented(false);
+                    r.getUser().getRentals().remove(r);
+                } else {
+                    returned = false;
+                }
+            } catch (RentalConflictException e) {
+                conflict = e;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                returned = false;
+            }
+        }
+        if (conflict != null) {
+            throw conflict;
+        }
+        return returned;
+    }
+
+    /**
+     * All Movies, Users and Rentals of one snapshot, linked to each other.
+     */
+    private static final class Snapshot {
+        private final Map<Integer, User> users = new LinkedHashMap<>();
+        private final List<Rental> rentals = new ArrayList<>();
+    }
+
+    private Snapshot snapshot() {
+        Map<String, Object> json = JsonRecords.object(ok(exchange(Call.get("/snapshot"))));
+        Map<Integer, Movie> movies = new LinkedHashMap<>();
+        for (MovieRecord m : JsonRecords.toList(json.get("movies"), JsonRecords::toMovieRecord)) {
+            movies.put(m.getId(), Records.toMovie(m));
+        }
+        Snapshot s = new Snapshot();
+        for (UserRecord u : JsonRecords.toList(json.get("users"), JsonRecords::toUserRecord)) {
+            s.users.put(u.getId(), Records.toUser(u));
+        }
+        for (RentalRecord r : JsonRecords.toList(json.get("rentals"), JsonRecords::toRentalRecord)) {
+            User u = s.users.get(r.getUserId());
+            Movie m = movies.get(r.getMovieId());
+            if (u != null && m != null) {
+                s.rentals.add(Rental.materializeRentalFromDB(r.getId(), u, m, r.getRentalDate()));
+            }
+        }
+        return s;
+    }
+
+    /**
+     * @param response the answer to a request for a single User.
+     * @return the User with its Rentals, whose Movies are requested in one pipelined exchange, or null if
+     *         there is no such User.
+     */
+    private User withRentals(Response response) {
+        if (response.getStatus() == 404) {
+            return null;
+        }
+        Map<String, Object> json = JsonRecords.object(ok(response));
+        User u = Records.toUser(JsonRecords.toUserRecord(json));
+        List<RentalRecord> rentals = JsonRecords.toList(json.get("rentals"), JsonRecords::toRentalRecord);
+        Set<Integer> movieIds = new LinkedHashSet<>();
+        for (RentalRecord r : rentals) {
+            movieIds.add(r.getMovieId());
+        }
+        Map<Integer, Movie> movies = moviesById(movieIds);
+        for (RentalRecord r : rentals) {
+            materialize(r, u, movies);
+        }
+        return u;
+    }
+
+    /**
+     * @param ids identifications of Movies.
+     * @return the Movies that still exist by their identification, requested in one pipelined exchange.
+     */
+    private Map<Integer, Movie> moviesById(Collection<Integer> ids) {
+        List<Call> calls = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            calls.add(Call.get("/movies/" + id));
+        }
+        Map<Integer, Movie> movies = new LinkedHashMap<>();
+        Iterator<Response> it = exchange(calls).iterator();
+        for (int id : ids) {
+            Response r = it.next();
+            if (r.getStatus() != 404) {
+                movies.put(id, Records.toMovie(JsonRecords.toMovieRecord(ok(r))));
+            }
+        }
+        return movies;
+    }
+
+    /**
+     * @param r the record of a Rental.
+     * @param u the User of the Rental.
+     * @param movies the Movies the Rental may refer to.
+     * @return the Rental added to u, or null if its Movie does not exist any more.
+     */
+    private static Rental materialize(RentalRecord r, User u, Map<Integer, Movie> movies) {
+        Movie m = movies.get(r.getMovieId());
+        return m == null ? null : Rental.materializeRentalFromDB(r.getId(), u, m, r.getRentalDate());
+    }
+
+    /**
+     * @param page reads the page after an identification.
+     * @param id the identification of an element.
+     * @param <T> type of the elements.
+     * @return all elements, read one page of {@link #PAGE_SIZE} at a time while the stream is consumed.
+     */
+    private static <T> Stream<T> pages(IntFunction<List<T>> page, ToIntFunction<T> id) {
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private Iterator<T> current = Collections.emptyIterator();
+            private int afterId;
+            private boolean last;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (!current.hasNext()) {
+                    if (last) {
+                        return false;
+                    }
+                    List<T> next = page.apply(afterId);
+                    last = next.size() < PAGE_SIZE;
+                    if (next.isEmpty()) {
+                        return false;
+                    }
+                    afterId = id.applyAsInt(next.get(next.size() - 1));
+                    current = next.iterator();
+                }
+                action.accept(current.next());
+                return true;
+            }
+        }, false);
+    }
+
+    private static List<Movie> movies(Response response) {
+        return Records.toMovies(JsonRecords.toList(ok(response), JsonRecords::toMovieRecord));
+    }
+
+    private static String movieJson(Movie m) {
+        return Json.write(JsonRecords.toJson(Records.toRecord(m)));
+    }
+
+    private static String userJson(User u) {
+        return Json.write(JsonRecords.toJson(Records.toRecord(u)));
+    }
+
+    private static Call post(String path, String body) {
+        return new Call("POST", path, body);
+    }
+
+    private static String encode(String s) {
+        try {
+            return URLEncoder.encode(s, "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Send the requests that create new Movies or Users. Those the service created receive their
+     * identification, even if other requests failed.
+     *
+     * @param calls the POST requests.
+     * @param setIds set the identification of the object of the request at the same position.
+     * @return the identifications in the order of calls, or null if one of the objects was not created.
+     */
+    private List<Integer> createAll(List<Call> calls, List<IntConsumer> setIds) {
+        List<Response> responses = new ArrayList<>(calls.size());
+        RuntimeException failure = null;
+        try {
+            exchange(calls, responses);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        List<Integer> ids = new ArrayList<>(calls.size());
+        for (int i = 0; i < responses.size(); i++) {
+            try {
+                int id = JsonRecords.integer(JsonRecords.object(ok(responses.get(i))), "id");
+                setIds.get(i).accept(id);
+                ids.add(id);
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            failure.printStackTrace();
+            return null;
+        }
+        return ids;
+    }
+
+    private boolean allOk(List<Call> calls) {
+        try {
+            boolean ok = true;
+            for (Response r : exchange(calls)) {
+                ok &= isOk(ok(r));
+            }
+            return ok;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static boolean isOk(Object json) {
+        return Boolean.TRUE.equals(JsonRecords.object(json).get("ok"));
+    }
+
+    /**
+     * @param r a response.
+     * @return the JSON body of a successful response.
+     * @throws RentalConflictException if the service reported a conflict.
+     * @throws RuntimeException if the service reported another failure.
+     */
+    private static Object ok(Response r) {
+        if (r.getStatus() == 200) {
+            return r.json();
+        }
+        Object error;
+        try {
+            error = JsonRecords.object(r.json()).get("error");
+        } catch (IllegalArgumentException e) {
+            error = "invalid response";
+        }
+        if (r.getStatus() == 409) {
+            throw new RentalConflictException(String.valueOf(error));
+        }
+        throw new RuntimeException("service answered " + r.getStatus() + ": " + error);
+    }
+
+    private Response exchange(Call call) {
+        return exchange(Collections.singletonList(call)).get(0);
+    }
+
+    /**
+     * @param calls the requests.
+     * @return the responses in the order of calls.
+     * @see #exchange(List, List)
+     */
+    private List<Response> exchange(List<Call> calls) {
+        List<Response> responses = new ArrayList<>(calls.size());
+        exchange(calls, responses);
+        return responses;
+    }
+
+    /**
+     * Send the requests over one connection, pipelining at most {@link #PIPELINE_DEPTH} at a time. Reading
+     * requests may use an idle connection and are sent again on a new one if it turns out to be closed;
+     * requests that change data always use a new connection.
+     *
+     * @param calls the requests.
+     * @param responses receives the responses in the order of calls, also those read before a failure.
+     */
+    private void exchange(List<Call> calls, List<Response> responses) {
+        if (calls.isEmpty()) {
+            return;
+        }
+        boolean idempotent = true;
+        for (Call c : calls) {
+            idempotent &= c.isIdempotent();
+        }
+        PipelinedConnection c = null;
+        try {
+            c = idempotent ? idle.pollFirst() : null;
+            if (c != null && System.nanoTime() - c.getLastUsed() > MAX_IDLE_NANOS) {
+                c.close();
+                c = null;
+            }
+            boolean reused = c != null;
+            if (c == null) {
+                c = connection();
+            }
+            for (int from = 0; from < calls.size(); from += PIPELINE_DEPTH) {
+                List<Call> part = calls.subList(from, Math.min(calls.size(), from + PIPELINE_DEPTH));
+                int read = responses.size();
+                try {
+                    c.exchange(part, responses);
+                } catch (IOException e) {
+                    if (!reused) {
+                        throw e;
+                    }
+                    responses.subList(read, responses.size()).clear();
+                    c = connection();
+                    c.exchange(part, responses);
+                }
+                reused = false;
+            }
+            release(c);
+        } catch (IOException e) {
+            if (c != null) {
+                c.close();
+            }
+            throw new RuntimeException("exchange with service at " + address + " failed", e);
+        }
+    }
+
+    /**
+     * Close the idle connections to the service.
+     */
+    @Override
+    public void shutdown() {
+        PipelinedConnection c;
+        while ((c = idle.pollFirst()) != null) {
+            c.close();
+        }
+    }
+
+    private PipelinedConnection connection() throws IOException {
+        return new PipelinedConnection(address, TIMEOUT);
+    }
+
+    private void release(PipelinedConnection c) {
+        if (c.isOpen() && idle.size() < MAX_IDLE) {
+            idle.offerFirst(c);
+        } else {
+            c.close();
+        }
+    }
+}
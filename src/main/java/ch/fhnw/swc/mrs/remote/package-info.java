@@ -0,0 +1,4 @@
+/**
+ * Contains the HTTP service that shares one backend between many clients.
+ */
+package ch.fhnw.swc.mrs.remote;
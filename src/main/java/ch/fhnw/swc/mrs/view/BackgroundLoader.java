@@ -0,0 +1,73 @@
+package ch.fhnw.swc.mrs.view;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.concurrent.Service;
+import javafx.concurrent.Task;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+
+/**
+ * Loads the data of a table on a background thread, so the JavaFX application thread stays responsive while
+ * the backend is queried. A reload requested while another one is still running cancels it, so quick
+ * successive reloads only apply the latest result. The result is applied on the JavaFX application thread in
+ * one step. While loading, an empty table shows a progress indicator and the table shows a wait cursor.
+ * <p>
+ * All methods must be called on the JavaFX application thread.
+ *
+ * @param <T> type of the loaded data.
+ */
+public final class BackgroundLoader<T> {
+  private final Service<T> service;
+
+  /**
+   * @param table the table showing the data.
+   * @param query loads the data. It runs on a background thread.
+   * @param apply shows the loaded data. It runs on the JavaFX application thread.
+   */
+  public BackgroundLoader(TableView<?> table, Supplier<T> query, Consumer<T> apply) {
+    service = new Service<T>() {
+      @Override
+      protected Task<T> createTask() {
+        return new Task<T>() {
+          @Override
+          protected T call() {
+            return query.get();
+          }
+        };
+      }
+    };
+    service.setOnSucceeded(e -> apply.accept(service.getValue()));
+    service.setOnFailed(e -> service.getException().printStackTrace());
+
+    Node empty = table.getPlaceholder();
+    ProgressIndicator progress = new ProgressIndicator();
+    service.runningProperty().addListener((observable, wasRunning, running) -> {
+      table.setPlaceholder(running ? progress : empty);
+      table.setCursor(running ? Cursor.WAIT : null);
+    });
+  }
+
+  /**
+   * Load the data again, cancelling a load that is still running.
+   */
+  public void reload() {
+    service.restart();
+  }
+
+  /**
+   * Stop loading. The data shown is left as it is.
+   */
+  public void cancel() {
+    service.cancel();
+  }
+
+  /** @return whether data is being loaded. */
+  public ReadOnlyBooleanProperty runningProperty() {
+    return service.runningProperty();
+  }
+}
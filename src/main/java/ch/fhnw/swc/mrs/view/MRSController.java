@@ -1,16 +1,24 @@
 package ch.fhnw.swc.mrs.view;
 
 import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
 
+import ch.fhnw.swc.mrs.model.DataChangeListener.Kind;
 import ch.fhnw.swc.mrs.model.MRSServices;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.TextArea;
+import javafx.scene.layout.VBox;
 
 /**
  * FX controller responsible for overall application.
@@ -26,6 +34,7 @@ public class MRSController {
   private ObjectProperty<MRSServiceUtilizer> movieController = new SimpleObjectProperty<MRSServiceUtilizer>();
   private ObjectProperty<MRSServiceUtilizer> userController = new SimpleObjectProperty<MRSServiceUtilizer>();
   private ObjectProperty<MRSServiceUtilizer> rentalController = new SimpleObjectProperty<MRSServiceUtilizer>();
+  private MRSServices provider;
   
   /**
    * The constructor. The constructor is called before the initialize() method.
@@ -44,32 +53,122 @@ public class MRSController {
   }
   
   private Object handleTabChange(Tab oldTab, Tab newTab) {
-    switch (newTab.getId()) {
-      case "RentMovie": rentMovieController.get().reload(); break;
-      case "Movies": movieController.get().reload(); break;
-      case "Users": userController.get().reload(); break;
-      case "Rentals": rentalController.get().reload(); break;
-      default:
+    if (oldTab != null && controllerOf(oldTab).get() != null) {
+      controllerOf(oldTab).get().cancel();
+    }
+    if (newTab != null && provider != null) {
+      ensureLoaded(newTab);
+      controllerOf(newTab).get().reload();
     }
     return null;
   }
-  
+
+  private ObjectProperty<MRSServiceUtilizer> controllerOf(Tab tab) {
+    switch (tab.getId()) {
+      case "RentMovie": return rentMovieController;
+      case "Movies": return movieController;
+      case "Users": return userController;
+      case "Rentals": return rentalController;
+      default: throw new IllegalArgumentException("unknown tab " + tab.getId());
+    }
+  }
+
+  /**
+   * Build the content of a tab the first time it is shown.
+   * @param tab the tab to be shown.
+   */
+  private void ensureLoaded(Tab tab) {
+    if (controllerOf(tab).get() != null) {
+      return;
+    }
+    switch (tab.getId()) {
+      case "RentMovie": tab.setContent(initTab("RentMovieTab.fxml", rentMovieController)); break;
+      case "Movies": tab.setContent(initTab("MovieTab.fxml", movieController)); break;
+      case "Users": tab.setContent(initTab("UserTab.fxml", userController)); break;
+      case "Rentals": tab.setContent(initTab("RentalTab.fxml", rentalController)); break;
+      default:
+    }
+  }
+
+  /**
+   * Refresh the selected tab when data it shows was changed. The other tabs are refreshed when they
+   * are selected.
+   * @param changed the kinds of data changed.
+   */
+  private void handleDataChange(Set<Kind> changed) {
+    if (!Platform.isFxApplicationThread()) {
+      Platform.runLater(() -> handleDataChange(changed));
+      return;
+    }
+    Tab selected = tabPane.getSelectionModel().getSelectedItem();
+    if (selected == null) {
+      return;
+    }
+    switch (selected.getId()) {
+      case "RentMovie": refreshIf(changed, EnumSet.of(Kind.MOVIES), rentMovieController); break;
+      case "Movies": refreshIf(changed, EnumSet.of(Kind.MOVIES), movieController); break;
+      case "Users": refreshIf(changed, EnumSet.of(Kind.USERS), userController); break;
+      case "Rentals": refreshIf(changed, EnumSet.allOf(Kind.class), rentalController); break;
+      default:
+    }
+  }
+
+  private static void refreshIf(Set<Kind> changed, Set<Kind> shown, ObjectProperty<MRSServiceUtilizer> ctrl) {
+    for (Kind k : changed) {
+      if (shown.contains(k) && ctrl.get() != null) {
+        ctrl.get().reload();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Show that the application is starting while the backend is not ready yet. The other tabs cannot be
+   * selected until {@link #initTabs(MRSServices)} is called.
+   */
+  public void showStarting() {
+    Tab selected = tabPane.getSelectionModel().getSelectedItem();
+    for (Tab tab : tabPane.getTabs()) {
+      tab.setDisable(tab != selected);
+    }
+    VBox splash = new VBox(10, new ProgressIndicator(), new Label("Starting database..."));
+    splash.setAlignment(Pos.CENTER);
+    selected.setContent(splash);
+  }
+
   /**
-   * Set the list of movies in the table.
+   * Show that the backend could not be started.
+   * @param cause the reason the start failed.
+   */
+  public void showStartFailed(Throwable cause) {
+    tabPane.getSelectionModel().getSelectedItem().setContent(new TextArea("Start failed: " + cause));
+  }
+
+  /**
+   * Show the tabs using the backend. Only the selected tab is built right away, the others are built when
+   * they are selected for the first time.
    * @param provider the MRSServiceProvider to use in the tabs' controllers.
    */
   public void initTabs(MRSServices provider) {
-    rentMovieTab.setContent(initTab("Rent Movies", "RentMovieTab.fxml", provider, rentMovieController));
-    movieTab.setContent(initTab("Movies", "MovieTab.fxml", provider, movieController));
-    userTab.setContent(initTab("Users", "UserTab.fxml", provider, userController));
-    rentalTab.setContent(initTab("Rentals", "RentalTab.fxml", provider, rentalController));
-    //preload first tab, as it will not receive a selection change event.
-    rentMovieController.get().reload();
+    this.provider = provider;
+    provider.addDataChangeListener(this::handleDataChange);
+    for (Tab tab : tabPane.getTabs()) {
+      tab.setDisable(false);
+    }
+    //load selected tab, as it will not receive a selection change event.
+    handleTabChange(null, tabPane.getSelectionModel().getSelectedItem());
+  }
+
+  /**
+   * Build the content of all tabs now instead of when they are selected for the first time.
+   */
+  public void preloadTabs() {
+    for (Tab tab : tabPane.getTabs()) {
+      ensureLoaded(tab);
+    }
   }
 
-  private Node initTab(String name, String ressource, 
-                       MRSServices provider, 
-                       ObjectProperty<MRSServiceUtilizer> ctrl) {
+  private Node initTab(String ressource, ObjectProperty<MRSServiceUtilizer> ctrl) {
     Node content;
     try {
       FXMLLoader loader = new FXMLLoader();
@@ -13,7 +13,15 @@ public interface MRSServiceUtilizer {
   void setServiceProvider(MRSServices provider);
   
   /**
-   * Reload data used/processed/displayed in this ServiceUtilizer.
+   * Reload data used/processed/displayed in this ServiceUtilizer. The data is loaded in the
+   * background, see {@link BackgroundLoader}, and only what changed since the last reload is updated
+   * in the tables, see {@link TableItems}.
    */
   void reload();
+
+  /**
+   * Stop loading data that is not needed any more, e.g. because the tab showing it was left.
+   */
+  default void cancel() {
+  }
 }
@@ -3,6 +3,7 @@ package ch.fhnw.swc.mrs.view;
 import java.time.LocalDate;
 import java.util.List;
 
+import ch.fhnw.swc.mrs.data.Records;
 import ch.fhnw.swc.mrs.model.ChildrenPriceCategory;
 import ch.fhnw.swc.mrs.model.MRSServices;
 import ch.fhnw.swc.mrs.model.Movie;
@@ -60,6 +61,7 @@ public class MovieController implements MRSServiceUtilizer {
   private Movie editing = null;  // currently no movie is being edited.
   private MRSServices backend;
   private ObservableList<Movie> movieList = FXCollections.observableArrayList();
+  private BackgroundLoader<List<Movie>> loader;
 
   /**
    * Initializes the controller class. This method is automatically called after
@@ -68,6 +70,9 @@ public class MovieController implements MRSServiceUtilizer {
   @FXML
   private void initialize() {
     // Initialize the movie table.
+    movieTable.setItems(movieList);
+    loader = new BackgroundLoader<List<Movie>>(movieTable, () -> Records.toMovies(backend.getMovieRecords()),
+        movies -> TableItems.refresh(movieList, movies, Movie::getId, ViewModels::sameValues));
     idColumn.setCellValueFactory(cellData -> cellData.getValue().idProperty());
     titleColumn.setCellValueFactory(cellData -> cellData.getValue().titleProperty());
     releaseDateColumn.setCellValueFactory(cellData -> cellData.getValue().releaseDateProperty());
@@ -203,12 +208,12 @@ public class MovieController implements MRSServiceUtilizer {
 
   @Override
   public void reload() {
-    movieList.clear();
-    List<Movie> movies = backend.getAllMovies();
-    for (Movie m : movies) {
-      movieList.add(m);
-    }
-    movieTable.setItems(movieList);
+    loader.reload();
+  }
+
+  @Override
+  public void cancel() {
+    loader.cancel();
   }
 
 }
@@ -6,10 +6,13 @@ import java.util.List;
 import ch.fhnw.swc.mrs.model.MRSServices;
 import ch.fhnw.swc.mrs.model.Movie;
 import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
 import ch.fhnw.swc.mrs.model.User;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.DatePicker;
@@ -50,6 +53,7 @@ public class RentMovieController implements MRSServiceUtilizer {
 
   private MRSServices backend;
   private ObservableList<Movie> rentMovieList = FXCollections.observableArrayList();
+  private BackgroundLoader<List<Movie>> loader;
   private User found = null;
 
   /**
@@ -59,6 +63,9 @@ public class RentMovieController implements MRSServiceUtilizer {
   @FXML
   private void initialize() {
     // Initialize the movie table.
+    availableMoviesTable.setItems(rentMovieList);
+    loader = new BackgroundLoader<List<Movie>>(availableMoviesTable, () -> backend.getAllMovies(false),
+        movies -> TableItems.refresh(rentMovieList, movies, Movie::getId, ViewModels::sameValues));
     idColumn.setCellValueFactory(cellData -> cellData.getValue().idProperty());
     titleColumn.setCellValueFactory(cellData -> cellData.getValue().titleProperty());
     releaseDateColumn.setCellValueFactory(cellData -> cellData.getValue().releaseDateProperty());
@@ -74,12 +81,12 @@ public class RentMovieController implements MRSServiceUtilizer {
 
   @Override
   public void reload() {
-    rentMovieList.clear();
-    List<Movie> movies = backend.getAllMovies(false);
-    for (Movie m : movies) {
-      rentMovieList.add(m);
-    }
-    availableMoviesTable.setItems(rentMovieList);
+    loader.reload();
+  }
+
+  @Override
+  public void cancel() {
+    loader.cancel();
   }
 
   @FXML
@@ -159,11 +166,24 @@ public class RentMovieController implements MRSServiceUtilizer {
   @FXML
   private void handleSave() {
     Movie m = availableMoviesTable.getSelectionModel().getSelectedItem();
-    backend.createRental(found, m);
+    try {
+      if (!backend.createRental(found, m)) {
+        showError("The rental of " + m.getTitle() + " could not be saved.");
+      }
+    } catch (RentalConflictException e) {
+      // the reload removes it from the available movies
+      showError(m.getTitle() + " has already been rented at another counter.");
+    }
     reload();
     handleClearAll();
   }
   
+  private void showError(String message) {
+    Alert alert = new Alert(AlertType.WARNING, message);
+    alert.setHeaderText("Movie not rented");
+    alert.showAndWait();
+  }
+
   @FXML
   private void enterPressed() {
     if (newUser.isSelected() && !saveButton.isDisabled()) { // enter means save
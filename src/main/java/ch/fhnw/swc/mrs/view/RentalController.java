@@ -5,6 +5,7 @@ import java.util.List;
 
 import ch.fhnw.swc.mrs.model.MRSServices;
 import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -37,6 +38,7 @@ public class RentalController implements MRSServiceUtilizer {
   
   private MRSServices backend;
   private ObservableList<Rental> rentalList = FXCollections.observableArrayList();
+  private BackgroundLoader<List<Rental>> loader;
 
   /**
    * Initializes the controller class. This method is automatically called after
@@ -45,6 +47,9 @@ public class RentalController implements MRSServiceUtilizer {
   @FXML
   private void initialize() {
     // Initialize the movie table.
+    rentalTable.setItems(rentalList);
+    loader = new BackgroundLoader<List<Rental>>(rentalTable, () -> backend.getAllRentals(),
+        rentals -> TableItems.refresh(rentalList, rentals, Rental::getId, ViewModels::sameValues));
     idColumn.setCellValueFactory(cellData -> cellData.getValue().idProperty());
     rentalDaysColumn.setCellValueFactory(cellData -> cellData.getValue().rentalDaysProperty());
     rentalDateColumn.setCellValueFactory(cellData -> cellData.getValue().rentalDateProperty());
@@ -68,20 +73,24 @@ public class RentalController implements MRSServiceUtilizer {
   private void handleDelete() {
     deleteButton.setDisable(true);
     Rental r = rentalTable.getSelectionModel().getSelectedItem();
-    if (backend.returnRental(r)) {
-      rentalTable.getItems().remove(r);
-      rentalTable.getSelectionModel().clearSelection();
+    try {
+      if (backend.returnRental(r)) {
+        rentalTable.getItems().remove(r);
+        rentalTable.getSelectionModel().clearSelection();
+      }
+    } catch (RentalConflictException e) {
+      reload(); // returned at another counter
     }
   }
 
   @Override
   public void reload() {
-    rentalList.clear();
-    List<Rental> rentals = backend.getAllRentals();
-    for (Rental r : rentals) {
-      rentalList.add(r);
-    }
-    rentalTable.setItems(rentalList);
+    loader.reload();
+  }
+
+  @Override
+  public void cancel() {
+    loader.cancel();
   }
 
   @Override
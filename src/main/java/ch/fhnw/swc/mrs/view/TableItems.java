@@ -0,0 +1,50 @@
+package ch.fhnw.swc.mrs.view;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+import javafx.collections.ObservableList;
+
+/**
+ * Brings the items of a table up to date with freshly loaded objects. Items whose values did not change are
+ * kept, so the table neither redraws their rows nor loses their selection. All inserts, updates and removals are
+ * applied with a single change of the list, and the list is not touched at all when nothing changed.
+ */
+public final class TableItems {
+
+  private TableItems() { }
+
+  /**
+   * @param items the items shown by a table.
+   * @param fresh the objects just loaded, in the order to show them.
+   * @param id the identification of an object.
+   * @param unchanged whether a shown item and a loaded object with the same identification have the
+   *          same values.
+   * @param <T> type of the items.
+   * @return whether the items were changed.
+   */
+  public static <T> boolean refresh(ObservableList<T> items, List<T> fresh, ToIntFunction<? super T> id,
+      BiPredicate<? super T, ? super T> unchanged) {
+    Map<Integer, T> shown = new HashMap<>(items.size() * 4 / 3 + 1);
+    for (T t : items) {
+      shown.put(id.applyAsInt(t), t);
+    }
+    boolean changed = fresh.size() != items.size();
+    List<T> result = new ArrayList<>(fresh.size());
+    for (int i = 0; i < fresh.size(); i++) {
+      T f = fresh.get(i);
+      T old = shown.get(id.applyAsInt(f));
+      T item = old != null && unchanged.test(old, f) ? old : f;
+      result.add(item);
+      changed = changed || items.get(i) != item;
+    }
+    if (changed) {
+      items.setAll(result);
+    }
+    return changed;
+  }
+}
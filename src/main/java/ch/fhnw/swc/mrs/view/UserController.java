@@ -3,6 +3,7 @@ package ch.fhnw.swc.mrs.view;
 import java.time.LocalDate;
 import java.util.List;
 
+import ch.fhnw.swc.mrs.data.Records;
 import ch.fhnw.swc.mrs.model.MRSServices;
 import ch.fhnw.swc.mrs.model.User;
 import javafx.collections.FXCollections;
@@ -51,6 +52,7 @@ public class UserController implements MRSServiceUtilizer {
   private User editing = null;  // currently no user is being edited.
   private MRSServices backend;
   private ObservableList<User> userList = FXCollections.observableArrayList();
+  private BackgroundLoader<List<User>> loader;
 
   /**
    * Initializes the controller class. This method is automatically called after
@@ -59,6 +61,9 @@ public class UserController implements MRSServiceUtilizer {
   @FXML
   private void initialize() {
     // Initialize the movie table.
+    userTable.setItems(userList);
+    loader = new BackgroundLoader<List<User>>(userTable, () -> Records.toUsers(backend.getUserRecords()),
+        users -> TableItems.refresh(userList, users, User::getId, ViewModels::sameValues));
     idColumn.setCellValueFactory(cellData -> cellData.getValue().idProperty());
     surnameColumn.setCellValueFactory(cellData -> cellData.getValue().nameProperty());
     firstNameColumn.setCellValueFactory(cellData -> cellData.getValue().firstNameProperty());
@@ -186,12 +191,12 @@ public class UserController implements MRSServiceUtilizer {
 
   @Override
   public void reload() {
-    userList.clear();
-    List<User> users = backend.getAllUsers();
-    for (User u: users) {
-      userList.add(u);
-    }
-    userTable.setItems(userList);
+    loader.reload();
+  }
+
+  @Override
+  public void cancel() {
+    loader.cancel();
   }
 
 }
@@ -0,0 +1,44 @@
+package ch.fhnw.swc.mrs.view;
+
+import ch.fhnw.swc.mrs.data.Records;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.User;
+
+/**
+ * Helpers for the property-backed objects shown by the views. {@link Records} is the adapter at the view boundary:
+ * the controllers use it to build these objects from the immutable records of the backend, so only the view creates
+ * the JavaFX properties, and only for the objects it actually shows.
+ */
+public final class ViewModels {
+
+  private ViewModels() { }
+
+  /**
+   * @param a a Movie.
+   * @param b another Movie.
+   * @return whether both Movies have the same values.
+   */
+  public static boolean sameValues(Movie a, Movie b) {
+    return Records.toRecord(a).equals(Records.toRecord(b));
+  }
+
+  /**
+   * @param a a User.
+   * @param b another User.
+   * @return whether both Users have the same values, not comparing their rentals.
+   */
+  public static boolean sameValues(User a, User b) {
+    return Records.toRecord(a).equals(Records.toRecord(b));
+  }
+
+  /**
+   * @param a a Rental.
+   * @param b another Rental.
+   * @return whether both Rentals, their Users and their Movies have the same values.
+   */
+  public static boolean sameValues(Rental a, Rental b) {
+    return Records.toRecord(a).equals(Records.toRecord(b)) && sameValues(a.getUser(), b.getUser())
+        && sameValues(a.getMovie(), b.getMovie());
+  }
+}
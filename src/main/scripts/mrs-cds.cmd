@@ -0,0 +1,8 @@
+@echo off
+rem Starts the Movie Rental System with the class-data-sharing archive built by: mvn -Pappcds -DskipTests package
+rem Run from the project directory or set MRS_JAR and MRS_JSA. Without the archive the JVM starts as usual.
+if "%JAVA%"=="" set JAVA=java
+if "%MRS_JAR%"=="" set MRS_JAR=target\MRSfx-0.1-SNAPSHOT-jar-with-dependencies.jar
+if "%MRS_JSA%"=="" set MRS_JSA=target\mrs.jsa
+
+"%JAVA%" -Xshare:auto -XX:SharedArchiveFile="%MRS_JSA%" -cp "%MRS_JAR%" ch.fhnw.swc.mrs.MovieRentalSystem %*
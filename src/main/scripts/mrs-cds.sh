@@ -0,0 +1,8 @@
+#!/bin/sh
+# Starts the Movie Rental System with the class-data-sharing archive built by: mvn -Pappcds -DskipTests package
+# Run from the project directory or set MRS_JAR and MRS_JSA. Without the archive the JVM starts as usual.
+JAVA=${JAVA:-java}
+MRS_JAR=${MRS_JAR:-target/MRSfx-0.1-SNAPSHOT-jar-with-dependencies.jar}
+MRS_JSA=${MRS_JSA:-target/mrs.jsa}
+
+exec "$JAVA" -Xshare:auto -XX:SharedArchiveFile="$MRS_JSA" -cp "$MRS_JAR" ch.fhnw.swc.mrs.MovieRentalSystem "$@"
@@ -0,0 +1,37 @@
+#!/bin/sh
+# Compares the start of the Movie Rental System with and without the class-data-sharing archive.
+# Every run starts the application with -Dmrs.training=true, which uses the backend and every tab once and exits,
+# and the wall-clock time of the whole run is measured. Needs a display, like the application itself.
+# Usage: startup-benchmark.sh [runs]   (default 5; set JAVA, MRS_JAR and MRS_JSA as for mrs-cds.sh)
+JAVA=${JAVA:-java}
+MRS_JAR=${MRS_JAR:-target/MRSfx-0.1-SNAPSHOT-jar-with-dependencies.jar}
+MRS_JSA=${MRS_JSA:-target/mrs.jsa}
+RUNS=${1:-5}
+
+if [ ! -f "$MRS_JSA" ]; then
+    echo "no archive at $MRS_JSA, build it with: mvn -Pappcds -DskipTests package" >&2
+    exit 1
+fi
+
+# prints the average time in milliseconds of $RUNS starts with the given JVM options
+measure() {
+    total=0
+    i=0
+    while [ $i -lt "$RUNS" ]; do
+        start=$(date +%s%N)
+        "$JAVA" "$@" -Dmrs.training=true -cp "$MRS_JAR" ch.fhnw.swc.mrs.MovieRentalSystem > /dev/null 2>&1 || return 1
+        end=$(date +%s%N)
+        total=$((total + (end - start) / 1000000))
+        i=$((i + 1))
+    done
+    echo $((total / RUNS))
+}
+
+# one run without measuring, so both variants find the jar and the database in the file system cache
+"$JAVA" -Dmrs.training=true -cp "$MRS_JAR" ch.fhnw.swc.mrs.MovieRentalSystem > /dev/null 2>&1 \
+    || { echo "training run failed" >&2; exit 1; }
+
+without=$(measure -Xshare:off) || exit 1
+with=$(measure -Xshare:on -XX:SharedArchiveFile="$MRS_JSA") || exit 1
+echo "average of $RUNS starts without archive: ${without}ms"
+echo "average of $RUNS starts with archive:    ${with}ms"
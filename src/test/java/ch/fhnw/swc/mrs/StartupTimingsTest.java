@@ -0,0 +1,38 @@
+package ch.fhnw.swc.mrs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class StartupTimingsTest {
+
+	@Test
+	public void testMarkKeepsFirstTimeInOrder() {
+		StartupTimings timings = new StartupTimings(System.currentTimeMillis() - 1000);
+		timings.mark(StartupTimings.MAIN);
+		timings.mark(StartupTimings.DATABASE);
+		Map<String, Long> phases = timings.getPhases();
+		timings.mark(StartupTimings.MAIN);
+
+		assertEquals(Arrays.asList(StartupTimings.MAIN, StartupTimings.DATABASE),
+				new ArrayList<>(timings.getPhases().keySet()));
+		assertEquals(phases, timings.getPhases());
+		long main = phases.get(StartupTimings.MAIN);
+		assertTrue(main >= 1000);
+		assertTrue(phases.get(StartupTimings.DATABASE) >= main);
+	}
+
+	@Test
+	public void testToString() {
+		StartupTimings timings = new StartupTimings(System.currentTimeMillis());
+		assertEquals("jvm start 0ms", timings.toString());
+		timings.mark(StartupTimings.MAIN);
+		long main = timings.getPhases().get(StartupTimings.MAIN);
+		assertEquals("jvm start 0ms, main " + main + "ms", timings.toString());
+	}
+}
@@ -0,0 +1,132 @@
+package ch.fhnw.swc.mrs.data;
+
+import static ch.fhnw.swc.mrs.model.Fixtures.movie;
+import static ch.fhnw.swc.mrs.model.Fixtures.user;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.fhnw.swc.mrs.model.AsyncMRSServices;
+import ch.fhnw.swc.mrs.model.MRSServices;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.User;
+
+public class AsyncMRSServicesAdapterTest {
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        PriceCategory.init();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testResultsAndFailures() throws Exception {
+        InMemoryMRSServices services = new InMemoryMRSServices();
+        AsyncMRSServices async = new AsyncMRSServicesAdapter(services, executor);
+        async.init().get();
+
+        Movie m = async.createMovie(movie("Titanic")).get();
+        User u = async.createUser(user("Muster")).get();
+        Movie stale = services.getMovieById(m.getId());
+        assertTrue(async.createRental(u, m).get());
+        assertEquals(1, async.getAllRentals().get().size());
+
+        try {
+            async.createRental(async.createUser(user("Meier")).get(), stale).get();
+            fail("conflict expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RentalConflictException);
+        }
+    }
+
+    @Test
+    public void testIndependentCallsOverlap() throws Exception {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        MRSServices services = mock(MRSServices.class);
+        when(services.getAllMovies()).then(invocation -> {
+            bothRunning.countDown();
+            assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+            return Collections.emptyList();
+        });
+        when(services.getAllUsers()).then(invocation -> {
+            bothRunning.countDown();
+            assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+            return Collections.emptyList();
+        });
+
+        AsyncMRSServices async = new AsyncMRSServicesAdapter(services, executor);
+        CompletableFuture<List<Movie>> movies = async.getAllMovies();
+        CompletableFuture<List<User>> users = async.getAllUsers();
+        assertTrue(movies.get(10, TimeUnit.SECONDS).isEmpty());
+        assertTrue(users.get(10, TimeUnit.SECONDS).isEmpty());
+    }
+
+    @Test
+    public void testDatabaseLoadsUsersAndRentalsAtOnce() throws Exception {
+        DbMRSServices db = new DbMRSServices("jdbc:hsqldb:mem:mrsasync");
+        db.init();
+        try {
+            User u = db.createUser(user("Muster"));
+            db.createUser(user("Meier"));
+            Movie m1 = db.createMovie(movie("Titanic"));
+            Movie m2 = db.createMovie(movie("Avatar"));
+            db.createRentals(Arrays.asList(new Rental(u, m1), new Rental(u, m2)));
+
+            // each query waits until the other one has started as well
+            CountDownLatch bothRunning = new CountDownLatch(2);
+            AtomicBoolean oneAfterTheOther = new AtomicBoolean();
+            Executor overlapping = task -> executor.execute(() -> {
+                bothRunning.countDown();
+                try {
+                    if (!bothRunning.await(5, TimeUnit.SECONDS)) {
+                        oneAfterTheOther.set(true);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                task.run();
+            });
+
+            List<User> users = db.async(overlapping).getAllUsers().get(20, TimeUnit.SECONDS);
+            assertFalse(oneAfterTheOther.get());
+            assertEquals(db.getAllUsers(), users);
+            for (User loaded : users) {
+                assertEquals(db.getUserById(loaded.getId()).getRentals().size(), loaded.getRentals().size());
+                for (Rental r : loaded.getRentals()) {
+                    assertTrue(r.getUser() == loaded);
+                    assertTrue(r.getMovie().isRented());
+                }
+            }
+        } finally {
+            db.shutdown();
+        }
+    }
+}
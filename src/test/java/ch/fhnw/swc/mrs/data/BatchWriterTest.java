@@ -0,0 +1,114 @@
+package ch.fhnw.swc.mrs.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class BatchWriterTest {
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement update;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = mock(Connection.class);
+        insert = mock(PreparedStatement.class);
+        update = mock(PreparedStatement.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement("insert", Statement.RETURN_GENERATED_KEYS)).thenReturn(insert);
+        when(connection.prepareStatement("update")).thenReturn(update);
+    }
+
+    @Test
+    public void testOneTransactionForAllChunks() throws Exception {
+        ResultSet keys1 = keys(1, 2);
+        ResultSet keys2 = keys(3);
+        when(insert.getGeneratedKeys()).thenReturn(keys1, keys2);
+
+        List<Integer> ids = new BatchWriter<Integer>(connection, 2).add("insert", (ps, i) -> ps.setInt(1, i))
+                .returningKeys().add("update", (ps, i) -> ps.setInt(2, i)).write(Arrays.asList(10, 20, 30));
+
+        assertEquals(Arrays.asList(1, 2, 3), ids);
+        verify(insert, times(3)).addBatch();
+        verify(update, times(3)).addBatch();
+        verify(insert, times(2)).executeBatch();
+        verify(update, times(2)).executeBatch();
+        InOrder order = inOrder(connection);
+        order.verify(connection).setAutoCommit(false);
+        order.verify(connection, times(1)).commit();
+        order.verify(connection).setAutoCommit(true);
+        verify(insert).close();
+        verify(update).close();
+    }
+
+    @Test
+    public void testFailedChunkRollsBackAllChunks() throws Exception {
+        when(update.executeBatch()).thenReturn(new int[] {1}).thenThrow(new SQLException("boom"));
+        try {
+            new BatchWriter<Integer>(connection, 1).add("update", (ps, i) -> ps.setInt(1, i))
+                    .write(Arrays.asList(1, 2, 3));
+            fail("exception expected");
+        } catch (SQLException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        verify(connection, never()).commit();
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+        verify(update).close();
+    }
+
+    @Test
+    public void testGuardFailureIsRolledBack() throws Exception {
+        when(update.executeBatch()).thenReturn(new int[] {1, 1}).thenReturn(new int[] {1, 0});
+        try {
+            new BatchWriter<Integer>(connection, 2).guard("update", (ps, i) -> ps.setInt(1, i))
+                    .write(Arrays.asList(1, 2, 3, 4));
+            fail("exception expected");
+        } catch (BatchWriter.GuardException e) {
+            assertEquals(3, e.getIndex());
+        }
+        verify(connection, never()).commit();
+        verify(connection).rollback();
+    }
+
+    @Test
+    public void testEmptyCollection() throws Exception {
+        assertTrue(new BatchWriter<Integer>(connection, 5).add("update", (ps, i) -> ps.setInt(1, i))
+                .write(Collections.<Integer>emptyList()).isEmpty());
+        verify(connection, never()).prepareStatement("update");
+        verify(connection, never()).commit();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchSizeMustBePositive() {
+        new BatchWriter<Integer>(connection, 0);
+    }
+
+    private static ResultSet keys(Integer... keys) throws SQLException {
+        ResultSet r = mock(ResultSet.class);
+        Boolean[] more = new Boolean[keys.length - 1];
+        Arrays.fill(more, Boolean.TRUE);
+        when(r.next()).thenReturn(true, more).thenReturn(false);
+        when(r.getInt(1)).thenReturn(keys[0], Arrays.copyOfRange(keys, 1, keys.length));
+        return r;
+    }
+}
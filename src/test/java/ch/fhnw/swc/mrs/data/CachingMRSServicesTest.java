@@ -0,0 +1,151 @@
+package ch.fhnw.swc.mrs.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.fhnw.swc.mrs.model.DataChangeListener;
+import ch.fhnw.swc.mrs.model.DataChangeListener.Kind;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.RegularPriceCategory;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.User;
+
+public class CachingMRSServicesTest {
+    private InMemoryMRSServices backend;
+    private CachingMRSServices cache;
+    private long now;
+
+    @Before
+    public void setUp() {
+        PriceCategory.init();
+        backend = spy(new InMemoryMRSServices());
+        cache = new CachingMRSServices(backend, 1000, 3, () -> now);
+        cache.init();
+        cache.createMovie(new Movie("Titanic", LocalDate.of(2000, 1, 1), RegularPriceCategory.getInstance(), 0));
+        cache.createUser(new User("Muster", "Hans", LocalDate.of(1980, 1, 1)));
+    }
+
+    @Test
+    public void testUnchangedResultsAreCached() {
+        List<Movie> first = cache.getAllMovies(false);
+        List<Movie> second = cache.getAllMovies(false);
+        verify(backend, times(1)).getAllMovies(false);
+        assertEquals(first, second);
+        assertNotSame(first.get(0), second.get(0));
+
+        // callers may change what they get
+        second.get(0).setTitle("Changed");
+        assertEquals("Titanic", cache.getAllMovies(false).get(0).getTitle());
+        assertEquals(1, cache.getStatistics().getMisses());
+        assertEquals(2, cache.getStatistics().getHits());
+    }
+
+    @Test
+    public void testWritesInvalidate() {
+        cache.getMovieRecords();
+        cache.getUserRecords();
+        Movie m = cache.getMovieById(100);
+        m.setTitle("Avatar");
+        cache.updateMovie(m);
+        assertEquals("Avatar", cache.getMovieRecords().get(0).getTitle());
+        verify(backend, times(2)).getMovieRecords();
+
+        // user records do not depend on movies
+        cache.getUserRecords();
+        verify(backend, times(1)).getUserRecords();
+
+        User u = cache.getUserById(100);
+        assertTrue(cache.createRental(u, cache.getMovieById(100)));
+        assertTrue(cache.getMovieById(100).isRented());
+        assertEquals(1, cache.getUserById(100).getRentals().size());
+        assertTrue(cache.getStatistics().getInvalidations() > 0);
+    }
+
+    @Test
+    public void testRentalsShareUsersAndMovies() {
+        cache.createMovie(new Movie("Avatar", LocalDate.of(2009, 1, 1), RegularPriceCategory.getInstance(), 0));
+        User u = cache.getUserById(100);
+        cache.createRental(u, cache.getMovieById(100));
+        cache.createRental(u, cache.getMovieById(101));
+
+        cache.getAllRentals();
+        List<Rental> rentals = cache.getAllRentals();
+        verify(backend, times(1)).getAllRentals();
+        assertEquals(2, rentals.size());
+        assertTrue(rentals.get(0).getUser() == rentals.get(1).getUser());
+        assertEquals(2, rentals.get(0).getUser().getRentals().size());
+        assertTrue(rentals.get(1).getMovie().isRented());
+    }
+
+    @Test
+    public void testExpiry() {
+        cache.getAllMovies();
+        now += TimeUnit.MILLISECONDS.toNanos(999);
+        cache.getAllMovies();
+        verify(backend, times(1)).getAllMovies();
+        now += TimeUnit.MILLISECONDS.toNanos(1);
+        cache.getAllMovies();
+        verify(backend, times(2)).getAllMovies();
+        assertEquals(1, cache.getStatistics().getExpirations());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        cache.getMovieById(100);
+        cache.getAllMovies();
+        cache.getAllUsers();
+        cache.getMovieById(100);
+        cache.getMovieRecords(); // evicts getAllMovies
+        assertEquals(1, cache.getStatistics().getEvictions());
+        assertEquals(3, cache.getStatistics().getSize());
+
+        cache.getMovieById(100);
+        cache.getAllMovies();
+        verify(backend, times(1)).getMovieById(100);
+        verify(backend, times(2)).getAllMovies();
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        cache.getAllUsers();
+        cache.invalidateAll();
+        cache.getAllUsers();
+        verify(backend, times(2)).getAllUsers();
+        assertFalse(cache.getAllUsers().isEmpty());
+    }
+
+    @Test
+    public void testListenersAreNotified() {
+        List<Set<Kind>> notified = new ArrayList<>();
+        DataChangeListener l = notified::add;
+        cache.addDataChangeListener(l);
+        cache.getAllMovies();
+        assertTrue(notified.isEmpty());
+
+        cache.updateUser(cache.getUserById(100));
+        User u = cache.getUserById(100);
+        cache.createRental(u, cache.getMovieById(100));
+        assertEquals(Arrays.asList(EnumSet.of(Kind.USERS), EnumSet.of(Kind.MOVIES, Kind.RENTALS)), notified);
+
+        cache.removeDataChangeListener(l);
+        cache.returnRental(u.getRentals().get(0));
+        assertEquals(2, notified.size());
+    }
+}
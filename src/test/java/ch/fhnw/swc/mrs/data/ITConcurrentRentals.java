@@ -0,0 +1,179 @@
+package ch.fhnw.swc.mrs.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.RegularPriceCategory;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.User;
+
+/**
+ * Several counters rent and return the same movies at the same time. Every counter works on its own copies of
+ * the movies, users and rentals, just like separate clients would.
+ */
+public class ITConcurrentRentals {
+    private static final int COUNTERS = 8;
+    private static final int ROUNDS = 100;
+
+    private DbMRSServices backend;
+    private ExecutorService executor;
+    private final List<Integer> movieIds = new ArrayList<>();
+    private final List<Integer> userIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        PriceCategory.init();
+        backend = new DbMRSServices("jdbc:hsqldb:mem:mrsconcurrent");
+        backend.init();
+        for (int i = 0; i < ROUNDS; i++) {
+            Movie m = new Movie("Movie " + i, LocalDate.of(2000, 1, 1), RegularPriceCategory.getInstance(), 0);
+            movieIds.add(backend.createMovie(m).getId());
+        }
+        for (int i = 0; i < COUNTERS; i++) {
+            userIds.add(backend.createUser(new User("Counter", "No. " + i, LocalDate.of(1980, 1, 1))).getId());
+        }
+        executor = Executors.newFixedThreadPool(COUNTERS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testNoDoubleRentalsOrReturns() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(COUNTERS);
+        AtomicInteger[] rented = new AtomicInteger[ROUNDS];
+        AtomicInteger[] returned = new AtomicInteger[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            rented[i] = new AtomicInteger();
+            returned[i] = new AtomicInteger();
+        }
+
+        List<Future<Void>> counters = new ArrayList<>();
+        for (int c = 0; c < COUNTERS; c++) {
+            int userId = userIds.get(c);
+            counters.add(executor.submit((Callable<Void>) () -> {
+                for (int round = 0; round < ROUNDS; round++) {
+                    int movieId = movieIds.get(round);
+                    User user = backend.getUserById(userId);
+                    Movie movie = backend.getMovieById(movieId);
+                    barrier.await(10, TimeUnit.SECONDS);
+                    try {
+                        if (backend.createRental(user, movie)) {
+                            rented[round].incrementAndGet();
+                        }
+                    } catch (RentalConflictException e) {
+                        assertTrue(user.getRentals().isEmpty());
+                    }
+                    barrier.await(10, TimeUnit.SECONDS);
+
+                    Rental rental = null;
+                    for (Rental r : backend.getAllRentals()) {
+                        if (r.getMovie().getId() == movieId) {
+                            rental = r;
+                        }
+                    }
+                    barrier.await(10, TimeUnit.SECONDS);
+                    try {
+                        if (rental != null && backend.returnRental(rental)) {
+                            returned[round].incrementAndGet();
+                        }
+                    } catch (RentalConflictException e) {
+                        // another counter returned it first
+                    }
+                    barrier.await(10, TimeUnit.SECONDS);
+                }
+                return null;
+            }));
+        }
+        for (Future<Void> f : counters) {
+            f.get(2, TimeUnit.MINUTES);
+        }
+
+        for (int i = 0; i < ROUNDS; i++) {
+            assertEquals("rentals of movie in round " + i, 1, rented[i].get());
+            assertEquals("returns of movie in round " + i, 1, returned[i].get());
+        }
+        assertTrue(backend.getAllRentals().isEmpty());
+        for (int id : movieIds) {
+            assertFalse(backend.getMovieById(id).isRented());
+        }
+    }
+
+    @Test
+    public void testConflictLeavesNoTrace() {
+        User first = backend.getUserById(userIds.get(0));
+        User second = backend.getUserById(userIds.get(1));
+        Movie copy1 = backend.getMovieById(movieIds.get(0));
+        Movie copy2 = backend.getMovieById(movieIds.get(0));
+        assertTrue(backend.createRental(first, copy1));
+        // editing a copy read before the rental keeps the movie rented
+        copy2.setTitle("Edited");
+        assertTrue(backend.updateMovie(copy2));
+        assertTrue(backend.getMovieById(movieIds.get(0)).isRented());
+        try {
+            backend.createRental(second, copy2);
+            throw new AssertionError("conflict expected");
+        } catch (RentalConflictException e) {
+            assertTrue(second.getRentals().isEmpty());
+        }
+        List<Rental> rentals = backend.getAllRentals();
+        assertEquals(1, rentals.size());
+        assertEquals(first.getId(), rentals.get(0).getUser().getId());
+
+        assertTrue(backend.returnRental(first.getRentals().get(0)));
+        assertTrue(first.getRentals().isEmpty());
+        try {
+            backend.returnRental(rentals.get(0));
+            throw new AssertionError("conflict expected");
+        } catch (RentalConflictException e) {
+            assertFalse(backend.getMovieById(movieIds.get(0)).isRented());
+        }
+    }
+
+    @Test
+    public void testBulkConflictLeavesNoTrace() {
+        User first = backend.getUserById(userIds.get(0));
+        User second = backend.getUserById(userIds.get(1));
+        Movie free = backend.getMovieById(movieIds.get(1));
+        Movie copy1 = backend.getMovieById(movieIds.get(2));
+        Movie copy2 = backend.getMovieById(movieIds.get(2));
+        assertTrue(backend.createRental(first, copy1));
+        backend.setBatchSize(1);
+        try {
+            backend.createRentals(Arrays.asList(new Rental(second, free), new Rental(second, copy2)));
+            throw new AssertionError("conflict expected");
+        } catch (RentalConflictException e) {
+            assertEquals(1, e.getIndex());
+            assertTrue(second.getRentals().isEmpty());
+            assertFalse(free.isRented());
+            assertTrue(copy2.isRented());
+        }
+        // the first batch is rolled back with the conflicting one
+        assertFalse(backend.getMovieById(movieIds.get(1)).isRented());
+        assertEquals(1, backend.getAllRentals().size());
+        assertTrue(backend.returnRental(first.getRentals().get(0)));
+    }
+}
@@ -0,0 +1,159 @@
+package ch.fhnw.swc.mrs.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.fhnw.swc.mrs.model.LowStockListener;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.MovieRentalException;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.RegularPriceCategory;
+import ch.fhnw.swc.mrs.model.Stock;
+
+public class ITInventoryDAO {
+    private static final String DB_CONNECTION = "jdbc:hsqldb:mem:mrsinventory";
+
+    private DbMRSServices backend;
+    private InventoryDAO dao;
+
+    @Before
+    public void setUp() throws Exception {
+        PriceCategory.init();
+        backend = new DbMRSServices(DB_CONNECTION);
+        backend.init();
+        // the database lives as long as the JVM, start every test with an empty inventory
+        try (Connection c = connection(); Statement st = c.createStatement()) {
+            st.executeUpdate("DELETE FROM inventory");
+        }
+        dao = new SQLInventoryDAO(connection());
+    }
+
+    private static Connection connection() {
+        try {
+            return DriverManager.getConnection(DB_CONNECTION, "SA", "");
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        dao.dispose();
+    }
+
+    @Test
+    public void testAddAndRemoveCopies() {
+        assertEquals(0, dao.getCopies("Titanic"));
+        assertEquals(1, dao.addCopy("Titanic"));
+        assertEquals(2, dao.addCopy("Titanic"));
+        assertEquals(1, dao.addCopy("Avatar"));
+        assertEquals(2, dao.getCopies("Titanic"));
+
+        assertEquals(1, dao.removeCopy("Titanic"));
+        assertEquals(0, dao.removeCopy("Titanic"));
+        assertEquals(-1, dao.removeCopy("Titanic"));
+        assertEquals(-1, dao.removeCopy("Alien"));
+        assertEquals(0, dao.getCopies("Titanic"));
+
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("Avatar", 1);
+        expected.put("Titanic", 0);
+        assertEquals(expected, dao.getAll());
+    }
+
+    @Test
+    public void testPersistentStock() {
+        Movie m = new Movie("Casablanca", LocalDate.of(1942, 11, 26), RegularPriceCategory.getInstance(), 0);
+        LowStockListener lsl = mock(LowStockListener.class);
+        when(lsl.getThreshold()).thenReturn(1);
+        Stock stock = new PersistentStock(() -> new SQLInventoryDAO(connection()), Runnable::run);
+        stock.addLowStockListener(lsl);
+        assertEquals(1, stock.addToStock(m));
+        assertEquals(2, stock.addToStock(m));
+
+        // a second stock on the same database sees the same copies
+        Stock other = backend.getStock();
+        assertEquals(2, other.getInStock("Casablanca"));
+        assertEquals(1, other.removeFromStock(m));
+
+        assertEquals(0, stock.removeFromStock(m));
+        verify(lsl).stockLow(m, 0);
+        try {
+            stock.removeFromStock(m);
+            throw new AssertionError("exception expected");
+        } catch (MovieRentalException e) {
+            assertEquals(0, stock.getInStock("Casablanca"));
+        }
+    }
+
+    @Test
+    public void testPersistentStockWithoutTitle() {
+        Movie m = mock(Movie.class);
+        Stock stock = new PersistentStock(() -> new SQLInventoryDAO(connection()), Runnable::run);
+        assertEquals(1, stock.addToStock(m));
+        assertEquals(1, stock.getInStock(null));
+        assertEquals(0, stock.removeFromStock(m));
+        assertEquals(0, stock.getInStock(null));
+    }
+
+    /** Counters sharing the inventory never hand out more copies than there are. */
+    @Test
+    public void testNoCopyIsRentedTwice() throws Exception {
+        final int counters = 8;
+        final int copies = 50;
+        Movie m = new Movie("Blockbuster", LocalDate.of(2018, 1, 1), RegularPriceCategory.getInstance(), 0);
+        Stock stock = backend.getStock();
+        for (int i = 0; i < copies; i++) {
+            stock.addToStock(m);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(counters);
+        try {
+            List<Future<Integer>> rented = new ArrayList<>();
+            for (int c = 0; c < counters; c++) {
+                rented.add(executor.submit((Callable<Integer>) () -> {
+                    int n = 0;
+                    for (int i = 0; i < copies; i++) {
+                        try {
+                            backend.getStock().removeFromStock(m);
+                            n++;
+                        } catch (MovieRentalException e) {
+                            // sold out
+                        }
+                    }
+                    return n;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> f : rented) {
+                total += f.get(1, TimeUnit.MINUTES);
+            }
+            assertEquals(copies, total);
+            assertEquals(0, stock.getInStock("Blockbuster"));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(dao.getAll().containsKey("Blockbuster"));
+    }
+}
@@ -0,0 +1,275 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.dbunit.DBTestCase;
+import org.dbunit.IDatabaseTester;
+import org.dbunit.JdbcDatabaseTester;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
+import org.dbunit.ext.hsqldb.HsqldbDataTypeFactory;
+import org.xml.sax.InputSource;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.RentalRecord;
+import ch.fhnw.swc.mrs.model.User;
+
+public class ITRentalDAO extends DBTestCase {
+
+    /** Class under test: RentalDAO. */
+    private RentalDAO dao;
+    private Connection connection;
+
+    private static final String DB_CONNECTION = "jdbc:hsqldb:mem:mrsrentals";
+
+    @Override
+    protected IDatabaseTester newDatabaseTester() throws Exception {
+        return new JdbcDatabaseTester(HsqlDatabase.DB_DRIVER, DB_CONNECTION, "sa", "");
+    }
+
+    @Override
+    protected void setUpDatabaseConfig(DatabaseConfig config) {
+        config.setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, new HsqldbDataTypeFactory());
+    }
+
+    @Override
+    protected IDataSet getDataSet() throws Exception {
+        InputStream stream = this.getClass().getResourceAsStream("RentalDaoTestData.xml");
+        return new FlatXmlDataSetBuilder().build(new InputSource(stream));
+    }
+
+    static {
+        try {
+            new HsqlDatabase().initDB(DB_CONNECTION);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Initialize the DAO on a fresh connection.
+     *
+     * @throws Exception whenever something goes wrong.
+     */
+    public void setUp() throws Exception {
+        super.setUp();
+        PriceCategory.init();
+        connection = getConnection().getConnection();
+        dao = new SQLRentalDAO(connection);
+    }
+
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    public void testGetAll() {
+        List<Rental> rentals = dao.getAll();
+        assertEquals(2, rentals.size());
+        for (Rental r : rentals) {
+            assertTrue(r.getMovie().isRented());
+            assertEquals(1, r.getUser().getRentals().size());
+        }
+    }
+
+    public void testGetAllRecords() {
+        Map<Integer, Rental> rentals = new HashMap<>();
+        for (Rental r : dao.getAll()) {
+            rentals.put(r.getId(), r);
+        }
+        List<RentalRecord> records = dao.getAllRecords();
+        assertEquals(rentals.size(), records.size());
+        for (RentalRecord rec : records) {
+            Rental r = rentals.get(rec.getId());
+            assertEquals(r.getUser().getId(), rec.getUserId());
+            assertEquals(r.getMovie().getId().intValue(), rec.getMovieId());
+            assertEquals(r.getRentalDate(), rec.getRentalDate());
+        }
+    }
+
+    public void testGetById() {
+        Rental r = dao.getById(5);
+        assertEquals(5, r.getId());
+        assertEquals(LocalDate.of(2017, 8, 31), r.getRentalDate());
+        assertEquals("Titanic", r.getMovie().getTitle());
+        assertEquals(1, r.getMovie().getId().intValue());
+        assertEquals("Donald", r.getUser().getFirstName());
+        assertEquals(13, r.getUser().getId());
+        assertNull(dao.getById(42));
+    }
+
+    public void testGetAllSharesUsers() throws Exception {
+        Statement s = connection.createStatement();
+        s.executeUpdate("INSERT INTO rentals (id, movieid, clientid, rentaldate) VALUES (9, 3, 13, '2017-09-01')");
+        s.close();
+
+        List<Rental> rentals = dao.getAll();
+        assertEquals(3, rentals.size());
+        Rental first = null;
+        for (Rental r : rentals) {
+            if (r.getUser().getId() == 13) {
+                if (first == null) {
+                    first = r;
+                } else {
+                    assertSame(first.getUser(), r.getUser());
+                }
+            }
+        }
+        assertNotNull(first);
+        assertEquals(2, first.getUser().getRentals().size());
+    }
+
+    public void testGetRentalsByUser() {
+        User donald = new SQLUserDAO(connection).getById(13);
+        assertTrue(donald.getRentals().isEmpty());
+        List<Rental> rentals = dao.getRentalsByUser(donald);
+        assertEquals(1, rentals.size());
+        assertSame(donald, rentals.get(0).getUser());
+        assertEquals("Titanic", rentals.get(0).getMovie().getTitle());
+        assertEquals(rentals, donald.getRentals());
+
+        // loading again must not duplicate the user's rentals
+        dao.getRentalsByUser(donald);
+        assertEquals(1, donald.getRentals().size());
+
+        User micky = new SQLUserDAO(connection).getById(42);
+        assertTrue(dao.getRentalsByUser(micky).isEmpty());
+    }
+
+    public void testGetRentalsByUserKeepsRentalsOnFailure() throws Exception {
+        User donald = new SQLUserDAO(connection).getById(13);
+        dao.getRentalsByUser(donald);
+        List<Rental> loaded = donald.getRentals();
+
+        Connection closed = getConnection().getConnection();
+        closed.close();
+        try {
+            new SQLRentalDAO(closed).getRentalsByUser(donald);
+            fail("reading through a closed connection must fail");
+        } catch (RuntimeException e) {
+            assertSame(loaded, donald.getRentals());
+            assertEquals(1, donald.getRentals().size());
+        }
+    }
+
+    public void testUsersWithRentals() {
+        UserDAO users = new SQLUserDAO(connection, true);
+        int total = 0;
+        for (User u : users.getAll()) {
+            for (Rental r : u.getRentals()) {
+                assertSame(u, r.getUser());
+            }
+            total += u.getRentals().size();
+        }
+        assertEquals(2, total);
+        assertEquals(1, users.getById(99).getRentals().size());
+        assertEquals(0, users.getById(42).getRentals().size());
+        List<User> ducks = users.getByName("Duck");
+        assertEquals(2, ducks.size());
+        assertEquals(1, ducks.get(0).getRentals().size());
+        assertEquals(1, ducks.get(1).getRentals().size());
+        assertTrue(new SQLUserDAO(connection).getById(99).getRentals().isEmpty());
+    }
+
+    public void testInsertAllAndDeleteAll() throws Exception {
+        SQLMovieDAO movies = new SQLMovieDAO(connection);
+        SQLUserDAO users = new SQLUserDAO(connection);
+        Movie casablanca = movies.getById(3);
+        List<User> newUsers = Arrays.asList(new User("Duck", "Tick", LocalDate.of(2000, 1, 1)),
+                new User("Duck", "Trick", LocalDate.of(2000, 1, 2)),
+                new User("Duck", "Track", LocalDate.of(2000, 1, 3)));
+        List<Integer> userIds = users.insertAll(newUsers, 2);
+        assertEquals(3, userIds.size());
+        for (int i = 0; i < newUsers.size(); i++) {
+            assertEquals(userIds.get(i).intValue(), newUsers.get(i).getId());
+            assertEquals(newUsers.get(i).getFirstName(), users.getById(userIds.get(i)).getFirstName());
+        }
+
+        Rental r = new Rental(newUsers.get(1), casablanca);
+        List<Integer> rentalIds = dao.insertAll(Arrays.asList(r), 2);
+        assertEquals(r.getId(), rentalIds.get(0).intValue());
+        assertEquals("Trick", dao.getById(r.getId()).getUser().getFirstName());
+        assertTrue(movies.getById(3).isRented());
+
+        dao.deleteAll(Arrays.asList(r), 2);
+        assertNull(dao.getById(r.getId()));
+        assertFalse(movies.getById(3).isRented());
+
+        newUsers.get(0).setFirstName("Tic");
+        users.updateAll(newUsers, 2);
+        assertEquals("Tic", users.getById(userIds.get(0)).getFirstName());
+        users.deleteAll(newUsers, 2);
+        Statement s = connection.createStatement();
+        ResultSet count = s.executeQuery("SELECT COUNT(*) FROM clients");
+        count.next();
+        assertEquals(3, count.getInt(1));
+        s.close();
+    }
+
+    public void testInsertAllRollsBackAllBatches() throws Exception {
+        SQLMovieDAO movies = new SQLMovieDAO(connection);
+        User micky = new SQLUserDAO(connection).getById(42);
+        Movie casablanca = movies.getById(3);
+        Movie rented = movies.getById(1);
+        rented.setRented(false); // a stale copy
+        try {
+            dao.insertAll(Arrays.asList(new Rental(micky, casablanca), new Rental(micky, rented)), 1);
+            fail("conflict expected");
+        } catch (RentalConflictException e) {
+            assertEquals(1, e.getIndex());
+        }
+        assertFalse(movies.getById(3).isRented());
+        assertEquals(2, dao.getAll().size());
+    }
+
+    public void testGetPage() {
+        SQLUserDAO users = new SQLUserDAO(connection, true);
+        List<User> page = users.getPage(0, 2);
+        assertEquals(2, page.size());
+        assertEquals(13, page.get(0).getId());
+        assertEquals(1, page.get(0).getRentals().size());
+        assertEquals(42, page.get(1).getId());
+        assertTrue(page.get(1).getRentals().isEmpty());
+        page = users.getPage(42, 2);
+        assertEquals(1, page.size());
+        assertEquals(99, page.get(0).getId());
+        assertEquals(1, page.get(0).getRentals().size());
+        assertTrue(users.getPage(99, 2).isEmpty());
+
+        List<Rental> rentals = dao.getPage(5, 10);
+        assertEquals(1, rentals.size());
+        assertEquals(8, rentals.get(0).getId());
+        assertEquals(2, new SQLMovieDAO(connection).getPage(1, 5).size());
+    }
+
+    public void testStream() {
+        try (Stream<User> users = new SQLUserDAO(connection, true).stream()) {
+            List<User> all = users.collect(Collectors.toList());
+            assertEquals(3, all.size());
+            assertEquals(13, all.get(0).getId());
+            assertEquals(1, all.get(0).getRentals().size());
+            assertSame(all.get(0), all.get(0).getRentals().get(0).getUser());
+            assertTrue(all.get(1).getRentals().isEmpty());
+            assertEquals(1, all.get(2).getRentals().size());
+        }
+        try (Stream<Rental> rentals = dao.stream()) {
+            assertEquals(5, rentals.findFirst().get().getId());
+        }
+        try (Stream<Movie> movies = new SQLMovieDAO(connection).stream()) {
+            assertEquals(2, movies.filter(m -> m.isRented()).count());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ch.fhnw.swc.mrs.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.RegularPriceCategory;
+import ch.fhnw.swc.mrs.model.User;
+
+/**
+ * Migrations are run again after a failure and the foreign keys they add keep rented movies and their users.
+ */
+public class ITSchemaMigration {
+    private static final String DB_CONNECTION = "jdbc:hsqldb:mem:mrsmigration";
+
+    @Before
+    public void setUp() {
+        PriceCategory.init();
+    }
+
+    @Test
+    public void testMigrationsRunAgain() throws Exception {
+        HsqlDatabase db = new HsqlDatabase();
+        db.initDB(DB_CONNECTION);
+        try (Connection c = db.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("delete from schema_version");
+        }
+
+        // all migrations were applied already, as if each failed after its last statement
+        db.initDB(DB_CONNECTION);
+        try (Connection c = db.getConnection(); Statement st = c.createStatement();
+                ResultSet r = st.executeQuery("select max(version) from schema_version")) {
+            r.next();
+            assertEquals(HsqlDatabase.SCHEMA_VERSION, r.getInt(1));
+        }
+    }
+
+    @Test
+    public void testRentedMovieAndUserAreNotDeleted() {
+        DbMRSServices backend = new DbMRSServices(DB_CONNECTION);
+        backend.init();
+        User u = backend.createUser(new User("Duck", "Donald", LocalDate.of(1934, 6, 9)));
+        Movie m = backend.createMovie(
+                new Movie("Rented", LocalDate.of(2000, 1, 1), RegularPriceCategory.getInstance(), 0));
+        assertTrue(backend.createRental(u, m));
+
+        assertFalse(backend.deleteMovie(m));
+        assertFalse(backend.deleteUser(u));
+        assertEquals(m.getTitle(), backend.getMovieById(m.getId()).getTitle());
+        assertEquals(u.getName(), backend.getUserById(u.getId()).getName());
+        backend.shutdown();
+    }
+}
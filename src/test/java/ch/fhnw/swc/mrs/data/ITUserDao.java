@@ -33,6 +33,7 @@ import org.xml.sax.InputSource;
 
 import ch.fhnw.swc.mrs.model.PriceCategory;
 import ch.fhnw.swc.mrs.model.User;
+import ch.fhnw.swc.mrs.model.UserRecord;
 
 
 public class ITUserDao extends DBTestCase {
@@ -146,6 +147,16 @@ public class ITUserDao extends DBTestCase {
         Assertion.assertEquals(expectedTable, actualTable);
     }
     
+    public void testGetAllRecords() {
+        List<User> users = dao.getAll();
+        List<UserRecord> records = dao.getAllRecords();
+        assertEquals(users.size(), records.size());
+        for (int i = 0; i < users.size(); i++) {
+            User u = users.get(i);
+            assertEquals(new UserRecord(u.getId(), u.getName(), u.getFirstName(), u.getBirthdate()), records.get(i));
+        }
+    }
+
     public void testGetAllSingleRow() throws Exception {
         InputStream stream = this.getClass().getResourceAsStream("UserDaoSingleRowTest.xml");
         IDataSet dataSet = new FlatXmlDataSetBuilder().build(stream);
@@ -214,6 +225,26 @@ public class ITUserDao extends DBTestCase {
         int rows2 = r.getInt(1);
         assertEquals(rows1 + 1, rows2);
     }
+
+    public void testSaveThenUpdate() throws Exception {
+        Statement s = connection.createStatement();
+        ResultSet r = s.executeQuery(COUNT_SQL);
+        r.next();
+        int rows1 = r.getInt(1);
+
+        User goofy = new User("Goofy", "Goofus", LocalDate.of(1936, 10, 12));
+        dao.saveOrUpdate(goofy);
+        int id = goofy.getId();
+        assertTrue(id > 0);
+        goofy.setFirstName("Goof");
+        dao.saveOrUpdate(goofy);
+        assertEquals(id, goofy.getId());
+        assertEquals("Goof", dao.getById(id).getFirstName());
+
+        r = s.executeQuery(COUNT_SQL);
+        r.next();
+        assertEquals(rows1 + 1, r.getInt(1));
+    }
     
 	@SuppressWarnings("deprecation")
 	private ITable convertToTable(List<User> userlist) throws Exception {
@@ -0,0 +1,206 @@
+package ch.fhnw.swc.mrs.data;
+
+import static ch.fhnw.swc.mrs.model.Fixtures.movie;
+import static ch.fhnw.swc.mrs.model.Fixtures.user;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.User;
+
+public class InMemoryMRSServicesTest {
+    private InMemoryMRSServices services;
+
+    @Before
+    public void setUp() {
+        PriceCategory.init();
+        services = new InMemoryMRSServices();
+        services.init();
+    }
+
+    @Test
+    public void testMovies() {
+        Movie m = services.createMovie(movie("Titanic"));
+        services.createMovie(movie("Avatar"));
+        services.createMovie(movie("Titanic"));
+        assertEquals(100, (int) m.getId());
+
+        Movie copy = services.getMovieById(100);
+        assertEquals(m, copy);
+        copy.setTitle("Changed");
+        assertEquals("Titanic", services.getMovieById(100).getTitle());
+
+        assertEquals(2, services.getMoviesByTitle("Titanic").size());
+        m.setTitle("Alien");
+        assertTrue(services.updateMovie(m));
+        assertEquals(1, services.getMoviesByTitle("Titanic").size());
+        assertEquals(100, (int) services.getMoviesByTitle("Alien").get(0).getId());
+
+        assertEquals(Arrays.asList(101, 102), ids(services.getMoviesPage(100, 5)));
+        try (Stream<Movie> s = services.streamMovies()) {
+            assertEquals(Arrays.asList(100, 101, 102), s.map(Movie::getId).collect(Collectors.toList()));
+        }
+        assertEquals(3, services.getMovieRecords().size());
+
+        assertTrue(services.deleteMovie(m));
+        assertNull(services.getMovieById(100));
+        assertTrue(services.getMoviesByTitle("Alien").isEmpty());
+        assertEquals(2, services.getAllMovies(false).size());
+    }
+
+    @Test
+    public void testUsers() {
+        services.createUsers(Arrays.asList(user("Muster"), user("Meier"), user("Muster")));
+        assertEquals(100, services.getUserByName("Muster").getId());
+        assertEquals(2, services.getUsersByName("Muster").size());
+        assertNull(services.getUserByName("Keller"));
+
+        User u = services.getUserById(101);
+        u.setName("Keller");
+        assertTrue(services.updateUser(u));
+        assertTrue(services.getUsersByName("Meier").isEmpty());
+        assertEquals(101, services.getUserByName("Keller").getId());
+
+        assertTrue(services.deleteUsers(services.getUsersByName("Muster")));
+        assertEquals(Arrays.asList(101), services.getAllUsers().stream().map(User::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testRentals() {
+        Movie m = services.createMovie(movie("Titanic"));
+        services.createMovie(movie("Avatar"));
+        User u = services.createUser(user("Muster"));
+
+        assertTrue(services.createRental(u, m));
+        assertTrue(m.isRented());
+        assertEquals(1, u.getRentals().size());
+        assertEquals(Arrays.asList(100), ids(services.getAllMovies(true)));
+        assertEquals(Arrays.asList(101), ids(services.getAllMovies(false)));
+
+        // the movie and the user still refer to each other
+        assertFalse(services.deleteMovie(m));
+        assertFalse(services.deleteUser(u));
+
+        User other = services.createUser(user("Meier"));
+        try {
+            services.createRental(other, services.getMovieById(100));
+            fail("conflict expected");
+        } catch (RentalConflictException e) {
+            assertTrue(other.getRentals().isEmpty());
+        }
+
+        User loaded = services.getUserById(u.getId());
+        assertEquals(1, loaded.getRentals().size());
+        Rental r = services.getAllRentals().get(0);
+        assertEquals(u.getId(), r.getUser().getId());
+        assertEquals(m.getId(), r.getMovie().getId());
+
+        assertTrue(services.returnRental(r));
+        assertFalse(services.getMovieById(100).isRented());
+        assertTrue(services.getAllRentals().isEmpty());
+        try {
+            services.returnRental(r);
+            fail("conflict expected");
+        } catch (RentalConflictException e) {
+            assertTrue(services.getRentalRecords().isEmpty());
+        }
+        assertTrue(services.deleteUser(u));
+    }
+
+    @Test
+    public void testStaleMovieStaysRented() {
+        Movie m = services.createMovie(movie("Titanic"));
+        Movie stale = services.getMovieById(m.getId());
+        User u = services.createUser(user("Muster"));
+        assertTrue(services.createRental(u, m));
+
+        stale.setTitle("Avatar");
+        assertTrue(services.updateMovie(stale));
+        assertTrue(services.getMovieById(m.getId()).isRented());
+        assertTrue(services.getAllMovies(false).isEmpty());
+        assertFalse(services.deleteMovie(stale));
+        assertFalse(services.deleteMovies(Arrays.asList(stale)));
+        assertEquals(1, services.getAllRentals().size());
+    }
+
+    @Test
+    public void testCreateRentalsIsAllOrNothing() {
+        User u = services.createUser(user("Muster"));
+        Movie m1 = services.createMovie(movie("Titanic"));
+        Movie m2 = services.createMovie(movie("Avatar"));
+        assertTrue(services.createRental(services.getUserById(u.getId()), services.getMovieById(m2.getId())));
+
+        try {
+            services.createRentals(Arrays.asList(new Rental(u, m1), new Rental(u, m2)));
+            fail("conflict expected");
+        } catch (RentalConflictException e) {
+            assertFalse(services.getMovieById(m1.getId()).isRented());
+            assertEquals(1, services.getRentalRecords().size());
+        }
+    }
+
+    @Test
+    public void testWriteThrough() {
+        DbMRSServices db = new DbMRSServices("jdbc:hsqldb:mem:mrsinmemory");
+        db.init();
+        Movie stored = db.createMovie(movie("Casablanca"));
+
+        InMemoryMRSServices cache = new InMemoryMRSServices(db);
+        cache.init();
+        assertEquals("Casablanca", cache.getMovieById(stored.getId()).getTitle());
+
+        User u = cache.createUser(user("Muster"));
+        assertEquals(u, db.getUserById(u.getId()));
+        assertTrue(cache.createRental(u, cache.getMovieById(stored.getId())));
+        assertTrue(db.getMovieById(stored.getId()).isRented());
+        assertEquals(db.getRentalRecords(), cache.getRentalRecords());
+
+        assertTrue(cache.returnRental(cache.getAllRentals().get(0)));
+        assertTrue(db.getAllRentals().isEmpty());
+        assertFalse(cache.getMovieById(stored.getId()).isRented());
+    }
+
+    @Test
+    public void testBackendConflictIsReadAgain() {
+        DbMRSServices db = new DbMRSServices("jdbc:hsqldb:mem:mrsinmemoryconflict");
+        db.init();
+        User other = db.createUser(user("Meier"));
+        Movie free = db.createMovie(movie("Titanic"));
+        Movie taken = db.createMovie(movie("Avatar"));
+
+        InMemoryMRSServices cache = new InMemoryMRSServices(db);
+        cache.init();
+        User u = cache.createUser(user("Muster"));
+        // another counter rents a movie the cache still considers available
+        assertTrue(db.createRental(other, db.getMovieById(taken.getId())));
+
+        try {
+            cache.createRentals(Arrays.asList(new Rental(u, cache.getMovieById(free.getId())),
+                    new Rental(u, cache.getMovieById(taken.getId()))));
+            fail("conflict expected");
+        } catch (RentalConflictException e) {
+            assertFalse(cache.getMovieById(free.getId()).isRented());
+            assertTrue(cache.getMovieById(taken.getId()).isRented());
+            assertTrue(cache.getUserById(u.getId()).getRentals().isEmpty());
+        }
+    }
+
+    private static List<Integer> ids(List<Movie> movies) {
+        return movies.stream().map(Movie::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,150 @@
+package ch.fhnw.swc.mrs.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PooledDatabaseTest {
+    private Database delegate;
+    private Connection physical1;
+    private Connection physical2;
+
+    @Before
+    public void setUp() throws Exception {
+        delegate = mock(Database.class);
+        physical1 = mock(Connection.class);
+        physical2 = mock(Connection.class);
+        when(physical1.isValid(anyInt())).thenReturn(true);
+        when(physical2.isValid(anyInt())).thenReturn(true);
+        when(physical1.getAutoCommit()).thenReturn(true);
+        when(physical2.getAutoCommit()).thenReturn(true);
+        when(delegate.getConnection()).thenReturn(physical1, physical2);
+    }
+
+    @Test
+    public void testConnectionIsReused() throws Exception {
+        PooledDatabase pool = new PooledDatabase(delegate, 1, 2);
+        pool.initDB("jdbc:test");
+        verify(delegate).initDB("jdbc:test");
+
+        Connection c = pool.getConnection();
+        assertFalse(c.isClosed());
+        c.close();
+        assertTrue(c.isClosed());
+        c.close(); // closing twice must not corrupt the pool
+
+        Connection d = pool.getConnection();
+        assertNotSame(c, d);
+        d.createStatement();
+        verify(physical1).createStatement();
+        d.close();
+
+        PoolStatistics stats = pool.getStatistics();
+        assertEquals(1, stats.getCreatedCount());
+        assertEquals(2, stats.getBorrowCount());
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+    }
+
+    @Test(expected = SQLException.class)
+    public void testClosedConnectionRejectsCalls() throws Exception {
+        PooledDatabase pool = new PooledDatabase(delegate, 0, 1);
+        pool.initDB("jdbc:test");
+        Connection c = pool.getConnection();
+        c.close();
+        c.createStatement();
+    }
+
+    @Test
+    public void testPoolIsBounded() throws Exception {
+        PooledDatabase pool = new PooledDatabase(delegate, 0, 1);
+        pool.setBorrowTimeout(20);
+        pool.initDB("jdbc:test");
+        Connection c = pool.getConnection();
+        try {
+            pool.getConnection();
+            fail("pool must not hand out more than max connections");
+        } catch (SQLTimeoutException e) {
+            PoolStatistics stats = pool.getStatistics();
+            assertEquals(1, stats.getActive());
+            assertEquals(1, stats.getWaitCount());
+            assertTrue(stats.getTotalWaitMillis() >= 10);
+        }
+        c.close();
+        pool.getConnection().close();
+        assertEquals(1, pool.getStatistics().getCreatedCount());
+    }
+
+    @Test
+    public void testInvalidConnectionIsReplaced() throws Exception {
+        when(physical1.isValid(anyInt())).thenReturn(false);
+        PooledDatabase pool = new PooledDatabase(delegate, 1, 2);
+        pool.initDB("jdbc:test");
+
+        Connection c = pool.getConnection();
+        c.createStatement();
+        verify(physical2).createStatement();
+        verify(physical1).close();
+        assertEquals(1, pool.getStatistics().getValidationFailures());
+    }
+
+    @Test
+    public void testOpenTransactionIsRolledBackOnReturn() throws Exception {
+        PooledDatabase pool = new PooledDatabase(delegate, 0, 1);
+        pool.initDB("jdbc:test");
+        when(physical1.getAutoCommit()).thenReturn(false);
+        pool.getConnection().close();
+        verify(physical1).rollback();
+        verify(physical1).setAutoCommit(true);
+    }
+
+    @Test
+    public void testLeakDetection() throws Exception {
+        PooledDatabase pool = new PooledDatabase(delegate, 0, 2);
+        pool.setLeakThreshold(1);
+        pool.initDB("jdbc:test");
+        Connection c = pool.getConnection();
+        Thread.sleep(10);
+        assertEquals(1, pool.detectLeaks());
+        assertEquals(1, pool.detectLeaks());
+        assertEquals(1, pool.getStatistics().getLeakCount());
+        c.close();
+        assertEquals(0, pool.detectLeaks());
+    }
+
+    @Test
+    public void testStatementsAreCachedAcrossBorrows() throws Exception {
+        when(physical1.prepareStatement("SELECT 1")).thenReturn(mock(PreparedStatement.class));
+        PooledDatabase pool = new PooledDatabase(delegate, 1, 1);
+        pool.initDB("jdbc:test");
+
+        Connection c = pool.getConnection();
+        PreparedStatement ps = c.prepareStatement("SELECT 1");
+        ps.close();
+        c.close();
+        c = pool.getConnection();
+        assertSame(ps, c.prepareStatement("SELECT 1"));
+        c.close();
+
+        verify(physical1, times(1)).prepareStatement("SELECT 1");
+        PoolStatistics stats = pool.getStatistics();
+        assertEquals(1, stats.getStatementHits());
+        assertEquals(1, stats.getStatementMisses());
+    }
+}
@@ -0,0 +1,107 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.LinkedList;
+import java.util.List;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.User;
+
+/**
+ * Compares loading all rentals with one getById lookup per movie and user (the former SQLRentalDAO.getAll)
+ * against the join-based SQLRentalDAO.getAll. Run with the number of rentals as optional argument.
+ */
+public final class RentalLoadingBenchmark {
+    private static final String DB_CONNECTION = "jdbc:hsqldb:mem:rentalbenchmark";
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 5;
+
+    private RentalLoadingBenchmark() { }
+
+    /**
+     * @param args optional number of rentals to generate, defaults to 10000.
+     * @throws Exception whenever something goes wrong.
+     */
+    public static void main(String[] args) throws Exception {
+        int rentals = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        PriceCategory.init();
+        HsqlDatabase db = new HsqlDatabase();
+        db.initDB(DB_CONNECTION);
+        try (Connection c = db.getConnection()) {
+            populate(c, rentals);
+            System.out.printf("rentals: %d%n", rentals);
+            System.out.printf("per-row lookups: %8.1f ms%n", measure(() -> loadWithLookups(c)));
+            System.out.printf("join loader:     %8.1f ms%n", measure(() -> new SQLRentalDAO(c).getAll().size()));
+        }
+    }
+
+    private static double measure(Load load) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            load.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            load.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    /** The former implementation: one query for the rentals, then two more per row. */
+    private static int loadWithLookups(Connection c) throws Exception {
+        List<Rental> result = new LinkedList<>();
+        SQLMovieDAO movies = new SQLMovieDAO(c);
+        SQLUserDAO users = new SQLUserDAO(c);
+        try (PreparedStatement ps = c.prepareStatement("SELECT id, movieid, clientid, rentaldate FROM rentals");
+             ResultSet r = ps.executeQuery()) {
+            while (r.next()) {
+                Movie m = movies.getById(r.getInt("movieid"));
+                User u = users.getById(r.getInt("clientid"));
+                result.add(Rental.materializeRentalFromDB(r.getInt("id"), u, m, r.getDate("rentaldate").toLocalDate()));
+            }
+        }
+        return result.size();
+    }
+
+    private static void populate(Connection c, int rentals) throws Exception {
+        Date today = Date.valueOf(LocalDate.now());
+        int clients = Math.max(1, rentals / 3);
+        try (PreparedStatement movie = c.prepareStatement("INSERT INTO movies (id, title, isrented, releasedate, "
+                + "pricecategory, agerating) VALUES (?, ?, TRUE, ?, 1, 0)");
+             PreparedStatement client = c.prepareStatement(
+                     "INSERT INTO clients (id, name, firstname, birthdate) VALUES (?, ?, 'First', ?)");
+             PreparedStatement rental = c.prepareStatement(
+                     "INSERT INTO rentals (id, movieid, clientid, rentaldate) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < clients; i++) {
+                client.setInt(1, i);
+                client.setString(2, "Client" + i);
+                client.setDate(3, Date.valueOf("1980-01-01"));
+                client.addBatch();
+            }
+            client.executeBatch();
+            for (int i = 0; i < rentals; i++) {
+                movie.setInt(1, i);
+                movie.setString(2, "Movie" + i);
+                movie.setDate(3, today);
+                movie.addBatch();
+                rental.setInt(1, i);
+                rental.setInt(2, i);
+                rental.setInt(3, i % clients);
+                rental.setDate(4, today);
+                rental.addBatch();
+            }
+            movie.executeBatch();
+            rental.executeBatch();
+        }
+    }
+
+    /** A measured load operation. */
+    private interface Load {
+        int run() throws Exception;
+    }
+}
@@ -0,0 +1,144 @@
+package ch.fhnw.swc.mrs.data;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.User;
+
+/**
+ * Measures the hot lookups of the DAOs on a generated dataset, first on the plain tables of DBSetup.script and
+ * then after HsqlDatabase applied its schema migrations (indexes and foreign keys). Run with the number of
+ * movies as optional argument; a quarter as many clients and a thousandth as many rentals are generated.
+ */
+public final class SchemaBenchmark {
+    private static final String DB_CONNECTION = "jdbc:hsqldb:mem:schemabenchmark";
+    private static final int LOOKUPS = 50;
+    private static final int BATCH = 10000;
+
+    private final int movies;
+    private final int clients;
+    private final int rentals;
+    private final Random random = new Random(42);
+
+    private SchemaBenchmark(int movies) {
+        this.movies = movies;
+        this.clients = Math.max(1, movies / 4);
+        this.rentals = Math.max(1, movies / 1000);
+    }
+
+    /**
+     * @param args optional number of movies to generate, defaults to 1000000.
+     * @throws Exception whenever something goes wrong.
+     */
+    public static void main(String[] args) throws Exception {
+        PriceCategory.init();
+        new SchemaBenchmark(args.length > 0 ? Integer.parseInt(args[0]) : 1000000).run();
+    }
+
+    private void run() throws Exception {
+        Class.forName(HsqlDatabase.DB_DRIVER);
+        try (Connection c = DriverManager.getConnection(DB_CONNECTION, "SA", "")) {
+            createTables(c);
+            populate(c);
+            System.out.printf("movies: %d, clients: %d, rentals: %d%n", movies, clients, rentals);
+            System.out.println("without migrations:");
+            measure(c);
+            long start = System.nanoTime();
+            new HsqlDatabase().initDB(DB_CONNECTION);
+            System.out.printf("migration to schema version %d: %.0f ms%n", HsqlDatabase.SCHEMA_VERSION,
+                    (System.nanoTime() - start) / 1e6);
+            System.out.println("with migrations:");
+            measure(c);
+        }
+    }
+
+    private void measure(Connection c) {
+        SQLMovieDAO movieDao = new SQLMovieDAO(c);
+        SQLUserDAO userDao = new SQLUserDAO(c);
+        SQLRentalDAO rentalDao = new SQLRentalDAO(c);
+        report("MovieDAO.getAll(true)", () -> movieDao.getAll(true).size());
+        report("MovieDAO.getByTitle", () -> movieDao.getByTitle("Movie" + random.nextInt(movies)).size());
+        report("UserDAO.getByName", () -> userDao.getByName("Client" + random.nextInt(clients)).size());
+        report("RentalDAO.getRentalsByUser", () -> {
+            User u = new User("Client", "First", LocalDate.of(1980, 1, 1));
+            u.setId(random.nextInt(clients));
+            return rentalDao.getRentalsByUser(u).size();
+        });
+    }
+
+    private static void report(String name, Lookup lookup) {
+        lookup.run(); // warm up
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookup.run();
+        }
+        System.out.printf("  %-28s %10.3f ms/op%n", name, (System.nanoTime() - start) / 1e6 / LOOKUPS);
+    }
+
+    private static void createTables(Connection c) throws Exception {
+        try (BufferedReader script = new BufferedReader(new InputStreamReader(
+                SchemaBenchmark.class.getResourceAsStream("/data/DBSetup.script")));
+             Statement st = c.createStatement()) {
+            String line;
+            while ((line = script.readLine()) != null) {
+                st.executeUpdate(line);
+            }
+        }
+    }
+
+    private void populate(Connection c) throws Exception {
+        Date today = Date.valueOf(LocalDate.now());
+        Date birthdate = Date.valueOf("1980-01-01");
+        c.setAutoCommit(false);
+        try (PreparedStatement movie = c.prepareStatement("INSERT INTO movies (id, title, isrented, releasedate, "
+                + "pricecategory, agerating) VALUES (?, ?, ?, ?, '1', 0)");
+             PreparedStatement client = c.prepareStatement(
+                     "INSERT INTO clients (id, name, firstname, birthdate) VALUES (?, ?, 'First', ?)");
+             PreparedStatement rental = c.prepareStatement(
+                     "INSERT INTO rentals (id, movieid, clientid, rentaldate) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < movies; i++) {
+                movie.setInt(1, i);
+                movie.setString(2, "Movie" + i);
+                movie.setBoolean(3, i % 1000 == 0);
+                movie.setDate(4, today);
+                movie.addBatch();
+                if (i % BATCH == BATCH - 1 || i == movies - 1) {
+                    movie.executeBatch();
+                }
+            }
+            for (int i = 0; i < clients; i++) {
+                client.setInt(1, i);
+                client.setString(2, "Client" + i);
+                client.setDate(3, birthdate);
+                client.addBatch();
+                if (i % BATCH == BATCH - 1 || i == clients - 1) {
+                    client.executeBatch();
+                }
+            }
+            for (int i = 0; i < rentals; i++) {
+                rental.setInt(1, i);
+                rental.setInt(2, i * 1000);
+                rental.setInt(3, random.nextInt(clients));
+                rental.setDate(4, today);
+                rental.addBatch();
+            }
+            rental.executeBatch();
+            c.commit();
+        } finally {
+            c.setAutoCommit(true);
+        }
+    }
+
+    /** A measured lookup. */
+    private interface Lookup {
+        int run();
+    }
+}
@@ -0,0 +1,97 @@
+package ch.fhnw.swc.mrs.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StatementCacheTest {
+    private Connection connection;
+    private PreparedStatement select1;
+    private PreparedStatement select2;
+    private PreparedStatement insert;
+    private AtomicLong hits;
+    private AtomicLong misses;
+    private AtomicLong evictions;
+    private StatementCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = mock(Connection.class);
+        select1 = mock(PreparedStatement.class);
+        select2 = mock(PreparedStatement.class);
+        insert = mock(PreparedStatement.class);
+        when(connection.prepareStatement("select")).thenReturn(select1, select2);
+        when(connection.prepareStatement("insert", Statement.RETURN_GENERATED_KEYS)).thenReturn(insert);
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        evictions = new AtomicLong();
+        cache = new StatementCache(connection, 1, hits, misses, evictions);
+    }
+
+    @Test
+    public void testStatementIsReused() throws Exception {
+        PreparedStatement ps = cache.prepare("select");
+        ps.setInt(1, 42);
+        verify(select1).setInt(1, 42);
+        ps.close();
+        assertTrue(ps.isClosed());
+        verify(select1).clearParameters();
+        verify(select1, never()).close();
+
+        PreparedStatement again = cache.prepare("select");
+        assertSame(ps, again);
+        assertFalse(again.isClosed());
+        verify(connection, times(1)).prepareStatement("select");
+        assertEquals(1, hits.get());
+        assertEquals(1, misses.get());
+    }
+
+    @Test(expected = SQLException.class)
+    public void testClosedStatementRejectsCalls() throws Exception {
+        PreparedStatement ps = cache.prepare("select");
+        ps.close();
+        ps.executeQuery();
+    }
+
+    @Test
+    public void testStatementInUseIsNotShared() throws Exception {
+        PreparedStatement ps = cache.prepare("select");
+        PreparedStatement other = cache.prepare("select");
+        assertNotSame(ps, other);
+        assertSame(select2, other);
+        assertEquals(2, misses.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        PreparedStatement ps = cache.prepare("select");
+        ps.close();
+        PreparedStatement keys = cache.prepare("insert", Statement.RETURN_GENERATED_KEYS);
+        assertEquals(1, evictions.get());
+        assertEquals(1, cache.size());
+        verify(select1).close();
+
+        // an evicted statement still in use is closed when given back
+        cache.prepare("select");
+        verify(insert, never()).close();
+        keys.close();
+        verify(insert).close();
+    }
+}
@@ -0,0 +1,52 @@
+package ch.fhnw.swc.mrs.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class BusinessClockTest {
+    private final LocalDate day = LocalDate.of(2017, 8, 31);
+
+    @After
+    public void tearDown() {
+        BusinessClock.setInstance(null);
+    }
+
+    @Test
+    public void testAdvancesOnlyWhenTold() {
+        MutableClock time = new MutableClock(day);
+        BusinessClock clock = new BusinessClock(time);
+        assertEquals(day, clock.today());
+        assertEquals(day.toEpochDay(), clock.epochDay());
+
+        assertFalse(clock.advance());
+        time.setDate(day.plusDays(1));
+        assertEquals(day, clock.today());
+        assertTrue(clock.advance());
+        assertEquals(day.plusDays(1), clock.today());
+        assertEquals(day.toEpochDay() + 1, clock.epochDay());
+    }
+
+    @Test
+    public void testInjectedClockIsUsedByNewRentals() {
+        BusinessClock clock = new BusinessClock(new MutableClock(day));
+        BusinessClock.setInstance(clock);
+        assertSame(clock, BusinessClock.getInstance());
+
+        User u = new User("Duck", "Donald", day.minusYears(20));
+        Rental r = new Rental(u, new Movie("Titanic", day, RegularPriceCategory.getInstance(), 0));
+        assertEquals(day, r.getRentalDate());
+        assertEquals(0L, r.getRentalDays());
+    }
+
+    @Test
+    public void testSystemClock() {
+        assertEquals(LocalDate.now(), BusinessClock.getInstance().today());
+    }
+}
@@ -0,0 +1,27 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+
+/**
+ * New Movies and Users for the tests of the services, which only differ in their title or name.
+ */
+public final class Fixtures {
+
+    private Fixtures() { }
+
+    /**
+     * @param title the title.
+     * @return a new regular Movie released in 2000, without age rating. Call PriceCategory.init() first.
+     */
+    public static Movie movie(String title) {
+        return new Movie(title, LocalDate.of(2000, 1, 1), RegularPriceCategory.getInstance(), 0);
+    }
+
+    /**
+     * @param name the name.
+     * @return a new adult User.
+     */
+    public static User user(String name) {
+        return new User(name, "Hans", LocalDate.of(1980, 1, 1));
+    }
+}
@@ -0,0 +1,67 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.LocalDate;
+import java.util.function.IntFunction;
+
+/**
+ * Measures the retained heap per entity of the property-backed model classes and of their immutable records, by
+ * comparing the used heap after a full GC before and after allocating many of them. Run with the number of
+ * entities as optional argument. Strings and dates are shared between the entities, so only the entity graph
+ * itself is counted.
+ */
+public final class FootprintBenchmark {
+    private static final String TITLE = "Casablanca";
+    private static final LocalDate DATE = LocalDate.of(1942, 11, 26);
+
+    private FootprintBenchmark() { }
+
+    /**
+     * @param args optional number of entities to allocate, defaults to 200000.
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        PriceCategory regular = RegularPriceCategory.getInstance();
+        User owner = new User("Duck", "Donald", DATE);
+        Movie shared = new Movie(TITLE, DATE, regular, 0);
+
+        report("Movie", n, i -> {
+            Movie m = new Movie(TITLE, DATE, regular, 0);
+            m.setId(i + 1);
+            return m;
+        });
+        report("MovieRecord", n, i -> new MovieRecord(i + 1, TITLE, DATE, regular, 0, false));
+        report("User", n, i -> {
+            User u = new User("Duck", "Donald", DATE);
+            u.setId(i + 1);
+            return u;
+        });
+        report("UserRecord", n, i -> new UserRecord(i + 1, "Duck", "Donald", DATE));
+        report("Rental", n, i -> {
+            Rental r = Rental.materializeRentalFromDB(i + 1, owner, shared, DATE);
+            owner.getRentals().clear();
+            return r;
+        });
+        report("RentalRecord", n, i -> new RentalRecord(i + 1, 1, 1, DATE));
+    }
+
+    private static void report(String name, int n, IntFunction<Object> factory) {
+        Object[] keep = new Object[n];
+        long before = usedHeap();
+        for (int i = 0; i < n; i++) {
+            keep[i] = factory.apply(i);
+        }
+        long after = usedHeap();
+        System.out.printf("%-12s %6d bytes per entity%n", name, (after - before) / n);
+        if (keep[n - 1] == null) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
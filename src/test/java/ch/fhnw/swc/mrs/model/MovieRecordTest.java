@@ -0,0 +1,54 @@
+package ch.fhnw.swc.mrs.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+public class MovieRecordTest {
+  private final LocalDate today = LocalDate.now();
+  private final PriceCategory regular = RegularPriceCategory.getInstance();
+
+  @Test
+  public void testWithersCopy() {
+    MovieRecord m = new MovieRecord(0, "Titanic", today, regular, 12, false);
+    MovieRecord stored = m.withId(7).withRented(true);
+    assertEquals(0, m.getId());
+    assertFalse(m.isRented());
+    assertEquals(7, stored.getId());
+    assertTrue(stored.isRented());
+    assertEquals("Titanic", stored.getTitle());
+    assertEquals(today, stored.getReleaseDate());
+    assertEquals(regular, stored.getPriceCategory());
+    assertEquals(12, stored.getAgeRating());
+  }
+
+  @Test
+  public void testEquals() {
+    MovieRecord m = new MovieRecord(4711, "Titanic", today, regular, 12, false);
+    assertEquals(m, new MovieRecord(4711, "Titanic", today, regular, 12, false));
+    assertEquals(m.hashCode(), new MovieRecord(4711, "Titanic", today, regular, 12, false).hashCode());
+    assertNotEquals(m, m.withId(1));
+    assertNotEquals(m, m.withRented(true));
+    assertNotEquals(m, new MovieRecord(4711, "Titanic", today, ChildrenPriceCategory.getInstance(), 12, false));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyTitle() {
+    new MovieRecord(1, " ", today, regular, 0, false);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoReleaseDate() {
+    new MovieRecord(1, "Titanic", null, regular, 0, false);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalAgeRating() {
+    new MovieRecord(1, "Titanic", today, regular, 19, false);
+  }
+}
@@ -228,6 +228,21 @@ public class MovieTest {
     assertTrue(m2.equals(m1));
   }
 
+  /**
+   * Test equals with ids outside the range of cached Integer objects.
+   */
+  @Test
+  public void testEqualsLargeId() {
+    Movie m1 = new Movie();
+    Movie m2 = new Movie();
+    m1.setReleaseDate(today);
+    m2.setReleaseDate(today);
+    m1.setId(4711);
+    m2.setId(4711);
+    assertTrue(m1.equals(m2));
+    assertEquals(m1.hashCode(), m2.hashCode());
+  }
+
   /**
    * Test equals with different id.
    */
@@ -0,0 +1,43 @@
+package ch.fhnw.swc.mrs.model;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A clock for tests whose date can be changed, always at noon UTC.
+ */
+class MutableClock extends Clock {
+    private Instant instant;
+
+    /**
+     * @param date the initial date.
+     */
+    MutableClock(LocalDate date) {
+        setDate(date);
+    }
+
+    /**
+     * @param date the new date.
+     */
+    void setDate(LocalDate date) {
+        instant = date.atTime(12, 0).toInstant(ZoneOffset.UTC);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -1,6 +1,8 @@
 package ch.fhnw.swc.mrs.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -34,4 +36,21 @@ public class PriceCategoryTest {
     assertEquals(1, pc.getFrequentRenterPoints(4000));
   }
 
+  @Test
+  public void testLookup() {
+    PriceCategory.init();
+    PriceCategory[] categories = {RegularPriceCategory.getInstance(), ChildrenPriceCategory.getInstance(),
+        NewReleasePriceCategory.getInstance()};
+    for (PriceCategory cat : categories) {
+      assertSame(cat, PriceCategory.getPriceCategoryFromCode(cat.getCode()));
+      assertSame(cat, PriceCategory.getPriceCategoryFromId(cat.toString()));
+    }
+    assertEquals(0, pc.getCode());
+    assertNull(PriceCategory.getPriceCategoryFromCode(0));
+    assertNull(PriceCategory.getPriceCategoryFromCode(-1));
+    assertNull(PriceCategory.getPriceCategoryFromCode(99));
+    assertNull(PriceCategory.getPriceCategoryFromId("Unknown"));
+    assertNull(PriceCategory.getPriceCategoryFromId(null));
+  }
+
 }
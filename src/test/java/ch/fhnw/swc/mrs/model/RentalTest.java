@@ -162,6 +162,32 @@ public class RentalTest {
         assertEquals(6L, days);
     }
 
+    /**
+     * Days and fee follow the business clock and the movie's price category, even though they are cached.
+     */
+    @Test
+    public void testDaysAndFeeFollowBusinessDay() {
+        MutableClock time = new MutableClock(today);
+        BusinessClock.setInstance(new BusinessClock(time));
+        try {
+            Rental r = Rental.materializeRentalFromDB(0, u1, m1, today.minusDays(2));
+            BusinessClock clock = BusinessClock.getInstance();
+            assertEquals(2L, r.getRentalDays());
+            assertEquals(pc.getCharge(2), r.getRentalFee(), 1e-6);
+
+            time.setDate(today.plusDays(3));
+            assertEquals(2L, r.getRentalDays()); // the business day has not been advanced yet
+            assertTrue(clock.advance());
+            assertEquals(5L, r.getRentalDays());
+            assertEquals(pc.getCharge(5), r.getRentalFee(), 1e-6);
+
+            m1.setPriceCategory(NewReleasePriceCategory.getInstance());
+            assertEquals(NewReleasePriceCategory.getInstance().getCharge(5), r.getRentalFee(), 1e-6);
+        } finally {
+            BusinessClock.setInstance(null);
+        }
+    }
+
     @Test
     public void testSetterGetterId() {
         Rental r = new Rental(u1, m1);
@@ -3,6 +3,16 @@ package ch.fhnw.swc.mrs.model;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -11,7 +21,7 @@ public class StockTest {
 
     @Before
     public void setUp() throws Exception {
-        stock = new Stock(); // create object of CUT
+        stock = new Stock(Runnable::run); // create object of CUT, notifying listeners synchronously
     }
 
     /**
@@ -26,8 +36,8 @@ public class StockTest {
         stock.addToStock(m);
         assertEquals(2, stock.getInStock(null));
         
-        // verify that getTitle gets called twice for each add
-        verify(m, times(4)).getTitle();
+        // verify that getTitle gets called once for each add
+        verify(m, times(2)).getTitle();
     }
 
     @Test
@@ -103,4 +113,131 @@ public class StockTest {
         verify(lsl, times(3)).getThreshold();
         verify(lsl, times(2)).stockLow(eq(m), anyInt());
     }
+
+    @Test
+    public void testNotificationsAreCoalesced() {
+        List<Runnable> queued = new ArrayList<>();
+        stock = new Stock(queued::add);
+        Movie m = mock(Movie.class);
+        when(m.getTitle()).thenReturn("Titanic");
+        LowStockListener lsl = mock(LowStockListener.class);
+        when(lsl.getThreshold()).thenReturn(2);
+        stock.addLowStockListener(lsl);
+        for (int i = 0; i < 4; i++) {
+            stock.addToStock(m);
+        }
+
+        stock.removeFromStock(m);
+        stock.removeFromStock(m);
+        stock.removeFromStock(m);
+        stock.removeFromStock(m);
+        assertEquals(1, queued.size());
+        verify(lsl, never()).stockLow(any(Movie.class), anyInt());
+
+        queued.get(0).run();
+        verify(lsl).stockLow(m, 0);
+        verify(lsl, times(1)).stockLow(any(Movie.class), anyInt());
+
+        // once delivered, the next notification is queued again
+        stock.addToStock(m);
+        stock.removeFromStock(m);
+        assertEquals(2, queued.size());
+        stock.removeLowStockListener(lsl);
+        queued.get(1).run();
+        verify(lsl, times(1)).stockLow(any(Movie.class), anyInt());
+    }
+
+    @Test
+    public void testSlowListenerDoesNotBlockRemove() throws Exception {
+        stock = new Stock();
+        Movie m = mock(Movie.class);
+        when(m.getTitle()).thenReturn("Titanic");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch notified = new CountDownLatch(1);
+        stock.addLowStockListener(new LowStockListener() {
+            @Override
+            public int getThreshold() {
+                return 1;
+            }
+
+            @Override
+            public void stockLow(Movie movie, int c) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                notified.countDown();
+            }
+        });
+        stock.addToStock(m);
+        stock.addToStock(m);
+
+        assertEquals(1, stock.removeFromStock(m));
+        assertEquals(0, stock.removeFromStock(m));
+        assertEquals(1, notified.getCount());
+        release.countDown();
+        assertTrue(notified.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Several counters add and remove copies of the same titles at the same time. No update is lost and the stock
+     * never goes below zero.
+     */
+    @Test
+    public void testConcurrentAddAndRemove() throws Exception {
+        final int threads = 8;
+        final int rounds = 10000;
+        final String[] titles = {"Titanic", "Avatar", "Alien"};
+        Movie[] movies = new Movie[titles.length];
+        for (int i = 0; i < titles.length; i++) {
+            movies[i] = mock(Movie.class);
+            when(movies[i].getTitle()).thenReturn(titles[i]);
+        }
+        stock = new Stock();
+        LowStockListener lsl = mock(LowStockListener.class);
+        when(lsl.getThreshold()).thenReturn(1);
+        stock.addLowStockListener(lsl);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        List<Future<int[]>> counters = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                final int offset = t;
+                counters.add(executor.submit((Callable<int[]>) () -> {
+                    int[] net = new int[titles.length];
+                    barrier.await(10, TimeUnit.SECONDS);
+                    for (int i = 0; i < rounds; i++) {
+                        int title = i % titles.length;
+                        if ((i / titles.length + offset) % 2 == 0) {
+                            stock.addToStock(movies[title]);
+                            net[title]++;
+                        } else {
+                            try {
+                                assertTrue(stock.removeFromStock(movies[title]) >= 0);
+                                net[title]--;
+                            } catch (MovieRentalException e) {
+                                // stock is empty, another counter got the last copy
+                            }
+                        }
+                    }
+                    return net;
+                }));
+            }
+            int[] expected = new int[titles.length];
+            for (Future<int[]> f : counters) {
+                int[] net = f.get(1, TimeUnit.MINUTES);
+                for (int i = 0; i < titles.length; i++) {
+                    expected[i] += net[i];
+                }
+            }
+            for (int i = 0; i < titles.length; i++) {
+                assertTrue(expected[i] >= 0);
+                assertEquals(titles[i], expected[i], stock.getInStock(titles[i]));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package ch.fhnw.swc.mrs.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+public class UserRecordTest {
+  private final LocalDate birthdate = LocalDate.of(1934, 6, 9);
+
+  @Test
+  public void testWithId() {
+    UserRecord u = new UserRecord(0, "Duck", "Donald", birthdate);
+    UserRecord stored = u.withId(13);
+    assertEquals(0, u.getId());
+    assertEquals(13, stored.getId());
+    assertEquals("Duck", stored.getName());
+    assertEquals("Donald", stored.getFirstName());
+    assertEquals(birthdate, stored.getBirthdate());
+    assertEquals(stored, new UserRecord(13, "Duck", "Donald", birthdate));
+    assertNotEquals(stored, u);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullName() {
+    new UserRecord(1, null, "Donald", birthdate);
+  }
+
+  @Test(expected = MovieRentalException.class)
+  public void testEmptyFirstName() {
+    new UserRecord(1, "Duck", "", birthdate);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBirthdateInFuture() {
+    new UserRecord(1, "Duck", "Donald", LocalDate.now().plusDays(1));
+  }
+}
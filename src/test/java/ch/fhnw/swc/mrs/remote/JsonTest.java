@@ -0,0 +1,57 @@
+package ch.fhnw.swc.mrs.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class JsonTest {
+
+    @Test
+    public void testWriteAndParse() {
+        Map<String, Object> o = new LinkedHashMap<>();
+        o.put("title", "Ab \"c\"\\\n\u0001é");
+        o.put("id", 42L);
+        o.put("price", 2.5);
+        o.put("rented", true);
+        o.put("none", null);
+        o.put("list", Arrays.asList(1L, "two", Arrays.asList()));
+        String text = Json.write(o);
+        assertEquals("{\"title\":\"Ab \\\"c\\\"\\\\\\n\\u0001é\",\"id\":42,\"price\":2.5,\"rented\":true,"
+                + "\"none\":null,\"list\":[1,\"two\",[]]}", text);
+        assertEquals(o, Json.parse(text));
+    }
+
+    @Test
+    public void testParse() {
+        Object value = Json.parse(" { \"a\" : [ -1 , 1e3 , false ] , \"b\" : { } , \"c\" : \"\\u0041\\/\" } ");
+        Map<?, ?> o = (Map<?, ?>) value;
+        List<?> a = (List<?>) o.get("a");
+        assertEquals(-1L, a.get(0));
+        assertEquals(1000.0, a.get(1));
+        assertEquals(false, a.get(2));
+        assertEquals(0, ((Map<?, ?>) o.get("b")).size());
+        assertEquals("A/", o.get("c"));
+        assertNull(Json.parse("null"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrailingGarbage() {
+        Json.parse("{} x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnterminatedString() {
+        Json.parse("[\"abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingComma() {
+        Json.parse("[1 2]");
+    }
+}
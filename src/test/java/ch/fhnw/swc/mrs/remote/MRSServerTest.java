@@ -0,0 +1,124 @@
+package ch.fhnw.swc.mrs.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.fhnw.swc.mrs.data.InMemoryMRSServices;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+
+public class MRSServerTest {
+    private InMemoryMRSServices backend;
+    private MRSServer server;
+    private int status;
+
+    @Before
+    public void setUp() throws IOException {
+        PriceCategory.init();
+        backend = new InMemoryMRSServices();
+        backend.init();
+        server = new MRSServer(backend, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testMovies() throws IOException {
+        Map<?, ?> created = (Map<?, ?>) call("POST", "/movies", "{\"title\":\"Titanic\",\"releaseDate\":\"1997-12-19\","
+                + "\"priceCategory\":\"Regular\",\"ageRating\":12}");
+        assertEquals(200, status);
+        assertEquals(100L, created.get("id"));
+        assertEquals(false, created.get("rented"));
+
+        assertEquals(created, call("GET", "/movies/100", null));
+        assertEquals(1, ((List<?>) call("GET", "/movies?rented=false", null)).size());
+
+        Map<?, ?> ok = (Map<?, ?>) call("PUT", "/movies/100", "{\"title\":\"Avatar\",\"releaseDate\":\"2009-12-17\","
+                + "\"priceCategory\":\"Children\",\"ageRating\":6,\"rented\":true}");
+        assertEquals(true, ok.get("ok"));
+        assertEquals("Avatar", backend.getMovieById(100).getTitle());
+        assertFalse(backend.getMovieById(100).isRented());
+
+        assertEquals(true, ((Map<?, ?>) call("DELETE", "/movies/100", null)).get("ok"));
+        call("GET", "/movies/100", null);
+        assertEquals(404, status);
+    }
+
+    @Test
+    public void testRentAndReturn() throws IOException {
+        call("POST", "/movies", "{\"title\":\"Titanic\",\"releaseDate\":\"1997-12-19\",\"priceCategory\":\"Regular\","
+                + "\"ageRating\":0}");
+        call("POST", "/users", "{\"name\":\"Muster\",\"firstName\":\"Hans\",\"birthdate\":\"1980-01-01\"}");
+        call("POST", "/users", "{\"name\":\"Meier\",\"firstName\":\"Eva\",\"birthdate\":\"1980-01-01\"}");
+
+        Map<?, ?> rental = (Map<?, ?>) call("POST", "/rentals", "{\"userId\":100,\"movieId\":100}");
+        assertEquals(200, status);
+        assertEquals(100L, rental.get("movieId"));
+        assertTrue(backend.getMovieById(100).isRented());
+
+        Map<?, ?> user = (Map<?, ?>) call("GET", "/users?name=Muster", null);
+        assertEquals(rental, ((List<?>) user.get("rentals")).get(0));
+
+        Map<?, ?> conflict = (Map<?, ?>) call("POST", "/rentals", "{\"userId\":101,\"movieId\":100}");
+        assertEquals(409, status);
+        assertTrue(conflict.containsKey("error"));
+
+        assertEquals(true, ((Map<?, ?>) call("DELETE", "/rentals/" + rental.get("id"), null)).get("ok"));
+        assertFalse(backend.getMovieById(100).isRented());
+        call("DELETE", "/rentals/" + rental.get("id"), null);
+        assertEquals(404, status);
+    }
+
+    @Test
+    public void testInvalidRequests() throws IOException {
+        call("POST", "/users", "{\"name\":\"Muster\"");
+        assertEquals(400, status);
+        call("POST", "/users", "{\"name\":\"Muster\",\"firstName\":\"Hans\",\"birthdate\":\"yesterday\"}");
+        assertEquals(400, status);
+        call("PUT", "/rentals", "{}");
+        assertEquals(405, status);
+        call("GET", "/users/abc", null);
+        assertEquals(404, status);
+    }
+
+    private Object call(String method, String path, String body) throws IOException {
+        URL url = new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), path);
+        HttpURLConnection c = (HttpURLConnection) url.openConnection();
+        c.setRequestMethod(method);
+        if (body != null) {
+            c.setDoOutput(true);
+            try (OutputStream out = c.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        status = c.getResponseCode();
+        try (InputStream in = status < 400 ? c.getInputStream() : c.getErrorStream()) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            for (int n = in.read(chunk); n >= 0; n = in.read(chunk)) {
+                buffer.write(chunk, 0, n);
+            }
+            return Json.parse(new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
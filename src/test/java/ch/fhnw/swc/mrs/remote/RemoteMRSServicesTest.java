@@ -0,0 +1,200 @@
+package ch.fhnw.swc.mrs.remote;
+
+import static ch.fhnw.swc.mrs.model.Fixtures.movie;
+import static ch.fhnw.swc.mrs.model.Fixtures.user;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.fhnw.swc.mrs.data.InMemoryMRSServices;
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.Rental;
+import ch.fhnw.swc.mrs.model.RentalConflictException;
+import ch.fhnw.swc.mrs.model.User;
+
+public class RemoteMRSServicesTest {
+    private InMemoryMRSServices backend;
+    private MRSServer server;
+    private RemoteMRSServices services;
+
+    @Before
+    public void setUp() throws IOException {
+        PriceCategory.init();
+        backend = new InMemoryMRSServices() {
+            @Override
+            public Movie createMovie(Movie m) {
+                return "Broken".equals(m.getTitle()) ? null : super.createMovie(m);
+            }
+        };
+        backend.init();
+        server = new MRSServer(backend, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        services = new RemoteMRSServices(server.getAddress().getHostString(), server.getAddress().getPort());
+        services.init();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testMovies() {
+        Movie m = services.createMovie(movie("Titanic"));
+        assertEquals(100, (int) m.getId());
+        assertEquals("Titanic", services.getMovieById(100).getTitle());
+        assertNull(services.getMovieById(999));
+
+        m.setTitle("Avatar");
+        assertTrue(services.updateMovie(m));
+        assertEquals("Avatar", backend.getMovieById(100).getTitle());
+        assertTrue(services.deleteMovie(m));
+        assertTrue(services.getAllMovies().isEmpty());
+        assertFalse(services.deleteMovie(m));
+    }
+
+    @Test
+    public void testBulkOperationsArePipelined() {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            movies.add(movie("Movie " + i));
+        }
+        List<Integer> ids = services.createMovies(movies);
+        assertEquals(250, ids.size());
+        assertEquals(ids.get(249), movies.get(249).getId());
+        assertEquals(250, backend.getMovieRecords().size());
+
+        try (Stream<Movie> s = services.streamMovies()) {
+            assertEquals(ids, s.map(Movie::getId).collect(Collectors.toList()));
+        }
+        assertEquals(ids.subList(10, 15), services.getMoviesPage(ids.get(9), 5).stream().map(Movie::getId)
+                .collect(Collectors.toList()));
+
+        assertTrue(services.deleteMovies(movies));
+        assertTrue(backend.getMovieRecords().isEmpty());
+    }
+
+    @Test
+    public void testPartOfBulkCreationFails() {
+        List<Movie> movies = Arrays.asList(movie("Titanic"), movie("Broken"), movie("Avatar"));
+        assertNull(services.createMovies(movies));
+        assertEquals(100, (int) movies.get(0).getId());
+        assertEquals(101, (int) movies.get(2).getId());
+        assertEquals("Avatar", backend.getMovieById(101).getTitle());
+    }
+
+    @Test
+    public void testUsersAndRentalsArePaged() {
+        List<Movie> movies = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            movies.add(movie("Movie " + i));
+            users.add(user("User " + i));
+        }
+        services.createMovies(movies);
+        List<Integer> userIds = services.createUsers(users);
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            rentals.add(new Rental(users.get(i / 2), movies.get(i)));
+        }
+        List<Integer> rentalIds = services.createRentals(rentals);
+
+        try (Stream<User> s = services.streamUsers()) {
+            assertEquals(userIds, s.map(User::getId).collect(Collectors.toList()));
+        }
+        User first = services.getUsersPage(0, 1).get(0);
+        assertEquals(2, first.getRentals().size());
+        assertEquals("Movie 1", first.getRentals().get(1).getMovie().getTitle());
+
+        try (Stream<Rental> s = services.streamRentals()) {
+            assertEquals(rentalIds, s.map(Rental::getId).collect(Collectors.toList()));
+        }
+        List<Rental> page = services.getRentalsPage(rentalIds.get(9), 2);
+        assertEquals(rentalIds.subList(10, 12), page.stream().map(Rental::getId).collect(Collectors.toList()));
+        assertSame(page.get(0).getUser(), page.get(1).getUser());
+        assertEquals(2, page.get(0).getUser().getRentals().size());
+    }
+
+    @Test
+    public void testRentAndReturn() {
+        services.createMovies(Arrays.asList(movie("Titanic"), movie("Avatar")));
+        services.createUsers(Arrays.asList(user("Muster"), user("Meier")));
+
+        User u = services.getUserByName("Muster");
+        Movie m = services.getMovieById(100);
+        Movie stale = services.getMovieById(100);
+        assertTrue(services.createRental(u, m));
+        assertTrue(backend.getMovieById(100).isRented());
+        assertEquals(1, u.getRentals().size());
+
+        User loaded = services.getUserById(u.getId());
+        assertEquals(1, loaded.getRentals().size());
+        assertEquals("Titanic", loaded.getRentals().get(0).getMovie().getTitle());
+        assertEquals(Arrays.asList(101), services.getAllMovies(false).stream().map(Movie::getId)
+                .collect(Collectors.toList()));
+
+        User other = services.getUserByName("Meier");
+        try {
+            services.createRental(other, stale);
+            fail("conflict expected");
+        } catch (RentalConflictException e) {
+            assertTrue(other.getRentals().isEmpty());
+        }
+
+        List<Rental> rentals = services.getAllRentals();
+        assertEquals(1, rentals.size());
+        Rental r = rentals.get(0);
+        assertSame(r, r.getUser().getRentals().get(0));
+        assertEquals(u.getId(), r.getUser().getId());
+
+        Rental byId = services.getRentalById(r.getId());
+        assertSame(byId, byId.getUser().getRentals().get(0));
+        assertEquals("Titanic", byId.getMovie().getTitle());
+        assertNull(services.getRentalById(999));
+
+        assertTrue(services.returnRental(r));
+        assertFalse(r.getMovie().isRented());
+        assertTrue(backend.getAllRentals().isEmpty());
+        try {
+            services.returnRental(u.getRentals().get(0));
+            fail("conflict expected");
+        } catch (RentalConflictException e) {
+            assertTrue(services.getRentalRecords().isEmpty());
+        }
+    }
+
+    @Test
+    public void testUsers() {
+        User u = services.createUser(user("Muster"));
+        assertEquals(100, u.getId());
+        u.setFirstName("Eva");
+        assertTrue(services.updateUser(u));
+        assertEquals("Eva", services.getUserRecords().get(0).getFirstName());
+        assertEquals(1, services.getUsersPage(0, 10).size());
+        assertTrue(services.deleteUser(u));
+        assertNull(services.getUserByName("Muster"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testServiceNotReachable() {
+        server.stop(0);
+        new RemoteMRSServices(server.getAddress().getHostString(), server.getAddress().getPort()).init();
+    }
+}
@@ -0,0 +1,70 @@
+package ch.fhnw.swc.mrs.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.fhnw.swc.mrs.model.Movie;
+import ch.fhnw.swc.mrs.model.PriceCategory;
+import ch.fhnw.swc.mrs.model.RegularPriceCategory;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+public class TableItemsTest {
+    private ObservableList<Movie> items;
+    private List<ListChangeListener.Change<? extends Movie>> changes;
+
+    @Before
+    public void setUp() {
+        PriceCategory.init();
+        items = FXCollections.observableArrayList(movie(1, "Titanic"), movie(2, "Avatar"), movie(3, "Alien"));
+        changes = new ArrayList<>();
+        items.addListener((ListChangeListener<Movie>) changes::add);
+    }
+
+    private static Movie movie(int id, String title) {
+        Movie m = new Movie(title, LocalDate.of(2000, 1, 1), RegularPriceCategory.getInstance(), 0);
+        m.setId(id);
+        return m;
+    }
+
+    private boolean refresh(Movie... fresh) {
+        return TableItems.refresh(items, Arrays.asList(fresh), Movie::getId, ViewModels::sameValues);
+    }
+
+    @Test
+    public void testUnchangedItemsAreNotTouched() {
+        assertFalse(refresh(movie(1, "Titanic"), movie(2, "Avatar"), movie(3, "Alien")));
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void testInsertUpdateAndRemoveInOneChange() {
+        Movie titanic = items.get(0);
+        Movie alien = items.get(2);
+        Movie changed = movie(2, "Avatar 2");
+        assertTrue(refresh(movie(1, "Titanic"), changed, movie(3, "Alien"), movie(4, "Heat")));
+
+        assertEquals(1, changes.size());
+        assertEquals(4, items.size());
+        assertSame(titanic, items.get(0));
+        assertSame(changed, items.get(1));
+        assertSame(alien, items.get(2));
+
+        changes.clear();
+        assertTrue(refresh(movie(3, "Alien")));
+        assertEquals(1, changes.size());
+        assertSame(alien, items.get(0));
+        assertEquals(1, items.size());
+    }
+}